@@ -1,27 +1,84 @@
+import common.AnalysisEvent;
 import common.Graph;
-import graph.scc.TarjanSCC;
-import graph.topo.TopologicalSort;
-import graph.dagsp.DAGShortestPath;
+import common.PhaseEvent;
+import utils.AnalysisCache;
+import utils.AnalysisResult;
+import utils.AnalysisServer;
+import utils.BatchAnalyzer;
 import utils.DatasetGenerator;
+import utils.OutputMode;
+import utils.ReachableAnalysis;
+import utils.ResultWriter;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
 
 
 public class Main {
 
+    private static final int DEFAULT_CACHE_ENTRIES = 64;
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private static AnalysisCache cache = new AnalysisCache(DEFAULT_CACHE_ENTRIES);
+
+    private static OutputMode outputMode = OutputMode.FULL;
+
+    private static boolean lazy = false;
+
     public static void main(String[] args) {
         try {
-           
+
             if (args.length > 0 && args[0].equals("--generate")) {
                 String outputDir = args.length > 1 ? args[1] : "data";
                 DatasetGenerator.generateAllDatasets(outputDir);
                 return;
             }
 
-            
-            String filename = args.length > 0 ? args[0] : "tasks (1).json";
-            runCompleteAnalysis(filename);
+            if (args.length > 0 && args[0].equals("--serve")) {
+                AnalysisServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+
+            if (args.length > 0 && args[0].equals("--batch")) {
+                runBatch(args);
+                return;
+            }
+
+            List<String> inputs = new ArrayList<>();
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--cache-dir") && i + 1 < args.length) {
+                    cache = new AnalysisCache(DEFAULT_CACHE_ENTRIES, new File(args[++i]));
+                } else if (args[i].equals("--output") && i + 1 < args.length) {
+                    outputMode = OutputMode.parse(args[++i]);
+                } else if (args[i].equals("--lazy")) {
+                    lazy = true;
+                } else {
+                    inputs.add(args[i]);
+                }
+            }
+            if (inputs.isEmpty()) {
+                inputs.add("tasks (1).json");
+            }
+
+            // One CSV table for all inputs; each dataset only adds its rows
+            if (!lazy && outputMode == OutputMode.CSV) {
+                System.out.print(ResultWriter.CSV_HEADER + "\n");
+            }
+            // Directories expand to their JSON files
+            for (File file : BatchAnalyzer.collectInputs(inputs)) {
+                if (lazy) {
+                    runLazyAnalysis(file.getPath());
+                } else {
+                    runCompleteAnalysis(file.getPath());
+                }
+            }
 
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
@@ -30,106 +87,127 @@ public class Main {
         }
     }
 
-   
+
     public static void runCompleteAnalysis(String filename) throws IOException {
-       
-        System.out.println("\nAnalyzing dataset: " + filename);
-        
-       
+        runCompleteAnalysis(filename, cache, outputMode);
+    }
+
+    /**
+     * Analyze a dataset, reusing a cached result when the graph content is unchanged.
+     * CSV mode writes rows only; the caller writes ResultWriter.CSV_HEADER once.
+     */
+    public static void runCompleteAnalysis(String filename, AnalysisCache analysisCache, OutputMode mode)
+            throws IOException {
+        AnalysisEvent analysis = AnalysisEvent.begin(filename);
+        PhaseEvent phase = PhaseEvent.begin("load", null);
         Graph graph = Graph.fromJsonFile(filename);
         int source = Graph.getSourceFromJson(filename);
         if (source == -1) {
-            source = 0; 
+            source = 0;
         }
+        phase.end(graph, -1);
 
-        System.out.println("\n" + graph);
-        
-        
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("STEP 1: STRONGLY CONNECTED COMPONENTS (Tarjan's Algorithm)");
-        System.out.println("=".repeat(60));
-        
-        TarjanSCC sccFinder = new TarjanSCC(graph);
-        List<List<Integer>> sccs = sccFinder.findSCCs();
-        sccFinder.printSCCs();
-
-    
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("CONDENSATION GRAPH (DAG of SCCs)");
-        System.out.println("=".repeat(60));
-        
-        Graph condensation = sccFinder.buildCondensation();
-        System.out.println(condensation);
-
-
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("STEP 2: TOPOLOGICAL SORT (Kahn's Algorithm)");
-        System.out.println("=".repeat(60));
-        
-        TopologicalSort topoSort = new TopologicalSort(condensation);
-        List<Integer> topoOrder = topoSort.kahnSort();
-        topoSort.printTopologicalOrder(topoOrder);
-
-  
-        if (!topoOrder.isEmpty()) {
-            System.out.println("\n--- Derived Task Order from SCC Condensation ---");
-            System.out.print("SCC Order: ");
-            for (int sccId : topoOrder) {
-                System.out.print("SCC" + sccId + " ");
-            }
-            System.out.println();
-            
-            System.out.println("\nExpanded Task Order:");
-            for (int sccId : topoOrder) {
-                List<Integer> sccNodes = sccs.get(sccId);
-                System.out.println("  SCC " + sccId + " contains tasks: " + sccNodes);
-            }
-        }
-
-
-        if (!topoOrder.isEmpty()) {
-            System.out.println("\n" + "=".repeat(60));
-            System.out.println("STEP 3: DAG SHORTEST & LONGEST PATHS");
-            System.out.println("=".repeat(60));
-            
+        AnalysisResult result = analysisCache.getOrCompute(graph, source);
 
-            int condensationSource = sccFinder.getSccId(source);
-            
-            DAGShortestPath dagSP = new DAGShortestPath(condensation);
-            
+        phase = PhaseEvent.begin("print", graph);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE);
+        new ResultWriter(out, mode).write(filename, graph, result);
+        if (mode == OutputMode.FULL) {
+            out.write("✓ Analysis cache: " + analysisCache.getStats() + "\n");
+        }
+        out.flush();
+        phase.end(-1);
+        analysis.end(graph);
+    }
 
-            DAGShortestPath.PathResult shortestResult = dagSP.shortestPaths(condensationSource);
-            dagSP.printShortestPaths(condensationSource, shortestResult);
-            
+    /**
+     * Analyze only what is reachable from the dataset's source: SCCs, condensation
+     * and DAG paths of that region, without touching the rest of the graph.
+     */
+    public static void runLazyAnalysis(String filename) throws IOException {
+        Graph graph = Graph.fromJsonFile(filename);
+        int source = Graph.getSourceFromJson(filename);
+        if (source == -1) {
+            source = 0;
+        }
 
-            System.out.println("\n" + "-".repeat(60));
-            DAGShortestPath.PathResult longestResult = dagSP.longestPaths(condensationSource);
-            dagSP.printLongestPaths(condensationSource, longestResult);
-            
+        ReachableAnalysis result = ReachableAnalysis.compute(graph, source);
+        int end = result.criticalEnd();
+        System.out.println("Dataset: " + filename);
+        System.out.printf("  Reachable from %d: %d of %d vertices, %d edges scanned%n",
+                source, result.vertices.length, graph.getVertexCount(), result.edgesScanned);
+        System.out.printf("  SCCs: %d, Condensation edges: %d%n", result.componentCount, result.condensationEdgeCount);
+        System.out.printf("  Critical path length: %d (to vertex %d)%n",
+                result.longestDist[end], result.componentMembers[result.componentOffsets[end]]);
+        System.out.printf("  Time: %.3f ms%n", result.timeMs);
+    }
 
-            dagSP.printCriticalPath(condensationSource);
-        } else {
-            System.out.println("\n[WARNING] Cannot compute DAG paths: graph contains cycles");
-            System.out.println("The condensation step should have resolved this, but the graph may be fully cyclic.");
+    /**
+     * Batch mode: --batch <dir|file>... [--threads N] [--out results.csv] [--sequential]
+     */
+    private static void runBatch(String[] args) throws IOException, InterruptedException {
+        List<String> inputs = new ArrayList<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        String outFile = null;
+        boolean sequential = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--out") && i + 1 < args.length) {
+                outFile = args[++i];
+            } else if (args[i].equals("--sequential")) {
+                sequential = true;
+            } else {
+                inputs.add(args[i]);
+            }
+        }
+        if (inputs.isEmpty()) {
+            inputs.add("data");
         }
 
+        List<File> files = BatchAnalyzer.collectInputs(inputs);
+        BatchAnalyzer batch = new BatchAnalyzer(threads, threads * 2);
+        long start = System.nanoTime();
+        Writer out = new BufferedWriter(outFile != null
+                ? new FileWriter(outFile)
+                : new OutputStreamWriter(System.out));
+        try {
+            if (sequential) {
+                batch.runSequential(files, out);
+            } else {
+                batch.run(files, out);
+            }
+        } finally {
+            // Leave System.out open for the caller
+            if (outFile != null) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        }
+        System.err.printf("Analyzed %d files in %.3f ms%n", files.size(), (System.nanoTime() - start) / 1_000_000.0);
+    }
 
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("ANALYSIS COMPLETE");
-        System.out.println("=".repeat(60));
-        System.out.println("✓ SCCs found: " + sccFinder.getSccCount());
-        System.out.println("✓ Condensation nodes: " + condensation.getVertexCount());
-        System.out.println("✓ Condensation edges: " + condensation.getEdgeCount());
-        System.out.println("✓ Topological order: " + (topoOrder.isEmpty() ? "N/A (cyclic)" : "Valid"));
-        System.out.println("✓ Weight model: " + graph.getWeightModel());
+    public static AnalysisCache getCache() {
+        return cache;
     }
 
 
     private static void printUsage() {
         System.out.println("\n=== USAGE ===");
         System.out.println("Run analysis:");
-        System.out.println("  java -jar assignment4.jar <graph-file.json>");
+        System.out.println("  java -jar assignment4.jar <graph-file.json|dir>... [--output summary|json|csv|full] [--cache-dir <dir>]");
+        System.out.println("  java -jar assignment4.jar <graph-file.json|dir>... --lazy   (only the part reachable from the source)");
         System.out.println("  mvn exec:java -Dexec.args=\"<graph-file.json>\"");
+        System.out.println("\nBatch analysis (CSV summary per file):");
+        System.out.println("  java -jar assignment4.jar --batch <dir|file>... [--threads N] [--out file.csv]");
+        System.out.println("\nAnalysis server (HTTP/JSON on localhost):");
+        System.out.println("  java -jar assignment4.jar --serve [port] [threads]");
+        System.out.println("\nFast startup (JDK 13+, after mvn -Pstartup package):");
+        System.out.println("  java -XX:SharedArchiveFile=target/app-cds.jsa -jar target/smart-city-scheduling-1.0-SNAPSHOT.jar <graph-file.json>");
+        System.out.println("\nPer-phase tracing (JDK Flight Recorder):");
+        System.out.println("  java -XX:StartFlightRecording=filename=run.jfr -jar assignment4.jar <graph-file.json|dir>...");
+        System.out.println("  java -cp target/classes utils.JfrSummary run.jfr [--by-input]");
         System.out.println("\nGenerate datasets:");
         System.out.println("  java -jar assignment4.jar --generate [output-dir]");
         System.out.println("  mvn exec:java -Dexec.args=\"--generate data\"");
@@ -0,0 +1,39 @@
+package common;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A whole analysis of one input file. Phase and engine events recorded
+ * on the same thread within its span belong to that input.
+ */
+@Name("scheduling.Analysis")
+@Label("Analysis")
+@Description("Complete analysis of one input, from load to printed result")
+public final class AnalysisEvent extends TracedEvent {
+    private static final AnalysisEvent DISABLED = new AnalysisEvent();
+
+    @Label("Input")
+    public String input;
+
+    public static AnalysisEvent begin(String input) {
+        if (!recorderInitialized()) {
+            return DISABLED;
+        }
+        AnalysisEvent event = new AnalysisEvent();
+        if (event.isEnabled()) {
+            event.input = input;
+            event.start(null);
+        }
+        return event;
+    }
+
+    public void end(GraphStorage graph) {
+        if (isStarted()) {
+            vertices = graph.getVertexCount();
+            edges = graph.getEdgeCount();
+            finish(-1);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Adjacency-matrix graph for dense inputs: one {@code long[]} bit row per
+ * vertex for out-edges and one for in-edges, so a neighbor scan is a word
+ * loop and set operations (e.g. "neighbors not yet visited") are
+ * {@code row & ~mask}. Parallel edges collapse to one; the first one's
+ * weight is kept. Edge weights are stored in row order, ascending by target.
+ *
+ * Memory is 2 * V^2 bits plus one int per edge, independent of per-edge
+ * objects. Indexed edge access ({@link #getEdgeTarget}) selects the i-th set
+ * bit and costs O(V / 64); bitset engines use the rows directly instead.
+ */
+public class BitsetGraph implements GraphStorage {
+    /** Edge density (E / (V * (V - 1))) at which the bitset engines are picked. */
+    public static final double DENSE_THRESHOLD = 0.1;
+    /** Below this many vertices rows are a few words and the list engines are as fast. */
+    public static final int MIN_DENSE_VERTICES = 256;
+
+    private final int n;
+    private final int words;
+    private final boolean directed;
+    private final String weightModel;
+    private final long[] out;      // out[v * words + w]
+    private final long[] in;       // in[v * words + w]
+    private final int[] rowOffsets;
+    private final int[] weights;
+    private final int[] nodeWeights;
+    private final ReverseCache reverse = new ReverseCache();
+
+    private BitsetGraph(int n, boolean directed, String weightModel, long[] out, long[] in,
+                        int[] rowOffsets, int[] weights, int[] nodeWeights) {
+        this.n = n;
+        this.words = wordsFor(n);
+        this.directed = directed;
+        this.weightModel = weightModel != null ? weightModel : "edge";
+        this.out = out;
+        this.in = in;
+        this.rowOffsets = rowOffsets;
+        this.weights = weights;
+        this.nodeWeights = nodeWeights;
+    }
+
+    /**
+     * Copy any graph into bit rows.
+     */
+    public static BitsetGraph copyOf(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        int words = wordsFor(n);
+        long[] out = new long[n * words];
+        long[] in = new long[n * words];
+        int[] rowOffsets = new int[n + 1];
+        int[] nodeWeights = new int[n];
+        int[] weights = new int[Math.max(graph.getEdgeCount(), 0)];
+        int[] rowWeight = new int[n];   // weight by target for the current row
+
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            nodeWeights[u] = graph.getNodeWeight(u);
+            int base = u * words;
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getEdgeTarget(u, i);
+                long bit = 1L << v;
+                if ((out[base + (v >>> 6)] & bit) == 0) {
+                    out[base + (v >>> 6)] |= bit;
+                    in[v * words + (u >>> 6)] |= 1L << u;
+                    rowWeight[v] = graph.getEdgeWeight(u, i);
+                }
+            }
+            rowOffsets[u] = m;
+            for (int v = nextSetBit(out, base, words, 0); v >= 0; v = nextSetBit(out, base, words, v + 1)) {
+                if (m == weights.length) {
+                    weights = Arrays.copyOf(weights, Math.max(16, m * 2));
+                }
+                weights[m++] = rowWeight[v];
+            }
+        }
+        rowOffsets[n] = m;
+
+        return new BitsetGraph(n, graph.isDirected(), graph.getWeightModel(), out, in,
+                rowOffsets, m == weights.length ? weights : Arrays.copyOf(weights, m), nodeWeights);
+    }
+
+    /**
+     * True when the graph is large and dense enough for the bitset engines to pay off.
+     */
+    public static boolean isDense(GraphStorage graph) {
+        long n = graph.getVertexCount();
+        return n >= MIN_DENSE_VERTICES && graph.getEdgeCount() >= DENSE_THRESHOLD * n * (n - 1);
+    }
+
+    static int wordsFor(int n) {
+        return (n + 63) >>> 6;
+    }
+
+    /**
+     * First set bit at or after {@code from} in the row starting at {@code base}, or -1.
+     */
+    public static int nextSetBit(long[] rows, int base, int words, int from) {
+        int w = from >>> 6;
+        if (w >= words) {
+            return -1;
+        }
+        long word = rows[base + w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words) {
+                return -1;
+            }
+            word = rows[base + w];
+        }
+    }
+
+    /** Words per bit row. */
+    public int getWords() {
+        return words;
+    }
+
+    /** Out-edge rows, {@code getWords()} longs per vertex. Not to be modified. */
+    public long[] getOutRows() {
+        return out;
+    }
+
+    /** In-edge rows, {@code getWords()} longs per vertex. Not to be modified. */
+    public long[] getInRows() {
+        return in;
+    }
+
+    public boolean hasEdge(int u, int v) {
+        return (out[u * words + (v >>> 6)] & (1L << v)) != 0;
+    }
+
+    /**
+     * Heap bytes used by the bit rows and weights.
+     */
+    public long getMemoryBytes() {
+        return 8L * (out.length + in.length) + 4L * (rowOffsets.length + weights.length + nodeWeights.length);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        // Stored arcs, so parallel edges count once
+        return directed ? rowOffsets[n] : rowOffsets[n] / 2;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+
+    @Override
+    public int getNodeWeight(int node) {
+        return nodeWeights[node];
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return rowOffsets[v + 1] - rowOffsets[v];
+    }
+
+    @Override
+    public int getEdgeTarget(int v, int index) {
+        int base = v * words;
+        int remaining = index;
+        for (int w = 0; w < words; w++) {
+            long word = out[base + w];
+            int count = Long.bitCount(word);
+            if (remaining < count) {
+                for (int k = 0; k < remaining; k++) {
+                    word &= word - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            remaining -= count;
+        }
+        throw new IndexOutOfBoundsException("Edge index " + index + " out of range for vertex " + v);
+    }
+
+    @Override
+    public int getEdgeWeight(int v, int index) {
+        return weights[rowOffsets[v] + index];
+    }
+
+    @Override
+    public ReverseAdjacency reverse() {
+        return reverse.get(this);
+    }
+
+    @Override
+    public void dropReverse() {
+        reverse.clear();
+    }
+
+    @Override
+    public long getReverseBytes() {
+        return reverse.getMemoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BitsetGraph: n=%d, edges=%d, directed=%b, weight_model=%s",
+                n, getEdgeCount(), directed, weightModel);
+    }
+}
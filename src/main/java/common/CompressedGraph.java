@@ -0,0 +1,358 @@
+package common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable graph with compressed adjacency in one byte stream. Each row is
+ * the out-degree followed by (target gap, weight) varint pairs: targets are
+ * sorted, the first one zigzag-encoded relative to the vertex itself and the
+ * rest as gaps to the previous target, so locality-ordered graphs need about
+ * one byte per target. Weights are stored relative to the smallest weight and
+ * omitted entirely when all edges (or all nodes) share one weight.
+ *
+ * Edges are decoded sequentially through {@link #cursor()}; indexed
+ * {@link #getEdgeTarget} / {@link #getEdgeWeight} re-decode the row and are
+ * only meant for occasional access. Out-edges are listed in ascending target
+ * order, not insertion order. {@link #save(File)} / {@link #load(File)}
+ * write the same layout to disk.
+ */
+public class CompressedGraph implements GraphStorage {
+    private static final int MAGIC = 0x43475231;   // "CGR1"
+
+    private final int n;
+    private final int m;
+    private final boolean directed;
+    private final String weightModel;
+    private final int[] rowOffsets;    // first byte of each vertex's row
+    private final byte[] data;
+    private final int weightBase;
+    private final boolean edgeWeights;  // false: every edge weighs weightBase
+    private final int[] nodeWeights;    // null: every node weighs nodeWeightBase
+    private final int nodeWeightBase;
+    private final ReverseCache reverse = new ReverseCache();
+
+    private CompressedGraph(int n, int m, boolean directed, String weightModel, int[] rowOffsets, byte[] data,
+                            int weightBase, boolean edgeWeights, int[] nodeWeights, int nodeWeightBase) {
+        this.n = n;
+        this.m = m;
+        this.directed = directed;
+        this.weightModel = weightModel != null ? weightModel : "edge";
+        this.rowOffsets = rowOffsets;
+        this.data = data;
+        this.weightBase = weightBase;
+        this.edgeWeights = edgeWeights;
+        this.nodeWeights = nodeWeights;
+        this.nodeWeightBase = nodeWeightBase;
+    }
+
+    /**
+     * Compress any graph. Edges with the same target keep their relative order.
+     */
+    public static CompressedGraph copyOf(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        int m = 0;
+        int minWeight = Integer.MAX_VALUE, maxWeight = Integer.MIN_VALUE;
+        int maxDegree = 0;
+        boolean uniformNodes = true;
+        for (int u = 0; u < n; u++) {
+            uniformNodes &= graph.getNodeWeight(u) == graph.getNodeWeight(0);
+            int degree = graph.getOutDegree(u);
+            m += degree;
+            maxDegree = Math.max(maxDegree, degree);
+            for (int i = 0; i < degree; i++) {
+                int w = graph.getEdgeWeight(u, i);
+                minWeight = Math.min(minWeight, w);
+                maxWeight = Math.max(maxWeight, w);
+            }
+        }
+        int weightBase = m == 0 ? 0 : minWeight;
+        boolean edgeWeights = m > 0 && minWeight != maxWeight;
+
+        int[] nodeWeights = null;
+        int nodeWeightBase = n == 0 ? 0 : graph.getNodeWeight(0);
+        if (!uniformNodes) {
+            nodeWeights = new int[n];
+            for (int u = 0; u < n; u++) {
+                nodeWeights[u] = graph.getNodeWeight(u);
+            }
+        }
+
+        int[] rowOffsets = new int[n + 1];
+        byte[] data = new byte[Math.max(16, n + 2 * m)];
+        int pos = 0;
+        long[] row = new long[maxDegree];
+        for (int u = 0; u < n; u++) {
+            rowOffsets[u] = pos;
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                // Sort by target, stable in index
+                row[i] = ((long) graph.getEdgeTarget(u, i) << 32) | i;
+            }
+            Arrays.sort(row, 0, degree);
+
+            if (data.length - pos < 5) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            pos = writeVarint(data, pos, degree);
+            int previous = u;
+            for (int k = 0; k < degree; k++) {
+                int target = (int) (row[k] >>> 32);
+                int index = (int) row[k];
+                if (data.length - pos < 20) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                pos = writeVarint(data, pos, k == 0 ? zigzag(target - u) : target - previous);
+                previous = target;
+                if (edgeWeights) {
+                    pos = writeVarint(data, pos, (long) graph.getEdgeWeight(u, index) - weightBase);
+                }
+            }
+        }
+        rowOffsets[n] = pos;
+
+        return new CompressedGraph(n, m, graph.isDirected(), graph.getWeightModel(), rowOffsets,
+                Arrays.copyOf(data, pos), weightBase, edgeWeights, nodeWeights, nodeWeightBase);
+    }
+
+    private static long zigzag(int value) {
+        return ((long) value << 1) ^ ((long) value >> 63);
+    }
+
+    private static int unzigzag(long value) {
+        return (int) ((value >>> 1) ^ -(value & 1));
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Decoding cursor: a target varint and, if weights vary, a weight varint per edge.
+     */
+    private final class DecodingCursor implements EdgeCursor {
+        private int pos;
+        private int remaining;
+        private int first;
+        private int target;
+        private int weight;
+
+        @Override
+        public void reset(int v) {
+            pos = rowOffsets[v];
+            remaining = (int) readVarint();
+            first = v;
+            weight = weightBase;
+        }
+
+        @Override
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            long value = readVarint();
+            if (first >= 0) {
+                target = first + unzigzag(value);
+                first = -1;
+            } else {
+                target += (int) value;
+            }
+            if (edgeWeights) {
+                weight = (int) (readVarint() + weightBase);
+            }
+            return true;
+        }
+
+        private long readVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        @Override
+        public int target() {
+            return target;
+        }
+
+        @Override
+        public int weight() {
+            return weight;
+        }
+    }
+
+    @Override
+    public EdgeCursor cursor() {
+        return new DecodingCursor();
+    }
+
+    private DecodingCursor edgeAt(int v, int index) {
+        if (index < 0 || index >= getOutDegree(v)) {
+            throw new IndexOutOfBoundsException("Edge index " + index + " out of range for vertex " + v);
+        }
+        DecodingCursor edges = new DecodingCursor();
+        edges.reset(v);
+        for (int i = 0; i <= index; i++) {
+            edges.next();
+        }
+        return edges;
+    }
+
+    /**
+     * Bytes held by the compressed representation.
+     */
+    public long getCompressedBytes() {
+        return data.length + 4L * rowOffsets.length + (nodeWeights != null ? 4L * nodeWeights.length : 0);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return directed ? m : m / 2;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+
+    @Override
+    public int getNodeWeight(int node) {
+        return nodeWeights != null ? nodeWeights[node] : nodeWeightBase;
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        int pos = rowOffsets[v];
+        int degree = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            degree |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return degree;
+    }
+
+    @Override
+    public int getEdgeTarget(int v, int index) {
+        return edgeAt(v, index).target();
+    }
+
+    @Override
+    public int getEdgeWeight(int v, int index) {
+        return edgeAt(v, index).weight();
+    }
+
+    /**
+     * Write the compressed layout as-is.
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeBoolean(directed);
+            out.writeUTF(weightModel);
+            out.writeInt(weightBase);
+            out.writeBoolean(edgeWeights);
+            out.writeInt(nodeWeightBase);
+            out.writeBoolean(nodeWeights != null);
+            if (nodeWeights != null) {
+                writeInts(out, nodeWeights);
+            }
+            writeInts(out, rowOffsets);
+            out.writeInt(data.length);
+            out.write(data);
+        }
+    }
+
+    public static CompressedGraph load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a compressed graph file: " + file);
+            }
+            int n = in.readInt();
+            int m = in.readInt();
+            boolean directed = in.readBoolean();
+            String weightModel = in.readUTF();
+            int weightBase = in.readInt();
+            boolean edgeWeights = in.readBoolean();
+            int nodeWeightBase = in.readInt();
+            int[] nodeWeights = in.readBoolean() ? readInts(in) : null;
+            int[] rowOffsets = readInts(in);
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            if (rowOffsets.length != n + 1 || (nodeWeights != null && nodeWeights.length != n)
+                    || rowOffsets[n] != data.length) {
+                throw new IOException("Corrupt compressed graph file: " + file);
+            }
+            return new CompressedGraph(n, m, directed, weightModel, rowOffsets, data,
+                    weightBase, edgeWeights, nodeWeights, nodeWeightBase);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    @Override
+    public ReverseAdjacency reverse() {
+        return reverse.get(this);
+    }
+
+    @Override
+    public void dropReverse() {
+        reverse.clear();
+    }
+
+    @Override
+    public long getReverseBytes() {
+        return reverse.getMemoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressedGraph: n=%d, edges=%d, %d bytes (%.2f bytes/edge)",
+                n, m, getCompressedBytes(), m == 0 ? 0.0 : (double) getCompressedBytes() / m);
+    }
+}
@@ -0,0 +1,154 @@
+package common;
+
+/**
+ * Immutable heap graph in compressed sparse row form: offsets, targets,
+ * edge weights and node weights are plain int arrays. The heap counterpart
+ * of {@link OffHeapGraph} for short-lived copies, which the GC reclaims
+ * like any other array instead of waiting on direct-buffer cleanup.
+ */
+public class CsrGraph implements GraphStorage {
+    private final int n;
+    private final boolean directed;
+    private final String weightModel;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] nodeWeights;
+    private final ReverseCache reverse = new ReverseCache();
+
+    private CsrGraph(int n, boolean directed, String weightModel,
+                     int[] offsets, int[] targets, int[] weights, int[] nodeWeights) {
+        this.n = n;
+        this.directed = directed;
+        this.weightModel = weightModel != null ? weightModel : "edge";
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.nodeWeights = nodeWeights;
+    }
+
+    /**
+     * Copy any graph into heap CSR, preserving edge order.
+     */
+    public static CsrGraph copyOf(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        int[] offsets = new int[n + 1];
+        int[] nodeWeights = new int[n];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.getOutDegree(u);
+            nodeWeights[u] = graph.getNodeWeight(u);
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        EdgeCursor edges = graph.cursor();
+        for (int u = 0; u < n; u++) {
+            int pos = offsets[u];
+            edges.reset(u);
+            while (edges.next()) {
+                targets[pos] = edges.target();
+                weights[pos] = edges.weight();
+                pos++;
+            }
+        }
+
+        return new CsrGraph(n, graph.isDirected(), graph.getWeightModel(), offsets, targets, weights, nodeWeights);
+    }
+
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return directed ? targets.length : targets.length / 2;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+
+    @Override
+    public int getNodeWeight(int node) {
+        return nodeWeights[node];
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int getEdgeTarget(int v, int index) {
+        return targets[offsets[v] + index];
+    }
+
+    @Override
+    public int getEdgeWeight(int v, int index) {
+        return weights[offsets[v] + index];
+    }
+
+    @Override
+    public EdgeCursor cursor() {
+        return new EdgeCursor() {
+            private int pos;
+            private int end;
+
+            @Override
+            public void reset(int v) {
+                pos = offsets[v] - 1;
+                end = offsets[v + 1];
+            }
+
+            @Override
+            public boolean next() {
+                return ++pos < end;
+            }
+
+            @Override
+            public int target() {
+                return targets[pos];
+            }
+
+            @Override
+            public int weight() {
+                return weights[pos];
+            }
+        };
+    }
+
+    /**
+     * Heap bytes held by the adjacency and node weight arrays.
+     */
+    public long getMemoryBytes() {
+        return (long) (offsets.length + targets.length + weights.length + nodeWeights.length) * Integer.BYTES;
+    }
+
+    @Override
+    public ReverseAdjacency reverse() {
+        return reverse.get(this);
+    }
+
+    @Override
+    public void dropReverse() {
+        reverse.clear();
+    }
+
+    @Override
+    public long getReverseBytes() {
+        return reverse.getMemoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CsrGraph: n=%d, edges=%d, directed=%b, weightModel=%s, bytes=%d",
+                n, getEdgeCount(), directed, weightModel, getMemoryBytes());
+    }
+}
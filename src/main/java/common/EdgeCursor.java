@@ -0,0 +1,33 @@
+package common;
+
+/**
+ * Forward-only iterator over the out-edges of one vertex at a time.
+ * Reusable: {@link #reset(int)} repositions it without allocating, so a
+ * traversal keeps one cursor per DFS depth or one per sweep. Storage
+ * formats that cannot index edges cheaply (e.g. {@link CompressedGraph})
+ * decode sequentially through it.
+ *
+ * <pre>
+ * EdgeCursor edges = graph.cursor();
+ * edges.reset(u);
+ * while (edges.next()) {
+ *     int v = edges.target();
+ * }
+ * </pre>
+ */
+public interface EdgeCursor {
+
+    /**
+     * Position before the first out-edge of v.
+     */
+    void reset(int v);
+
+    /**
+     * Advance to the next out-edge; false when there are none left.
+     */
+    boolean next();
+
+    int target();
+
+    int weight();
+}
@@ -0,0 +1,50 @@
+package common;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One call into an SCC, topological sort or DAG path engine.
+ */
+@Name("scheduling.Engine")
+@Label("Engine Call")
+@Description("One run of a graph engine, with its input size and work done")
+public final class EngineEvent extends TracedEvent {
+    private static final EngineEvent DISABLED = new EngineEvent();
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Result Size")
+    @Description("Components found or vertices ordered")
+    public int resultSize;
+
+    public static EngineEvent begin(String engine, GraphStorage graph) {
+        if (!recorderInitialized()) {
+            return DISABLED;
+        }
+        EngineEvent event = new EngineEvent();
+        if (event.isEnabled()) {
+            event.engine = engine;
+            event.start(graph);
+        }
+        return event;
+    }
+
+    public void end(long scanned, int resultSize) {
+        if (isStarted()) {
+            this.resultSize = resultSize;
+            finish(scanned);
+        }
+    }
+
+    /**
+     * End an engine that reads every edge passes times but does not count them.
+     */
+    public void endFullScan(int passes, int resultSize) {
+        if (isStarted()) {
+            end((long) passes * edges, resultSize);
+        }
+    }
+}
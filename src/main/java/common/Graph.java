@@ -1,21 +1,21 @@
 package common;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
 
+import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
 
 
-public class Graph {
+public class Graph implements GraphStorage {
     private final int n;
     private final boolean directed;
     private final List<List<Edge>> adjList;
     private final String weightModel;
     private final int[] nodeWeights;
+    private final ReverseCache reverse = new ReverseCache();
 
     
     public static class Edge {
@@ -53,6 +53,7 @@ public class Graph {
             throw new IllegalArgumentException("Invalid vertex index");
         }
         adjList.get(from).add(new Edge(to, weight));
+        reverse.clear();
     }
 
    
@@ -68,30 +69,45 @@ public class Graph {
         if (v < 0 || v >= n) {
             throw new IllegalArgumentException("Invalid vertex index");
         }
-        return adjList.get(v);
+        return Collections.unmodifiableList(adjList.get(v));
     }
 
-    
+    @Override
+    public int getOutDegree(int v) {
+        return adjList.get(v).size();
+    }
+
+    @Override
+    public int getEdgeTarget(int v, int index) {
+        return adjList.get(v).get(index).to;
+    }
+
+    @Override
+    public int getEdgeWeight(int v, int index) {
+        return adjList.get(v).get(index).weight;
+    }
+
+    @Override
     public int getVertexCount() {
         return n;
     }
 
-   
+    @Override
     public boolean isDirected() {
         return directed;
     }
 
-   
+    @Override
     public String getWeightModel() {
         return weightModel;
     }
 
-   
+    @Override
     public int getNodeWeight(int node) {
         return nodeWeights[node];
     }
 
-    
+    @Override
     public int getEdgeCount() {
         int count = 0;
         for (List<Edge> edges : adjList) {
@@ -102,42 +118,67 @@ public class Graph {
 
    
     public static Graph fromJsonFile(String filename) throws IOException {
-        Gson gson = new Gson();
-        JsonObject json = gson.fromJson(new FileReader(filename), JsonObject.class);
+        try (Reader reader = new BufferedReader(new FileReader(filename))) {
+            return fromJson(reader);
+        }
+    }
 
-        boolean directed = json.get("directed").getAsBoolean();
-        int n = json.get("n").getAsInt();
-        String weightModel = json.has("weight_model") ? 
-                            json.get("weight_model").getAsString() : "edge";
+    /**
+     * Parse a graph in the JSON task format from any reader, see {@link GraphJson}.
+     */
+    public static Graph fromJson(Reader reader) throws IOException {
+        return fromJson(GraphJson.parse(reader, 1));
+    }
 
-        Graph graph = new Graph(n, directed, weightModel);
+    /**
+     * Build a graph from an already parsed task, e.g. when its "source" is needed too.
+     */
+    public static Graph fromJson(GraphJson json) {
+        Graph graph = new Graph(json.n, json.directed, json.weightModel);
+        for (int e = 0; e < json.edgeCount; e++) {
+            graph.addEdge(json.source(e), json.target(e), json.weight(e, 0));
+        }
+        for (int i = 0; i < json.nodeWeights.length && i < json.n; i++) {
+            graph.setNodeWeight(i, json.nodeWeights[i]);
+        }
+        return graph;
+    }
 
-        
-        JsonArray edges = json.getAsJsonArray("edges");
-        for (JsonElement edgeElement : edges) {
-            JsonObject edge = edgeElement.getAsJsonObject();
-            int u = edge.get("u").getAsInt();
-            int v = edge.get("v").getAsInt();
-            int w = edge.has("w") ? edge.get("w").getAsInt() : 1;
-            graph.addEdge(u, v, w);
+  
+    public static int getSourceFromJson(String filename) throws IOException {
+        try (Reader reader = new FileReader(filename)) {
+            return getSourceFromJson(reader);
         }
+    }
 
-        
-        if (json.has("node_weights")) {
-            JsonArray nodeWeights = json.getAsJsonArray("node_weights");
-            for (int i = 0; i < nodeWeights.size() && i < n; i++) {
-                graph.setNodeWeight(i, nodeWeights.get(i).getAsInt());
+    /**
+     * Read the optional "source" field, -1 if absent. Stops as soon as it is found.
+     */
+    public static int getSourceFromJson(Reader reader) throws IOException {
+        JsonReader json = new JsonReader(reader);
+        json.beginObject();
+        while (json.hasNext()) {
+            if ("source".equals(json.nextName())) {
+                return json.nextInt();
             }
+            json.skipValue();
         }
+        return -1;
+    }
 
-        return graph;
+    @Override
+    public ReverseAdjacency reverse() {
+        return reverse.get(this);
     }
 
-  
-    public static int getSourceFromJson(String filename) throws IOException {
-        Gson gson = new Gson();
-        JsonObject json = gson.fromJson(new FileReader(filename), JsonObject.class);
-        return json.has("source") ? json.get("source").getAsInt() : -1;
+    @Override
+    public void dropReverse() {
+        reverse.clear();
+    }
+
+    @Override
+    public long getReverseBytes() {
+        return reverse.getMemoryBytes();
     }
 
     @Override
@@ -0,0 +1,164 @@
+package common;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Streaming parse of the JSON task format shared by the graph loaders.
+ * Every edge is staged as (u, v, w0 .. w[dimensions - 1]) in one flat int
+ * array, so no per-edge objects or JSON tree are created; each loader then
+ * builds its own storage from the staged edges. An edge without "u" or "v"
+ * is rejected. "w" fills dimension 0 (default 1); with more than one
+ * dimension, a "weights" array fills the leading dimensions and the rest
+ * stay 0. Vertex ranges are checked by the loaders, since "n" may follow
+ * the edges.
+ */
+public final class GraphJson {
+    public final int n;
+    public final boolean directed;
+    public final String weightModel;
+    public final int dimensions;
+    // Optional "source" field, -1 if absent
+    public final int source;
+    public final int edgeCount;
+    // Edge e is edges[e * stride() .. (e + 1) * stride())
+    public final int[] edges;
+    // Values of "node_weights" in file order, possibly fewer than n
+    public final int[] nodeWeights;
+
+    private GraphJson(int n, boolean directed, String weightModel, int dimensions, int source,
+                      int edgeCount, int[] edges, int[] nodeWeights) {
+        this.n = n;
+        this.directed = directed;
+        this.weightModel = weightModel;
+        this.dimensions = dimensions;
+        this.source = source;
+        this.edgeCount = edgeCount;
+        this.edges = edges;
+        this.nodeWeights = nodeWeights;
+    }
+
+    public static GraphJson parse(Reader reader, int dimensions) throws IOException {
+        if (dimensions < 1) {
+            throw new IllegalArgumentException("Need at least one weight dimension");
+        }
+        JsonReader json = new JsonReader(reader);
+        int stride = 2 + dimensions;
+        boolean directed = true;
+        int n = -1;
+        String weightModel = "edge";
+        int source = -1;
+        int[] edges = new int[64 * stride];
+        int edgeCount = 0;
+        int[] nodeWeights = new int[0];
+        int nodeWeightCount = 0;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "directed":
+                    directed = json.nextBoolean();
+                    break;
+                case "n":
+                    n = json.nextInt();
+                    break;
+                case "weight_model":
+                    weightModel = json.nextString();
+                    break;
+                case "source":
+                    source = json.nextInt();
+                    break;
+                case "edges":
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        if (edges.length < stride * (edgeCount + 1)) {
+                            edges = Arrays.copyOf(edges, edges.length * 2);
+                        }
+                        readEdge(json, edges, stride * edgeCount, dimensions, edgeCount);
+                        edgeCount++;
+                    }
+                    json.endArray();
+                    break;
+                case "node_weights":
+                    nodeWeights = new int[16];
+                    nodeWeightCount = 0;
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        if (nodeWeightCount == nodeWeights.length) {
+                            nodeWeights = Arrays.copyOf(nodeWeights, nodeWeightCount * 2);
+                        }
+                        nodeWeights[nodeWeightCount++] = json.nextInt();
+                    }
+                    json.endArray();
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (n < 0) {
+            throw new IOException("Missing vertex count 'n'");
+        }
+        return new GraphJson(n, directed, weightModel, dimensions, source, edgeCount, edges,
+                Arrays.copyOf(nodeWeights, nodeWeightCount));
+    }
+
+    private static void readEdge(JsonReader json, int[] edges, int base, int dimensions, int index)
+            throws IOException {
+        boolean hasU = false;
+        boolean hasV = false;
+        Arrays.fill(edges, base + 2, base + 2 + dimensions, 0);
+        edges[base + 2] = 1;
+        json.beginObject();
+        while (json.hasNext()) {
+            String field = json.nextName();
+            if ("u".equals(field)) {
+                edges[base] = json.nextInt();
+                hasU = true;
+            } else if ("v".equals(field)) {
+                edges[base + 1] = json.nextInt();
+                hasV = true;
+            } else if ("w".equals(field)) {
+                edges[base + 2] = json.nextInt();
+            } else if (dimensions > 1 && "weights".equals(field)) {
+                json.beginArray();
+                for (int d = 0; json.hasNext(); d++) {
+                    int w = json.nextInt();
+                    if (d < dimensions) {
+                        edges[base + 2 + d] = w;
+                    }
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        if (!hasU || !hasV) {
+            throw new IOException("Edge " + index + " is missing endpoint '" + (hasU ? "v" : "u") + "'");
+        }
+    }
+
+    public int stride() {
+        return 2 + dimensions;
+    }
+
+    public int source(int e) {
+        return edges[stride() * e];
+    }
+
+    public int target(int e) {
+        return edges[stride() * e + 1];
+    }
+
+    /**
+     * Weight of edge e in dimension d.
+     */
+    public int weight(int e, int d) {
+        return edges[stride() * e + 2 + d];
+    }
+}
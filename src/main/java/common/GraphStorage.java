@@ -0,0 +1,64 @@
+package common;
+
+/**
+ * Read-only adjacency view consumed by the graph algorithms.
+ * Out-edges of a vertex are addressed by their index in its adjacency list,
+ * so implementations can keep edges in any primitive layout.
+ */
+public interface GraphStorage {
+
+    int getVertexCount();
+
+    int getEdgeCount();
+
+    boolean isDirected();
+
+    String getWeightModel();
+
+    int getNodeWeight(int node);
+
+    /**
+     * Number of out-edges of vertex v.
+     */
+    int getOutDegree(int v);
+
+    /**
+     * Target of the index-th out-edge of vertex v.
+     */
+    int getEdgeTarget(int v, int index);
+
+    /**
+     * Weight of the index-th out-edge of vertex v.
+     */
+    int getEdgeWeight(int v, int index);
+
+    /**
+     * A new reusable cursor over out-edges. Traversals use this rather than
+     * indexed access so sequential formats can decode edges in one pass.
+     */
+    default EdgeCursor cursor() {
+        return new IndexedEdgeCursor(this);
+    }
+
+    /**
+     * In-edges and degrees of this graph. Storage classes build it on first
+     * use and cache it until {@link #dropReverse()} or a mutation; the
+     * default builds a fresh copy each call.
+     */
+    default ReverseAdjacency reverse() {
+        return ReverseAdjacency.build(this);
+    }
+
+    /**
+     * Release the cached reverse adjacency, if any.
+     */
+    default void dropReverse() {
+    }
+
+    /**
+     * Heap bytes held by the cached reverse adjacency, 0 when none is cached.
+     */
+    default long getReverseBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,440 @@
+package common;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Versioned graph for one updater thread and many reader threads.
+ *
+ * The current graph is an immutable {@link Snapshot} held in an
+ * AtomicReference. Readers call {@link #snapshot()} once and run any
+ * algorithm on it; nothing they touch can change underneath them, and the
+ * read path takes no locks. Writers edit a copy and publish it atomically.
+ *
+ * Vertices are grouped into blocks of {@link #BLOCK_SIZE}, each holding the
+ * CSR adjacency and node weights of its vertices. An edit copies only the
+ * blocks it touches; every other block is shared with the previous
+ * snapshot. An update costs one copy of the block index (V/64 references)
+ * plus the touched blocks, O(V/64 + touched), not V + E.
+ */
+public class GraphStore {
+    public static final int BLOCK_SIZE = 64;
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final AtomicReference<Snapshot> current;
+    private final Object writeLock = new Object();
+    private final Metrics metrics = new MetricsImpl();   // updated under writeLock
+
+    public GraphStore(int n, boolean directed, String weightModel) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Vertex count must be non-negative: " + n);
+        }
+        Block[] blocks = new Block[(n + BLOCK_MASK) >> BLOCK_SHIFT];
+        for (int b = 0; b < blocks.length; b++) {
+            int size = Math.min(BLOCK_SIZE, n - (b << BLOCK_SHIFT));
+            int[] nodeWeights = new int[size];
+            Arrays.fill(nodeWeights, 1);
+            blocks[b] = new Block(new int[size + 1], new int[0], new int[0], nodeWeights);
+        }
+        this.current = new AtomicReference<>(new Snapshot(0, n, 0, directed,
+                weightModel != null ? weightModel : "edge", blocks));
+    }
+
+    /**
+     * A store whose first snapshot copies graph, preserving edge order.
+     */
+    public static GraphStore copyOf(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        GraphStore store = new GraphStore(n, graph.isDirected(), graph.getWeightModel());
+        Snapshot empty = store.current.get();
+        Block[] blocks = empty.blocks;
+        int edges = 0;
+        for (int b = 0; b < blocks.length; b++) {
+            int first = b << BLOCK_SHIFT;
+            int size = blocks[b].nodeWeights.length;
+            int[] offsets = new int[size + 1];
+            int[] nodeWeights = new int[size];
+            for (int i = 0; i < size; i++) {
+                offsets[i + 1] = offsets[i] + graph.getOutDegree(first + i);
+                nodeWeights[i] = graph.getNodeWeight(first + i);
+            }
+            int[] targets = new int[offsets[size]];
+            int[] weights = new int[offsets[size]];
+            for (int i = 0; i < size; i++) {
+                for (int k = 0; k < offsets[i + 1] - offsets[i]; k++) {
+                    targets[offsets[i] + k] = graph.getEdgeTarget(first + i, k);
+                    weights[offsets[i] + k] = graph.getEdgeWeight(first + i, k);
+                }
+            }
+            blocks[b] = new Block(offsets, targets, weights, nodeWeights);
+            edges += offsets[size];
+        }
+        store.current.set(new Snapshot(0, n, edges, empty.directed, empty.weightModel, blocks));
+        return store;
+    }
+
+    /**
+     * The latest published snapshot. It never changes; pin it for the
+     * duration of a query and call again to see later updates.
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    /**
+     * Apply several edits as one new snapshot. Readers see either none or
+     * all of them, and nothing is published if edits throws. Writers are
+     * serialized; readers never wait.
+     * @return the published snapshot
+     */
+    public Snapshot update(Consumer<Editor> edits) {
+        synchronized (writeLock) {
+            Snapshot base = current.get();
+            Editor editor = new Editor(base);
+            edits.accept(editor);
+            Snapshot next = editor.finish();
+            current.set(next);
+            metrics.incrementCounter("snapshots_published");
+            metrics.incrementCounter("blocks_copied", editor.copiedCount);
+            return next;
+        }
+    }
+
+    public Snapshot addEdge(int from, int to, int weight) {
+        return update(editor -> editor.addEdge(from, to, weight));
+    }
+
+    /**
+     * Remove the first from -> to edge, if there is one, and in an undirected
+     * store its to -> from arc.
+     */
+    public Snapshot removeEdge(int from, int to) {
+        return update(editor -> editor.removeEdge(from, to));
+    }
+
+    public Snapshot setNodeWeight(int node, int weight) {
+        return update(editor -> editor.setNodeWeight(node, weight));
+    }
+
+    /**
+     * Writer-side counters: snapshots_published, blocks_copied.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Adjacency and node weights of up to BLOCK_SIZE consecutive vertices.
+     * Published blocks are never written again.
+     */
+    private static final class Block {
+        final int[] offsets;
+        final int[] targets;
+        final int[] weights;
+        final int[] nodeWeights;
+
+        Block(int[] offsets, int[] targets, int[] weights, int[] nodeWeights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.nodeWeights = nodeWeights;
+        }
+
+        Block copy() {
+            return new Block(offsets.clone(), targets.clone(), weights.clone(), nodeWeights.clone());
+        }
+    }
+
+    /**
+     * Pending edits on top of one snapshot. Only valid inside {@link #update}.
+     */
+    public static final class Editor {
+        private final Snapshot base;
+        private final Block[] blocks;
+        // Used length of each copied block's edge arrays, keyed by block; sized by the edit, not V/64
+        private final SparseIntMap edgeCounts = new SparseIntMap(4);
+        private int[] copied = new int[4];
+        private int edgeCount;
+        private int copiedCount;
+        private boolean finished;
+
+        private Editor(Snapshot base) {
+            this.base = base;
+            this.blocks = base.blocks.clone();
+            this.edgeCount = base.storedEdges;
+        }
+
+        /**
+         * Add from -> to; an undirected store also gets the to -> from arc,
+         * so getEdgeCount() (arcs / 2 when undirected) stays exact.
+         */
+        public void addEdge(int from, int to, int weight) {
+            check(from);
+            check(to);
+            addArc(from, to, weight);
+            if (!base.directed) {
+                addArc(to, from, weight);
+            }
+        }
+
+        /**
+         * Remove the first from -> to edge and, in an undirected store, the first to -> from arc.
+         * @return false if there was none
+         */
+        public boolean removeEdge(int from, int to) {
+            check(from);
+            check(to);
+            if (!removeArc(from, to)) {
+                return false;
+            }
+            if (!base.directed) {
+                removeArc(to, from);
+            }
+            return true;
+        }
+
+        private void addArc(int from, int to, int weight) {
+            int b = from >> BLOCK_SHIFT;
+            Block block = writable(b);
+            int local = from & BLOCK_MASK;
+            int used = edgeCounts.get(b);
+            int pos = block.offsets[local + 1];
+            if (used == block.targets.length) {
+                block = new Block(block.offsets, Arrays.copyOf(block.targets, Math.max(4, used * 2)),
+                        Arrays.copyOf(block.weights, Math.max(4, used * 2)), block.nodeWeights);
+                blocks[b] = block;
+            }
+            System.arraycopy(block.targets, pos, block.targets, pos + 1, used - pos);
+            System.arraycopy(block.weights, pos, block.weights, pos + 1, used - pos);
+            block.targets[pos] = to;
+            block.weights[pos] = weight;
+            for (int i = local + 1; i < block.offsets.length; i++) {
+                block.offsets[i]++;
+            }
+            edgeCounts.put(b, used + 1);
+            edgeCount++;
+        }
+
+        private boolean removeArc(int from, int to) {
+            int b = from >> BLOCK_SHIFT;
+            int local = from & BLOCK_MASK;
+            Block block = blocks[b];
+            int pos = -1;
+            for (int e = block.offsets[local]; e < block.offsets[local + 1]; e++) {
+                if (block.targets[e] == to) {
+                    pos = e;
+                    break;
+                }
+            }
+            if (pos == -1) {
+                return false;
+            }
+            block = writable(b);
+            int used = edgeCounts.get(b);
+            System.arraycopy(block.targets, pos + 1, block.targets, pos, used - pos - 1);
+            System.arraycopy(block.weights, pos + 1, block.weights, pos, used - pos - 1);
+            for (int i = local + 1; i < block.offsets.length; i++) {
+                block.offsets[i]--;
+            }
+            edgeCounts.put(b, used - 1);
+            edgeCount--;
+            return true;
+        }
+
+        public void setNodeWeight(int node, int weight) {
+            check(node);
+            writable(node >> BLOCK_SHIFT).nodeWeights[node & BLOCK_MASK] = weight;
+        }
+
+        private Block writable(int b) {
+            if (edgeCounts.get(b) < 0) {
+                blocks[b] = blocks[b].copy();
+                edgeCounts.put(b, blocks[b].offsets[blocks[b].offsets.length - 1]);
+                if (copiedCount == copied.length) {
+                    copied = Arrays.copyOf(copied, copiedCount * 2);
+                }
+                copied[copiedCount++] = b;
+            }
+            return blocks[b];
+        }
+
+        private void check(int v) {
+            if (finished) {
+                throw new IllegalStateException("Editor used after its update was published");
+            }
+            if (v < 0 || v >= base.n) {
+                throw new IllegalArgumentException("Invalid vertex index");
+            }
+        }
+
+        private Snapshot finish() {
+            finished = true;
+            for (int i = 0; i < copiedCount; i++) {
+                int b = copied[i];
+                Block block = blocks[b];
+                int used = edgeCounts.get(b);
+                if (block.targets.length != used) {
+                    // Trim growth slack so published blocks are exact
+                    blocks[b] = new Block(block.offsets, Arrays.copyOf(block.targets, used),
+                            Arrays.copyOf(block.weights, used), block.nodeWeights);
+                }
+            }
+            return new Snapshot(base.version + 1, base.n, edgeCount, base.directed, base.weightModel, blocks);
+        }
+    }
+
+    /**
+     * Immutable graph version. Safe to share between threads.
+     */
+    public static final class Snapshot implements GraphStorage {
+        public final long version;
+        private final int n;
+        private final int storedEdges;
+        private final boolean directed;
+        private final String weightModel;
+        private final Block[] blocks;
+        private final ReverseCache reverse = new ReverseCache();
+
+        private Snapshot(long version, int n, int storedEdges, boolean directed, String weightModel, Block[] blocks) {
+            this.version = version;
+            this.n = n;
+            this.storedEdges = storedEdges;
+            this.directed = directed;
+            this.weightModel = weightModel;
+            this.blocks = blocks;
+        }
+
+        @Override
+        public int getVertexCount() {
+            return n;
+        }
+
+        @Override
+        public int getEdgeCount() {
+            return directed ? storedEdges : storedEdges / 2;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return directed;
+        }
+
+        @Override
+        public String getWeightModel() {
+            return weightModel;
+        }
+
+        @Override
+        public int getNodeWeight(int node) {
+            return blocks[node >> BLOCK_SHIFT].nodeWeights[node & BLOCK_MASK];
+        }
+
+        @Override
+        public int getOutDegree(int v) {
+            int[] offsets = blocks[v >> BLOCK_SHIFT].offsets;
+            int local = v & BLOCK_MASK;
+            return offsets[local + 1] - offsets[local];
+        }
+
+        @Override
+        public int getEdgeTarget(int v, int index) {
+            Block block = blocks[v >> BLOCK_SHIFT];
+            return block.targets[block.offsets[v & BLOCK_MASK] + index];
+        }
+
+        @Override
+        public int getEdgeWeight(int v, int index) {
+            Block block = blocks[v >> BLOCK_SHIFT];
+            return block.weights[block.offsets[v & BLOCK_MASK] + index];
+        }
+
+        @Override
+        public EdgeCursor cursor() {
+            return new BlockCursor(blocks);
+        }
+
+        @Override
+        public ReverseAdjacency reverse() {
+            return reverse.get(this);
+        }
+
+        @Override
+        public void dropReverse() {
+            reverse.clear();
+        }
+
+        @Override
+        public long getReverseBytes() {
+            return reverse.getMemoryBytes();
+        }
+
+        /**
+         * Number of adjacency blocks this snapshot shares with other.
+         */
+        public int sharedBlocks(Snapshot other) {
+            int shared = 0;
+            for (int b = 0; b < Math.min(blocks.length, other.blocks.length); b++) {
+                if (blocks[b] == other.blocks[b]) {
+                    shared++;
+                }
+            }
+            return shared;
+        }
+
+        public int getBlockCount() {
+            return blocks.length;
+        }
+
+        /**
+         * Heap bytes held by this snapshot's blocks, counting shared blocks in full.
+         */
+        public long getMemoryBytes() {
+            long bytes = 4L * blocks.length;
+            for (Block block : blocks) {
+                bytes += 4L * (block.offsets.length + block.targets.length + block.weights.length
+                        + block.nodeWeights.length);
+            }
+            return bytes;
+        }
+    }
+
+    private static final class BlockCursor implements EdgeCursor {
+        private final Block[] blocks;
+        private Block block;
+        private int pos;
+        private int end;
+
+        BlockCursor(Block[] blocks) {
+            this.blocks = blocks;
+        }
+
+        @Override
+        public void reset(int v) {
+            block = blocks[v >> BLOCK_SHIFT];
+            int local = v & BLOCK_MASK;
+            pos = block.offsets[local] - 1;
+            end = block.offsets[local + 1];
+        }
+
+        @Override
+        public boolean next() {
+            return ++pos < end;
+        }
+
+        @Override
+        public int target() {
+            return block.targets[pos];
+        }
+
+        @Override
+        public int weight() {
+            return block.weights[pos];
+        }
+    }
+}
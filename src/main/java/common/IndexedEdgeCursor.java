@@ -0,0 +1,37 @@
+package common;
+
+/**
+ * Cursor over any {@link GraphStorage} through its indexed edge accessors.
+ */
+class IndexedEdgeCursor implements EdgeCursor {
+    private final GraphStorage graph;
+    private int vertex;
+    private int index;
+    private int degree;
+
+    IndexedEdgeCursor(GraphStorage graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public void reset(int v) {
+        vertex = v;
+        index = -1;
+        degree = graph.getOutDegree(v);
+    }
+
+    @Override
+    public boolean next() {
+        return ++index < degree;
+    }
+
+    @Override
+    public int target() {
+        return graph.getEdgeTarget(vertex, index);
+    }
+
+    @Override
+    public int weight() {
+        return graph.getEdgeWeight(vertex, index);
+    }
+}
@@ -0,0 +1,49 @@
+package common;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Read-only List view over a range of an int array. Lets callers that
+ * want List access share an engine's primitive result without copying it
+ * into boxed lists; Integers are boxed one at a time on get.
+ */
+public final class IntListView extends AbstractList<Integer> implements RandomAccess {
+    private final int[] array;
+    private final int from;
+    private final int size;
+
+    private IntListView(int[] array, int from, int to) {
+        if (from < 0 || to > array.length || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of " + array.length);
+        }
+        this.array = array;
+        this.from = from;
+        this.size = to - from;
+    }
+
+    public static List<Integer> of(int[] array) {
+        return new IntListView(array, 0, array.length);
+    }
+
+    /**
+     * View of array[from .. to).
+     */
+    public static List<Integer> of(int[] array, int from, int to) {
+        return new IntListView(array, from, to);
+    }
+
+    @Override
+    public Integer get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return array[from + index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -17,6 +17,8 @@ public interface Metrics {
    
     void incrementCounter(String counterName);
 
+    void incrementCounter(String counterName, long amount);
+
    
     long getCounter(String counterName);
 
@@ -38,6 +38,11 @@ public class MetricsImpl implements Metrics {
         counters.put(counterName, counters.getOrDefault(counterName, 0L) + 1);
     }
 
+    @Override
+    public void incrementCounter(String counterName, long amount) {
+        counters.put(counterName, counters.getOrDefault(counterName, 0L) + amount);
+    }
+
     @Override
     public long getCounter(String counterName) {
         return counters.getOrDefault(counterName, 0L);
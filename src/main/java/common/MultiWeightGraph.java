@@ -0,0 +1,147 @@
+package common;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Directed graph whose edges carry a fixed number of weight dimensions
+ * (e.g. duration and cost). Adjacency is kept in growable primitive arrays
+ * per vertex; dimension 0 is exposed as the ordinary edge weight, so the
+ * single-criterion algorithms run on it unchanged.
+ */
+public class MultiWeightGraph implements GraphStorage {
+    private final int n;
+    private final int dimensions;
+    private final String weightModel;
+    private final int[][] targets;
+    private final int[][] weights;   // weights[v][index * dimensions + d]
+    private final int[] degree;
+    private final int[] nodeWeights;
+    private int edgeCount;
+
+    public MultiWeightGraph(int n, int dimensions) {
+        if (dimensions < 1) {
+            throw new IllegalArgumentException("At least one weight dimension is required");
+        }
+        this.n = n;
+        this.dimensions = dimensions;
+        this.weightModel = "edge";
+        this.targets = new int[n][];
+        this.weights = new int[n][];
+        this.degree = new int[n];
+        this.nodeWeights = new int[n];
+        for (int i = 0; i < n; i++) {
+            targets[i] = new int[2];
+            weights[i] = new int[2 * dimensions];
+            nodeWeights[i] = 1;
+        }
+    }
+
+    /**
+     * Add an edge with one weight per dimension.
+     */
+    public void addEdge(int from, int to, int... edgeWeights) {
+        if (from < 0 || from >= n || to < 0 || to >= n) {
+            throw new IllegalArgumentException("Invalid vertex index");
+        }
+        if (edgeWeights.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " weights, got " + edgeWeights.length);
+        }
+        int index = degree[from];
+        if (index == targets[from].length) {
+            targets[from] = Arrays.copyOf(targets[from], index * 2);
+            weights[from] = Arrays.copyOf(weights[from], index * 2 * dimensions);
+        }
+        targets[from][index] = to;
+        System.arraycopy(edgeWeights, 0, weights[from], index * dimensions, dimensions);
+        degree[from]++;
+        edgeCount++;
+    }
+
+    public void setNodeWeight(int node, int weight) {
+        if (node < 0 || node >= n) {
+            throw new IllegalArgumentException("Invalid vertex index");
+        }
+        nodeWeights[node] = weight;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Weight of the index-th out-edge of v in the given dimension.
+     */
+    public int getEdgeWeight(int v, int index, int dimension) {
+        return weights[v][index * dimensions + dimension];
+    }
+
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+
+    @Override
+    public int getNodeWeight(int node) {
+        return nodeWeights[node];
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return degree[v];
+    }
+
+    @Override
+    public int getEdgeTarget(int v, int index) {
+        return targets[v][index];
+    }
+
+    @Override
+    public int getEdgeWeight(int v, int index) {
+        return weights[v][index * dimensions];
+    }
+
+    /**
+     * Load a graph whose edges carry {@code "weights": [w0, w1, ...]};
+     * edges with only {@code "w"} get it in dimension 0 and zeros elsewhere.
+     */
+    public static MultiWeightGraph fromJsonFile(String filename, int dimensions) throws IOException {
+        try (Reader reader = new BufferedReader(new FileReader(filename))) {
+            return fromJson(reader, dimensions);
+        }
+    }
+
+    public static MultiWeightGraph fromJson(Reader reader, int dimensions) throws IOException {
+        GraphJson json = GraphJson.parse(reader, dimensions);
+        MultiWeightGraph graph = new MultiWeightGraph(json.n, dimensions);
+        int[] w = new int[dimensions];
+        for (int e = 0; e < json.edgeCount; e++) {
+            System.arraycopy(json.edges, json.stride() * e + 2, w, 0, dimensions);
+            graph.addEdge(json.source(e), json.target(e), w);
+        }
+        return graph;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MultiWeightGraph: n=%d, edges=%d, dimensions=%d", n, edgeCount, dimensions);
+    }
+}
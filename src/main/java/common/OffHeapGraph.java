@@ -0,0 +1,217 @@
+package common;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Immutable graph whose adjacency lives outside the Java heap.
+ * Edges are stored in compressed sparse row form: offsets, targets,
+ * edge weights and node weights are slices of one direct int buffer, so the heap
+ * footprint does not grow with the graph and the GC never scans edges.
+ */
+public class OffHeapGraph implements GraphStorage {
+    private final int n;
+    private final int m;
+    private final boolean directed;
+    private final String weightModel;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final IntBuffer nodeWeights;
+    private final ReverseCache reverse = new ReverseCache();
+
+    private OffHeapGraph(int n, int m, boolean directed, String weightModel,
+                         IntBuffer offsets, IntBuffer targets, IntBuffer weights, IntBuffer nodeWeights) {
+        this.n = n;
+        this.m = m;
+        this.directed = directed;
+        this.weightModel = weightModel != null ? weightModel : "edge";
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.nodeWeights = nodeWeights;
+    }
+
+    /**
+     * Copy any graph into off-heap storage, preserving edge order.
+     */
+    public static OffHeapGraph copyOf(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            m += graph.getOutDegree(u);
+        }
+
+        IntBuffer[] regions = allocateRegions(n + 1, m, m, n);
+        IntBuffer offsets = regions[0];
+        IntBuffer targets = regions[1];
+        IntBuffer weights = regions[2];
+        IntBuffer nodeWeights = regions[3];
+
+        int pos = 0;
+        for (int u = 0; u < n; u++) {
+            offsets.put(u, pos);
+            nodeWeights.put(u, graph.getNodeWeight(u));
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                targets.put(pos, graph.getEdgeTarget(u, i));
+                weights.put(pos, graph.getEdgeWeight(u, i));
+                pos++;
+            }
+        }
+        offsets.put(n, pos);
+
+        return new OffHeapGraph(n, m, graph.isDirected(), graph.getWeightModel(),
+                offsets, targets, weights, nodeWeights);
+    }
+
+    /**
+     * Load a graph from the JSON task format straight into off-heap storage.
+     * Edges are streamed by {@link GraphJson} into a primitive heap staging array and bucketed by
+     * source into one direct buffer of the final size, so no per-edge objects
+     * are created and no direct memory is left behind for the GC to reclaim.
+     */
+    public static OffHeapGraph fromJsonFile(String filename) throws IOException {
+        GraphJson json;
+        try (Reader reader = new BufferedReader(new FileReader(filename))) {
+            json = GraphJson.parse(reader, 1);
+        }
+        int n = json.n;
+        int m = json.edgeCount;
+        int[] staged = json.edges;
+
+        // Counting sort of the staged edges by source vertex; cursor[u] ends as offset of u + 1
+        int[] cursor = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            int u = staged[e * 3];
+            int v = staged[e * 3 + 1];
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Invalid vertex index");
+            }
+            cursor[u + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            cursor[u + 1] += cursor[u];
+        }
+
+        IntBuffer[] regions = allocateRegions(n + 1, m, m, n);
+        IntBuffer offsets = regions[0];
+        IntBuffer targets = regions[1];
+        IntBuffer weights = regions[2];
+        IntBuffer nodeWeights = regions[3];
+        for (int u = 0; u <= n; u++) {
+            offsets.put(u, cursor[u]);
+        }
+        for (int e = 0; e < m; e++) {
+            int pos = cursor[staged[e * 3]]++;
+            targets.put(pos, staged[e * 3 + 1]);
+            weights.put(pos, staged[e * 3 + 2]);
+        }
+        for (int i = 0; i < n; i++) {
+            nodeWeights.put(i, i < json.nodeWeights.length ? json.nodeWeights[i] : 1);
+        }
+
+        return new OffHeapGraph(n, m, json.directed, json.weightModel, offsets, targets, weights, nodeWeights);
+    }
+
+    /**
+     * One direct buffer split into consecutive regions of the given sizes,
+     * so a graph costs a single native allocation.
+     */
+    private static IntBuffer[] allocateRegions(int... sizes) {
+        long total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        if (total * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph too large for one direct buffer: " + total + " ints");
+        }
+        IntBuffer all = ByteBuffer.allocateDirect((int) Math.max(total, 1) * Integer.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        IntBuffer[] regions = new IntBuffer[sizes.length];
+        int start = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            all.clear();
+            all.position(start);
+            all.limit(start + sizes[i]);
+            regions[i] = all.slice();
+            start += sizes[i];
+        }
+        return regions;
+    }
+
+    @Override
+    public int getVertexCount() {
+        return n;
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return directed ? m : m / 2;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public String getWeightModel() {
+        return weightModel;
+    }
+
+    @Override
+    public int getNodeWeight(int node) {
+        return nodeWeights.get(node);
+    }
+
+    @Override
+    public int getOutDegree(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    @Override
+    public int getEdgeTarget(int v, int index) {
+        return targets.get(offsets.get(v) + index);
+    }
+
+    @Override
+    public int getEdgeWeight(int v, int index) {
+        return weights.get(offsets.get(v) + index);
+    }
+
+    /**
+     * Bytes held in direct memory by this graph.
+     */
+    public long getOffHeapBytes() {
+        return (long) (offsets.capacity() + targets.capacity() + weights.capacity()
+                + nodeWeights.capacity()) * Integer.BYTES;
+    }
+
+    @Override
+    public ReverseAdjacency reverse() {
+        return reverse.get(this);
+    }
+
+    @Override
+    public void dropReverse() {
+        reverse.clear();
+    }
+
+    @Override
+    public long getReverseBytes() {
+        return reverse.getMemoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OffHeapGraph: n=%d, edges=%d, directed=%b, weightModel=%s, offHeapBytes=%d",
+                n, getEdgeCount(), directed, weightModel, getOffHeapBytes());
+    }
+}
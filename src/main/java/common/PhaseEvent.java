@@ -0,0 +1,66 @@
+package common;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One phase of an analysis run: load, scc, condensation, topo, shortest,
+ * longest or print.
+ *
+ * <pre>
+ * PhaseEvent phase = PhaseEvent.begin("scc", graph);
+ * ...
+ * phase.end(edgesScanned);
+ * </pre>
+ */
+@Name("scheduling.Phase")
+@Label("Analysis Phase")
+@Description("One phase of the SCC -> condensation -> topological sort -> DAG path pipeline")
+public final class PhaseEvent extends TracedEvent {
+    private static final PhaseEvent DISABLED = new PhaseEvent();
+
+    @Label("Phase")
+    public String phase;
+
+    /**
+     * Start timing a phase on graph, which may be null when its size is not known yet.
+     */
+    public static PhaseEvent begin(String phase, GraphStorage graph) {
+        if (!recorderInitialized()) {
+            return DISABLED;
+        }
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.start(graph);
+        }
+        return event;
+    }
+
+    /**
+     * End the phase, recording the graph size once it is known.
+     */
+    public void end(GraphStorage graph, long scanned) {
+        if (isStarted() && graph != null) {
+            vertices = graph.getVertexCount();
+            edges = graph.getEdgeCount();
+        }
+        end(scanned);
+    }
+
+    public void end(long scanned) {
+        if (isStarted()) {
+            finish(scanned);
+        }
+    }
+
+    /**
+     * End a phase that reads every edge of its graph passes times.
+     */
+    public void endFullScan(int passes) {
+        if (isStarted()) {
+            finish((long) passes * edges);
+        }
+    }
+}
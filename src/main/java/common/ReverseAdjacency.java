@@ -0,0 +1,81 @@
+package common;
+
+/**
+ * In-edge CSR of a graph plus in- and out-degrees, built in one counting
+ * pass and one fill pass over the out-edges. In-edges of v are
+ * {@code sources[offsets[v] .. offsets[v + 1])}, with sources ascending and
+ * {@code weights} parallel to {@code sources}.
+ *
+ * Obtained through {@link GraphStorage#reverse()}, which caches it on the
+ * graph so Kahn's in-degrees, Kosaraju's second pass and trimming share one
+ * copy. The arrays are shared: read them, never write them. All fields are
+ * final, so an instance built by one thread is safely visible to others.
+ */
+public final class ReverseAdjacency {
+    public final int[] offsets;
+    public final int[] sources;
+    public final int[] weights;
+    public final int[] inDegree;
+    public final int[] outDegree;
+
+    private ReverseAdjacency(int[] offsets, int[] sources, int[] weights, int[] inDegree, int[] outDegree) {
+        this.offsets = offsets;
+        this.sources = sources;
+        this.weights = weights;
+        this.inDegree = inDegree;
+        this.outDegree = outDegree;
+    }
+
+    public static ReverseAdjacency build(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        int[] outDegree = new int[n];
+        int[] offsets = new int[n + 1];
+        EdgeCursor edges = graph.cursor();
+
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            int degree = 0;
+            edges.reset(u);
+            while (edges.next()) {
+                offsets[edges.target() + 1]++;
+                degree++;
+            }
+            outDegree[u] = degree;
+            m += degree;
+        }
+        int[] inDegree = new int[n];
+        for (int v = 0; v < n; v++) {
+            inDegree[v] = offsets[v + 1];
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Fill each range from its end so sources come out ascending
+        int[] sources = new int[m];
+        int[] weights = new int[m];
+        int[] end = offsets.clone();
+        for (int u = n - 1; u >= 0; u--) {
+            edges.reset(u);
+            while (edges.next()) {
+                int slot = --end[edges.target() + 1];
+                sources[slot] = u;
+                weights[slot] = edges.weight();
+            }
+        }
+        return new ReverseAdjacency(offsets, sources, weights, inDegree, outDegree);
+    }
+
+    public int getVertexCount() {
+        return inDegree.length;
+    }
+
+    public int getEdgeCount() {
+        return sources.length;
+    }
+
+    /**
+     * Heap bytes held by the arrays, for deciding when to {@link GraphStorage#dropReverse() drop} it.
+     */
+    public long getMemoryBytes() {
+        return 4L * (offsets.length + sources.length + weights.length + inDegree.length + outDegree.length);
+    }
+}
@@ -0,0 +1,35 @@
+package common;
+
+/**
+ * Lazily built {@link ReverseAdjacency} for one graph, shared by the storage
+ * classes so reverse(), dropReverse() and getReverseBytes() behave the same
+ * everywhere. The slot is volatile: a graph read by several threads may
+ * have racing readers each build a copy, and any of them is correct.
+ */
+public final class ReverseCache {
+    private volatile ReverseAdjacency cached;
+
+    /**
+     * The cached reverse adjacency of graph, built on first call.
+     */
+    public ReverseAdjacency get(GraphStorage graph) {
+        ReverseAdjacency reverse = cached;
+        if (reverse == null) {
+            reverse = ReverseAdjacency.build(graph);
+            cached = reverse;
+        }
+        return reverse;
+    }
+
+    public void clear() {
+        cached = null;
+    }
+
+    /**
+     * Heap bytes held by the cached copy, 0 when none is cached.
+     */
+    public long getMemoryBytes() {
+        ReverseAdjacency reverse = cached;
+        return reverse != null ? reverse.getMemoryBytes() : 0;
+    }
+}
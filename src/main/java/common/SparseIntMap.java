@@ -0,0 +1,97 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from non-negative int keys to int values, sized by
+ * the number of entries rather than the key range. Used where a traversal
+ * touches a small part of a large graph and an int[n] would dominate.
+ */
+public final class SparseIntMap {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public SparseIntMap() {
+        this(16);
+    }
+
+    public SparseIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Value stored for key, or -1 if absent. Negative keys are never stored.
+     */
+    public int get(int key) {
+        if (key < 0) {
+            return -1;   // would otherwise match the EMPTY sentinel
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == EMPTY) return -1;
+        }
+    }
+
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Keys must be non-negative: " + key);
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = value;
+                grow();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Heap bytes held by the tables.
+     */
+    public long getMemoryBytes() {
+        return 8L * keys.length;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
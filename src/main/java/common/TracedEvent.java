@@ -0,0 +1,87 @@
+package common;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Base of the JDK Flight Recorder events emitted by the pipeline. Until
+ * Flight Recorder is initialized the begin methods hand out a shared
+ * never-started instance, so tracing allocates nothing and reads no graph
+ * or allocation counters; afterwards an event is only filled in when its
+ * type is enabled in the running recording.
+ */
+@Category("Smart City Scheduling")
+public abstract class TracedEvent extends jdk.jfr.Event {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Edges Scanned")
+    @Description("Edge visits made by the traced code; -1 when it does not count them")
+    public long edgesScanned;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by the recording thread between begin and end")
+    @DataAmount
+    public long allocatedBytes;
+
+    private transient long allocationStart;
+    private transient boolean started;
+
+    /**
+     * Whether events can be recorded at all; false until a recording is first created.
+     */
+    protected static boolean recorderInitialized() {
+        return FlightRecorder.isInitialized();
+    }
+
+    protected boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Record graph size and start the clock; no-op unless enabled.
+     */
+    protected void start(GraphStorage graph) {
+        if (graph != null) {
+            vertices = graph.getVertexCount();
+            edges = graph.getEdgeCount();
+        }
+        allocationStart = threadAllocatedBytes();
+        started = true;
+        begin();
+    }
+
+    /**
+     * Stop the clock and commit if the recording wants this event.
+     */
+    protected void finish(long scanned) {
+        if (!started) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            edgesScanned = scanned;
+            long now = threadAllocatedBytes();
+            allocatedBytes = allocationStart >= 0 && now >= 0 ? now - allocationStart : -1;
+            commit();
+        }
+    }
+
+    private static long threadAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
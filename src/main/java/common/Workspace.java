@@ -0,0 +1,141 @@
+package common;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread scratch arrays for the graph algorithms, kept between calls so
+ * repeated runs on graphs of similar size allocate nothing.
+ *
+ * Int arrays come back with arbitrary contents; callers write before they
+ * read. Marks replace boolean[n] visited/on-stack flags: a vertex is marked
+ * when its stamp equals the current epoch, so clearing is one increment
+ * rather than an O(n) fill. Scratch is only valid during one algorithm
+ * call; an algorithm that calls another must use different slots.
+ *
+ * Scratch only grows, so long-lived pooled threads call {@link #trim()}
+ * after each task to drop it once one large graph has pushed it past
+ * {@link #RETAIN_BYTES}.
+ */
+public final class Workspace {
+    /**
+     * Scratch a thread keeps across tasks through {@link #trim()}.
+     */
+    public static final long RETAIN_BYTES = 32L << 20;
+
+    private static final ThreadLocal<Workspace> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Scratch int arrays, one per algorithm use.
+     */
+    public enum Slot {
+        SCC_DISC, SCC_LOW, SCC_STACK, TOPO_DEGREE, TOPO_QUEUE, TOPO_STACK
+    }
+
+    /**
+     * Mark sets, one per algorithm use.
+     */
+    public enum MarkSlot {
+        SCC_VISITED, SCC_DONE, TOPO_VISITED
+    }
+
+    private final int[][] ints = new int[Slot.values().length][];
+    private final Marks[] marks = new Marks[MarkSlot.values().length];
+
+    private Workspace() {
+        Arrays.fill(ints, new int[0]);
+        for (int i = 0; i < marks.length; i++) {
+            marks[i] = new Marks();
+        }
+    }
+
+    /**
+     * The calling thread's workspace.
+     */
+    public static Workspace current() {
+        Workspace workspace = CURRENT.get();
+        if (workspace == null) {
+            workspace = new Workspace();
+            CURRENT.set(workspace);
+        }
+        return workspace;
+    }
+
+    /**
+     * Drop the calling thread's scratch if it holds more than {@link #RETAIN_BYTES}.
+     */
+    public static void trim() {
+        Workspace workspace = CURRENT.get();
+        if (workspace != null && workspace.getBytes() > RETAIN_BYTES) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Drop the calling thread's scratch; the next {@link #current()} starts empty.
+     */
+    public static void release() {
+        CURRENT.remove();
+    }
+
+    /**
+     * An int array of at least n entries with arbitrary contents.
+     */
+    public int[] ints(Slot slot, int n) {
+        int[] array = ints[slot.ordinal()];
+        if (array.length < n) {
+            array = new int[Math.max(n, array.length + (array.length >> 1))];
+            ints[slot.ordinal()] = array;
+        }
+        return array;
+    }
+
+    /**
+     * An empty mark set over vertices 0..n-1.
+     */
+    public Marks marks(MarkSlot slot, int n) {
+        Marks set = marks[slot.ordinal()];
+        set.clear(n);
+        return set;
+    }
+
+    /**
+     * Heap bytes held by this thread's scratch arrays.
+     */
+    public long getBytes() {
+        long bytes = 0;
+        for (int[] array : ints) {
+            bytes += 4L * array.length;
+        }
+        for (Marks set : marks) {
+            bytes += 4L * set.stamp.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Epoch-stamped vertex set: cleared in O(1) by moving to a new epoch.
+     */
+    public static final class Marks {
+        private int[] stamp = new int[0];
+        private int epoch;
+
+        void clear(int n) {
+            if (stamp.length < n) {
+                // Fresh zeros are unmarked for any epoch >= 1
+                stamp = new int[Math.max(n, stamp.length + (stamp.length >> 1))];
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+        }
+
+        public boolean contains(int v) {
+            return stamp[v] == epoch;
+        }
+
+        public void add(int v) {
+            stamp[v] = epoch;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package graph.dagsp;
 
-import common.Graph;
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.IntListView;
+import common.GraphStorage;
 import common.Metrics;
 import common.MetricsImpl;
 import graph.topo.TopologicalSort;
@@ -9,23 +12,26 @@ import java.util.*;
 
 
 public class DAGShortestPath {
-    private final Graph graph;
+    private final GraphStorage graph;
     private final Metrics metrics;
     private final String weightModel;
 
     public static class PathResult {
         public final int[] distances;
         public final int[] parent;
+        public final int[] order;
+        // List view of order
         public final List<Integer> topoOrder;
 
-        public PathResult(int[] distances, int[] parent, List<Integer> topoOrder) {
+        public PathResult(int[] distances, int[] parent, int[] order) {
             this.distances = distances;
             this.parent = parent;
-            this.topoOrder = topoOrder;
+            this.order = order;
+            this.topoOrder = IntListView.of(order);
         }
     }
 
-    public DAGShortestPath(Graph graph) {
+    public DAGShortestPath(GraphStorage graph) {
         this.graph = graph;
         this.metrics = new MetricsImpl();
         this.weightModel = graph.getWeightModel();
@@ -34,12 +40,13 @@ public class DAGShortestPath {
     
     public PathResult shortestPaths(int source) {
         int n = graph.getVertexCount();
+        EngineEvent event = EngineEvent.begin("DAGShortest", graph);
         
       
         TopologicalSort topoSort = new TopologicalSort(graph);
-        List<Integer> topoOrder = topoSort.kahnSort();
+        int[] topoOrder = topoSort.kahnOrder();
         
-        if (topoOrder.isEmpty()) {
+        if (topoOrder.length == 0) {
             throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
         }
 
@@ -48,31 +55,35 @@ public class DAGShortestPath {
         Arrays.fill(dist, Integer.MAX_VALUE);
         Arrays.fill(parent, -1);
         dist[source] = 0;
+        EdgeCursor edges = graph.cursor();
 
         metrics.startTiming();
 
-        
+        // Counted locally and added to metrics once, so the loop does not box per edge
+        long relaxations = 0;
+        long improved = 0;
         for (int u : topoOrder) {
-            metrics.incrementCounter("vertices_processed");
-            
             if (dist[u] != Integer.MAX_VALUE) {
-                for (Graph.Edge edge : graph.getAdjacent(u)) {
-                    int v = edge.to;
-                    int weight = getEdgeWeight(u, edge);
-                    
-                    metrics.incrementCounter("edge_relaxations");
-                    
-                
+                edges.reset(u);
+                while (edges.next()) {
+                    int v = edges.target();
+                    int weight = weight(edges);
+                    relaxations++;
+
                     if (dist[u] + weight < dist[v]) {
                         dist[v] = dist[u] + weight;
                         parent[v] = u;
-                        metrics.incrementCounter("successful_relaxations");
+                        improved++;
                     }
                 }
             }
         }
 
         metrics.stopTiming();
+        metrics.incrementCounter("vertices_processed", topoOrder.length);
+        metrics.incrementCounter("edge_relaxations", relaxations);
+        metrics.incrementCounter("successful_relaxations", improved);
+        event.end(relaxations, topoOrder.length);
 
         return new PathResult(dist, parent, topoOrder);
     }
@@ -80,12 +91,13 @@ public class DAGShortestPath {
     
     public PathResult longestPaths(int source) {
         int n = graph.getVertexCount();
+        EngineEvent event = EngineEvent.begin("DAGLongest", graph);
         
        
         TopologicalSort topoSort = new TopologicalSort(graph);
-        List<Integer> topoOrder = topoSort.kahnSort();
+        int[] topoOrder = topoSort.kahnOrder();
         
-        if (topoOrder.isEmpty()) {
+        if (topoOrder.length == 0) {
             throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
         }
 
@@ -94,64 +106,69 @@ public class DAGShortestPath {
         Arrays.fill(dist, Integer.MIN_VALUE);
         Arrays.fill(parent, -1);
         dist[source] = 0;
+        EdgeCursor edges = graph.cursor();
 
         metrics.startTiming();
 
-       
+        // Counted locally and added to metrics once, so the loop does not box per edge
+        long relaxations = 0;
+        long improved = 0;
         for (int u : topoOrder) {
-            metrics.incrementCounter("vertices_processed");
-            
             if (dist[u] != Integer.MIN_VALUE) {
-                for (Graph.Edge edge : graph.getAdjacent(u)) {
-                    int v = edge.to;
-                    int weight = getEdgeWeight(u, edge);
-                    
-                    metrics.incrementCounter("edge_relaxations");
-                    
-                   
+                edges.reset(u);
+                while (edges.next()) {
+                    int v = edges.target();
+                    int weight = weight(edges);
+                    relaxations++;
+
                     if (dist[u] + weight > dist[v]) {
                         dist[v] = dist[u] + weight;
                         parent[v] = u;
-                        metrics.incrementCounter("successful_relaxations");
+                        improved++;
                     }
                 }
             }
         }
 
         metrics.stopTiming();
+        metrics.incrementCounter("vertices_processed", topoOrder.length);
+        metrics.incrementCounter("edge_relaxations", relaxations);
+        metrics.incrementCounter("successful_relaxations", improved);
+        event.end(relaxations, topoOrder.length);
 
         return new PathResult(dist, parent, topoOrder);
     }
 
    
-    private int getEdgeWeight(int u, Graph.Edge edge) {
+    private int weight(EdgeCursor edges) {
         if ("node".equals(weightModel)) {
            
-            return graph.getNodeWeight(edge.to);
+            return graph.getNodeWeight(edges.target());
         } else {
            
-            return edge.weight;
+            return edges.weight();
         }
     }
 
     public List<Integer> reconstructPath(int source, int target, int[] parent) {
-        if (parent[target] == -1 && source != target) {
-            return new ArrayList<>(); 
-        }
+        PathTree tree = new PathTree(source, parent);
+        int[] buffer = new int[tree.pathLength(target)];
+        int length = tree.writePath(target, buffer);
 
-        List<Integer> path = new ArrayList<>();
-        int current = target;
-        
-        while (current != -1) {
-            path.add(current);
-            if (current == source) break;
-            current = parent[current];
+        List<Integer> path = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            path.add(buffer[i]);
         }
-        
-        Collections.reverse(path);
         return path;
     }
 
+    /**
+     * Path queries over the parent array of a result from the given source.
+     */
+    public PathTree pathTree(int source, PathResult result) {
+        return new PathTree(source, result.parent);
+    }
+
     
     public CriticalPathResult findCriticalPath(int source) {
         PathResult result = longestPaths(source);
@@ -198,16 +215,7 @@ public class DAGShortestPath {
     public void printShortestPaths(int source, PathResult result) {
         System.out.println("\n=== Shortest Paths from Source " + source + " ===");
         System.out.println("Weight model: " + weightModel);
-        
-        for (int i = 0; i < result.distances.length; i++) {
-            if (result.distances[i] == Integer.MAX_VALUE) {
-                System.out.printf("Vertex %d: unreachable%n", i);
-            } else {
-                List<Integer> path = reconstructPath(source, i, result.parent);
-                System.out.printf("Vertex %d: distance=%d, path=%s%n", 
-                                i, result.distances[i], path);
-            }
-        }
+        printPaths(source, result, Integer.MAX_VALUE);
         
         System.out.println("\nMetrics:");
         System.out.println(metrics.getSummary());
@@ -217,19 +225,33 @@ public class DAGShortestPath {
     public void printLongestPaths(int source, PathResult result) {
         System.out.println("\n=== Longest Paths from Source " + source + " ===");
         System.out.println("Weight model: " + weightModel);
+        printPaths(source, result, Integer.MIN_VALUE);
         
+        System.out.println("\nMetrics:");
+        System.out.println(metrics.getSummary());
+    }
+
+    private void printPaths(int source, PathResult result, int unreachable) {
+        PathTree tree = new PathTree(source, result.parent);
+        int[] buffer = new int[result.parent.length];
+        StringBuilder line = new StringBuilder();
+
         for (int i = 0; i < result.distances.length; i++) {
-            if (result.distances[i] == Integer.MIN_VALUE) {
-                System.out.printf("Vertex %d: unreachable%n", i);
+            line.setLength(0);
+            line.append("Vertex ").append(i);
+            if (result.distances[i] == unreachable) {
+                line.append(": unreachable");
             } else {
-                List<Integer> path = reconstructPath(source, i, result.parent);
-                System.out.printf("Vertex %d: distance=%d, path=%s%n", 
-                                i, result.distances[i], path);
+                line.append(": distance=").append(result.distances[i]).append(", path=[");
+                int length = tree.writePath(i, buffer);
+                for (int k = 0; k < length; k++) {
+                    if (k > 0) line.append(", ");
+                    line.append(buffer[k]);
+                }
+                line.append(']');
             }
+            System.out.println(line);
         }
-        
-        System.out.println("\nMetrics:");
-        System.out.println(metrics.getSummary());
     }
 
     
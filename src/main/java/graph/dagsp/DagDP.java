@@ -0,0 +1,139 @@
+package graph.dagsp;
+
+import common.EdgeCursor;
+import common.GraphStorage;
+import common.Metrics;
+import common.MetricsImpl;
+import graph.topo.TopologicalSort;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Generic dynamic programming over a DAG in topological order.
+ * The order is computed once and reused by every {@link Semiring}, so
+ * shortest/longest distances, path counts and reachability all come from
+ * the same sweep over primitive long arrays. Edge weights follow the graph's
+ * weight model, as in {@link DAGShortestPath}.
+ */
+public class DagDP {
+    private final GraphStorage graph;
+    private final int[] topoOrder;
+    private final boolean nodeWeights;
+    private final Metrics metrics;
+
+    public DagDP(GraphStorage graph) {
+        this(graph, topologicalOrder(graph));
+    }
+
+    /**
+     * Reuse an already computed topological order of graph.
+     */
+    public DagDP(GraphStorage graph, int[] topoOrder) {
+        if (topoOrder.length != graph.getVertexCount()) {
+            throw new IllegalArgumentException("Topological order must cover all " + graph.getVertexCount() + " vertices");
+        }
+        this.graph = graph;
+        this.topoOrder = topoOrder;
+        this.nodeWeights = "node".equals(graph.getWeightModel());
+        this.metrics = new MetricsImpl();
+    }
+
+    /**
+     * Value of every vertex aggregated over all paths from source.
+     */
+    public long[] run(Semiring semiring, int source) {
+        long[] value = new long[graph.getVertexCount()];
+        Arrays.fill(value, semiring.zero());
+        value[source] = semiring.one();
+        sweep(semiring, value);
+        return value;
+    }
+
+    /**
+     * Value of every vertex aggregated over all paths from any vertex without predecessors.
+     */
+    public long[] runFromRoots(Semiring semiring) {
+        int n = graph.getVertexCount();
+        boolean[] hasPredecessor = new boolean[n];
+        EdgeCursor edges = graph.cursor();
+        for (int u = 0; u < n; u++) {
+            edges.reset(u);
+            while (edges.next()) {
+                hasPredecessor[edges.target()] = true;
+            }
+        }
+        long[] value = new long[n];
+        for (int v = 0; v < n; v++) {
+            value[v] = hasPredecessor[v] ? semiring.zero() : semiring.one();
+        }
+        sweep(semiring, value);
+        return value;
+    }
+
+    private void sweep(Semiring semiring, long[] value) {
+        long zero = semiring.zero();
+        EdgeCursor edges = graph.cursor();
+        metrics.reset();
+        metrics.startTiming();
+
+        for (int u : topoOrder) {
+            if (value[u] == zero) continue;
+            metrics.incrementCounter("vertices_processed");
+            long current = value[u];
+            edges.reset(u);
+            while (edges.next()) {
+                int v = edges.target();
+                int weight = nodeWeights ? graph.getNodeWeight(v) : edges.weight();
+                value[v] = semiring.combine(value[v], semiring.extend(current, weight));
+                metrics.incrementCounter("edge_relaxations");
+            }
+        }
+
+        metrics.stopTiming();
+    }
+
+    /**
+     * Exact number of distinct paths from source to every vertex, for counts
+     * beyond the range of {@link Semiring#COUNT_CHECKED}.
+     */
+    public BigInteger[] countPathsExact(int source) {
+        BigInteger[] count = new BigInteger[graph.getVertexCount()];
+        Arrays.fill(count, BigInteger.ZERO);
+        count[source] = BigInteger.ONE;
+        EdgeCursor edges = graph.cursor();
+
+        metrics.reset();
+        metrics.startTiming();
+
+        for (int u : topoOrder) {
+            if (count[u].signum() == 0) continue;
+            metrics.incrementCounter("vertices_processed");
+            edges.reset(u);
+            while (edges.next()) {
+                int v = edges.target();
+                count[v] = count[v].add(count[u]);
+                metrics.incrementCounter("edge_relaxations");
+            }
+        }
+
+        metrics.stopTiming();
+        return count;
+    }
+
+    private static int[] topologicalOrder(GraphStorage graph) {
+        int[] order = new TopologicalSort(graph).kahnOrder();
+        if (order.length == 0 && graph.getVertexCount() > 0) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
+        }
+        return order;
+    }
+
+    public int[] getTopologicalOrder() {
+        return topoOrder;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
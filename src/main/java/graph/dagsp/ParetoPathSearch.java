@@ -0,0 +1,242 @@
+package graph.dagsp;
+
+import common.Metrics;
+import common.MetricsImpl;
+import common.MultiWeightGraph;
+import graph.topo.TopologicalSort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Multi-criteria shortest paths on a DAG.
+ * Labels (one cost per weight dimension) are propagated in topological
+ * order and every vertex keeps only its Pareto front: a label is dropped
+ * as soon as another label at the same vertex is no worse in every
+ * dimension. Labels live in flat primitive pools indexed by label id.
+ */
+public class ParetoPathSearch {
+    private final MultiWeightGraph graph;
+    private final int dims;
+    private final Metrics metrics;
+
+    // Label pool
+    private long[] cost;        // cost[label * dims + d]
+    private int[] labelVertex;
+    private int[] labelPred;    // predecessor label id, -1 at the source
+    private int labelCount;
+
+    // Live labels per vertex, as growable id lists
+    private int[][] front;
+    private int[] frontSize;
+
+    public ParetoPathSearch(MultiWeightGraph graph) {
+        this.graph = graph;
+        this.dims = graph.getDimensions();
+        this.metrics = new MetricsImpl();
+    }
+
+    /**
+     * Pareto fronts of all vertices for paths from source.
+     */
+    public static class ParetoResult {
+        private final int dims;
+        private final long[] cost;
+        private final int[] labelVertex;
+        private final int[] labelPred;
+        private final int[] offsets;
+        private final int[] labels;
+
+        ParetoResult(int dims, long[] cost, int[] labelVertex, int[] labelPred, int[] offsets, int[] labels) {
+            this.dims = dims;
+            this.cost = cost;
+            this.labelVertex = labelVertex;
+            this.labelPred = labelPred;
+            this.offsets = offsets;
+            this.labels = labels;
+        }
+
+        /**
+         * Number of non-dominated paths to v (0 if unreachable).
+         */
+        public int frontSize(int v) {
+            return offsets[v + 1] - offsets[v];
+        }
+
+        /**
+         * Cost in the given dimension of the k-th front path to v; fronts are sorted by dimension 0.
+         */
+        public long cost(int v, int k, int dimension) {
+            return cost[labels[offsets[v] + k] * dims + dimension];
+        }
+
+        /**
+         * All costs of the k-th front path to v.
+         */
+        public long[] costs(int v, int k) {
+            int label = labels[offsets[v] + k];
+            return Arrays.copyOfRange(cost, label * dims, label * dims + dims);
+        }
+
+        /**
+         * Vertices of the k-th front path to v, source first.
+         */
+        public List<Integer> path(int v, int k) {
+            List<Integer> path = new ArrayList<>();
+            for (int label = labels[offsets[v] + k]; label != -1; label = labelPred[label]) {
+                path.add(labelVertex[label]);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+
+        /**
+         * Total labels across all fronts.
+         */
+        public int totalFrontSize() {
+            return labels.length;
+        }
+    }
+
+    public ParetoResult search(int source) {
+        int n = graph.getVertexCount();
+        int[] topoOrder = new TopologicalSort(graph).kahnOrder();
+        if (topoOrder.length == 0) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
+        }
+
+        cost = new long[16 * dims];
+        labelVertex = new int[16];
+        labelPred = new int[16];
+        labelCount = 0;
+        front = new int[n][];
+        frontSize = new int[n];
+
+        metrics.reset();
+        metrics.startTiming();
+
+        long[] candidate = new long[dims];
+        addLabel(source, candidate, -1);
+
+        for (int u : topoOrder) {
+            metrics.incrementCounter("vertices_processed");
+            // Labels of u are final: all its predecessors come earlier in the order
+            int size = frontSize[u];
+            int degree = graph.getOutDegree(u);
+            for (int k = 0; k < size; k++) {
+                int label = front[u][k];
+                for (int i = 0; i < degree; i++) {
+                    int v = graph.getEdgeTarget(u, i);
+                    for (int d = 0; d < dims; d++) {
+                        candidate[d] = cost[label * dims + d] + graph.getEdgeWeight(u, i, d);
+                    }
+                    metrics.incrementCounter("label_extensions");
+                    addLabel(v, candidate, label);
+                }
+            }
+        }
+
+        metrics.stopTiming();
+        return buildResult(n);
+    }
+
+    /**
+     * Insert a candidate label at v unless it is dominated; evict labels it dominates.
+     */
+    private void addLabel(int v, long[] candidate, int pred) {
+        int size = frontSize[v];
+        int[] labels = front[v];
+
+        for (int k = 0; k < size; k++) {
+            if (dominatesOrEquals(labels[k], candidate)) {
+                metrics.incrementCounter("labels_pruned");
+                return;
+            }
+        }
+
+        // Compact the front, dropping labels the candidate dominates
+        int kept = 0;
+        for (int k = 0; k < size; k++) {
+            if (isDominatedBy(labels[k], candidate)) {
+                metrics.incrementCounter("labels_evicted");
+            } else {
+                labels[kept++] = labels[k];
+            }
+        }
+
+        int id = newLabel(v, candidate, pred);
+        if (labels == null) {
+            labels = new int[4];
+        } else if (kept == labels.length) {
+            labels = Arrays.copyOf(labels, kept * 2);
+        }
+        labels[kept++] = id;
+        front[v] = labels;
+        frontSize[v] = kept;
+    }
+
+    private int newLabel(int v, long[] values, int pred) {
+        if (labelCount == labelVertex.length) {
+            int capacity = labelCount * 2;
+            labelVertex = Arrays.copyOf(labelVertex, capacity);
+            labelPred = Arrays.copyOf(labelPred, capacity);
+            cost = Arrays.copyOf(cost, capacity * dims);
+        }
+        int id = labelCount++;
+        labelVertex[id] = v;
+        labelPred[id] = pred;
+        System.arraycopy(values, 0, cost, id * dims, dims);
+        metrics.incrementCounter("labels_created");
+        return id;
+    }
+
+    private boolean dominatesOrEquals(int label, long[] candidate) {
+        int base = label * dims;
+        for (int d = 0; d < dims; d++) {
+            if (cost[base + d] > candidate[d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isDominatedBy(int label, long[] candidate) {
+        int base = label * dims;
+        for (int d = 0; d < dims; d++) {
+            if (candidate[d] > cost[base + d]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ParetoResult buildResult(int n) {
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + frontSize[v];
+        }
+        int[] labels = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int size = frontSize[v];
+            // Sort each front by dimension 0 (insertion sort: fronts are small)
+            for (int k = 0; k < size; k++) {
+                int label = front[v][k];
+                int pos = offsets[v] + k;
+                while (pos > offsets[v] && cost[labels[pos - 1] * dims] > cost[label * dims]) {
+                    labels[pos] = labels[pos - 1];
+                    pos--;
+                }
+                labels[pos] = label;
+            }
+        }
+        return new ParetoResult(dims, Arrays.copyOf(cost, labelCount * dims),
+                Arrays.copyOf(labelVertex, labelCount), Arrays.copyOf(labelPred, labelCount),
+                offsets, labels);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
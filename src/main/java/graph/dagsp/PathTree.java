@@ -0,0 +1,170 @@
+package graph.dagsp;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Path queries over the parent array of a single-source path result.
+ * Paths are written into caller-supplied buffers or visited in one
+ * depth-first sweep of the tree, so no per-target lists are built.
+ */
+public class PathTree {
+    private final int source;
+    private final int[] parent;
+
+    // Children of each vertex in CSR form, built on first use
+    private int[] childOffsets;
+    private int[] children;
+
+    /**
+     * Callback for {@link #forEachPath}; the path array is reused between calls.
+     */
+    public interface PathVisitor {
+        void visit(int vertex, int[] path, int length);
+    }
+
+    public PathTree(int source, int[] parent) {
+        if (source < 0 || source >= parent.length) {
+            throw new IllegalArgumentException("Invalid source vertex");
+        }
+        this.source = source;
+        this.parent = parent;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public boolean isReachable(int target) {
+        return target == source || parent[target] != -1;
+    }
+
+    /**
+     * Number of vertices on the source->target path, 0 if target is unreachable.
+     */
+    public int pathLength(int target) {
+        if (!isReachable(target)) {
+            return 0;
+        }
+        int length = 1;
+        for (int current = target; current != source && parent[current] != -1; current = parent[current]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Write the source->target path into buffer starting at index 0.
+     * @return number of vertices written, 0 if target is unreachable
+     * @throws IllegalArgumentException if the buffer is too small
+     */
+    public int writePath(int target, int[] buffer) {
+        int length = pathLength(target);
+        if (length > buffer.length) {
+            throw new IllegalArgumentException("Path of length " + length
+                    + " does not fit in buffer of size " + buffer.length);
+        }
+        int current = target;
+        for (int i = length - 1; i >= 0; i--) {
+            buffer[i] = current;
+            current = parent[current];
+        }
+        return length;
+    }
+
+    /**
+     * Lazily walk the path from target back to the source.
+     */
+    public PrimitiveIterator.OfInt reversePath(int target) {
+        return new PrimitiveIterator.OfInt() {
+            private int next = isReachable(target) ? target : -1;
+
+            @Override
+            public boolean hasNext() {
+                return next != -1;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == -1) {
+                    throw new NoSuchElementException();
+                }
+                int current = next;
+                next = current == source ? -1 : parent[current];
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Visit every reachable vertex with its full path from the source.
+     * Runs in time linear in the tree size: each vertex is pushed once and
+     * the path buffer is shared with its ancestors' visits.
+     */
+    public void forEachPath(PathVisitor visitor) {
+        buildChildren();
+        int n = parent.length;
+        int[] path = new int[n];
+        int[] nextChild = new int[n];
+
+        int depth = 0;
+        path[0] = source;
+        nextChild[0] = childOffsets[source];
+        visitor.visit(source, path, 1);
+
+        while (depth >= 0) {
+            int u = path[depth];
+            if (nextChild[depth] < childOffsets[u + 1]) {
+                int v = children[nextChild[depth]++];
+                depth++;
+                path[depth] = v;
+                nextChild[depth] = childOffsets[v];
+                visitor.visit(v, path, depth + 1);
+            } else {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Offsets into {@link #getChildren()}: children of v are at [offsets[v], offsets[v + 1]).
+     */
+    public int[] getChildOffsets() {
+        buildChildren();
+        return childOffsets;
+    }
+
+    /**
+     * Children of every vertex in the tree, grouped by parent in vertex order.
+     */
+    public int[] getChildren() {
+        buildChildren();
+        return children;
+    }
+
+    private void buildChildren() {
+        if (children != null) {
+            return;
+        }
+        int n = parent.length;
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (v != source && parent[v] != -1) {
+                offsets[parent[v] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = new int[n];
+        int[] kids = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            if (v != source && parent[v] != -1) {
+                int p = parent[v];
+                kids[offsets[p] + fill[p]++] = v;
+            }
+        }
+        childOffsets = offsets;
+        children = kids;
+    }
+}
@@ -0,0 +1,225 @@
+package graph.dagsp;
+
+import common.EdgeCursor;
+import common.GraphStorage;
+import common.Metrics;
+import common.MetricsImpl;
+import common.ReverseAdjacency;
+import graph.topo.TopologicalSort;
+
+import java.util.Arrays;
+
+/**
+ * Single source -> target shortest or longest path on a DAG, relaxing only
+ * vertices that lie on some source -> target path.
+ *
+ * The topological order is computed once. A query walks in-edges back from
+ * the target, skipping anything whose topological position is before the
+ * source's, to collect the target's backward cone. A forward walk from the
+ * source inside that cone leaves exactly the vertices on source -> target
+ * paths, which are relaxed in topological order. The target has the
+ * highest position among them, so relaxation ends exactly when it is final.
+ *
+ * Scratch arrays are stamped with a per-query epoch instead of being
+ * cleared, so back-to-back queries cost only the size of the cone.
+ * Edge weights follow {@link DAGShortestPath}. Not thread-safe.
+ */
+public class PointToPointQuery {
+    private final GraphStorage graph;
+    private final ReverseAdjacency reverse;
+    private final boolean nodeModel;
+    private final int[] order;
+    private final int[] position;
+    private final Metrics metrics;
+    private final EdgeCursor edges;
+
+    // Entries are valid only where the matching stamp equals epoch
+    private final int[] coneStamp;
+    private final int[] betweenStamp;
+    private final int[] distStamp;
+    private final int[] dist;
+    private final int[] parent;
+    private int epoch;
+
+    private int[] cone = new int[16];
+    private int[] between = new int[16];
+
+    private int lastSource = -1;
+    private int lastTarget = -1;
+    private boolean lastReachable;
+
+    public PointToPointQuery(GraphStorage graph) {
+        int[] topoOrder = new TopologicalSort(graph).kahnOrder();
+        int n = graph.getVertexCount();
+        if (topoOrder.length != n) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
+        }
+        this.graph = graph;
+        this.reverse = graph.reverse();
+        this.nodeModel = "node".equals(graph.getWeightModel());
+        this.order = topoOrder;
+        this.position = new int[n];
+        for (int i = 0; i < n; i++) {
+            position[order[i]] = i;
+        }
+        this.metrics = new MetricsImpl();
+        this.coneStamp = new int[n];
+        this.betweenStamp = new int[n];
+        this.distStamp = new int[n];
+        this.dist = new int[n];
+        this.parent = new int[n];
+        this.edges = graph.cursor();
+    }
+
+    /**
+     * Shortest source -> target distance, or Integer.MAX_VALUE if target is unreachable.
+     */
+    public int shortest(int source, int target) {
+        return run(source, target, false) ? dist[target] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Longest source -> target distance, or Integer.MIN_VALUE if target is unreachable.
+     */
+    public int longest(int source, int target) {
+        return run(source, target, true) ? dist[target] : Integer.MIN_VALUE;
+    }
+
+    private boolean run(int source, int target, boolean longest) {
+        int n = graph.getVertexCount();
+        if (source < 0 || source >= n || target < 0 || target >= n) {
+            throw new IllegalArgumentException("Invalid vertex index");
+        }
+        metrics.reset();
+        metrics.startTiming();
+        nextEpoch();
+        lastSource = source;
+        lastTarget = target;
+        lastReachable = false;
+
+        int low = position[source];
+        if (position[target] < low) {
+            metrics.stopTiming();
+            return false;
+        }
+
+        // Backward cone of the target, bounded below by the source's position
+        int size = 0;
+        coneStamp[target] = epoch;
+        cone = ensure(cone, 1);
+        cone[size++] = target;
+        for (int head = 0; head < size; head++) {
+            int v = cone[head];
+            for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1]; e++) {
+                int u = reverse.sources[e];
+                if (coneStamp[u] != epoch && position[u] >= low) {
+                    coneStamp[u] = epoch;
+                    cone = ensure(cone, size + 1);
+                    cone[size++] = u;
+                }
+            }
+        }
+        metrics.incrementCounter("cone_vertices", size);
+        if (coneStamp[source] != epoch) {
+            metrics.stopTiming();
+            return false;
+        }
+
+        // Forward from the source, staying inside the cone: the vertices on source -> target paths
+        int count = 0;
+        betweenStamp[source] = epoch;
+        between[count++] = source;
+        for (int head = 0; head < count; head++) {
+            edges.reset(between[head]);
+            while (edges.next()) {
+                int v = edges.target();
+                if (coneStamp[v] == epoch && betweenStamp[v] != epoch) {
+                    betweenStamp[v] = epoch;
+                    between = ensure(between, count + 1);
+                    between[count++] = v;
+                }
+            }
+        }
+        metrics.incrementCounter("relaxed_vertices", count);
+
+        // Relax in topological order; the target comes last
+        for (int i = 0; i < count; i++) {
+            between[i] = position[between[i]];
+        }
+        Arrays.sort(between, 0, count);
+        distStamp[source] = epoch;
+        dist[source] = 0;
+        parent[source] = -1;
+        long relaxations = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int u = order[between[i]];
+            edges.reset(u);
+            while (edges.next()) {
+                int v = edges.target();
+                if (betweenStamp[v] != epoch) continue;
+                relaxations++;
+                int candidate = dist[u] + (nodeModel ? graph.getNodeWeight(v) : edges.weight());
+                if (distStamp[v] != epoch || (longest ? candidate > dist[v] : candidate < dist[v])) {
+                    distStamp[v] = epoch;
+                    dist[v] = candidate;
+                    parent[v] = u;
+                }
+            }
+        }
+        metrics.incrementCounter("edge_relaxations", relaxations);
+        metrics.stopTiming();
+        lastReachable = true;
+        return true;
+    }
+
+    /**
+     * Write the path found by the last query into buffer, source first.
+     * @return number of vertices written, 0 if the target was unreachable
+     * @throws IllegalArgumentException if the buffer is too small
+     */
+    public int writeLastPath(int[] buffer) {
+        int length = lastPathLength();
+        if (length > buffer.length) {
+            throw new IllegalArgumentException("Path of length " + length
+                    + " does not fit in buffer of size " + buffer.length);
+        }
+        int current = lastTarget;
+        for (int i = length - 1; i >= 0; i--) {
+            buffer[i] = current;
+            current = parent[current];
+        }
+        return length;
+    }
+
+    /**
+     * Number of vertices on the last query's path, 0 if the target was unreachable.
+     */
+    public int lastPathLength() {
+        if (!lastReachable) {
+            return 0;
+        }
+        int length = 1;
+        for (int v = lastTarget; v != lastSource; v = parent[v]) {
+            length++;
+        }
+        return length;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    private void nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            // Wrapped after 2^31 queries: clear once and start over
+            Arrays.fill(coneStamp, 0);
+            Arrays.fill(betweenStamp, 0);
+            Arrays.fill(distStamp, 0);
+            epoch = 1;
+        }
+    }
+
+    private static int[] ensure(int[] array, int size) {
+        return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+    }
+}
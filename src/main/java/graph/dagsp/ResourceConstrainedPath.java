@@ -0,0 +1,326 @@
+package graph.dagsp;
+
+import common.Metrics;
+import common.MetricsImpl;
+import common.MultiWeightGraph;
+import graph.topo.TopologicalSort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resource-constrained shortest path on a DAG: minimize total duration
+ * subject to total resource consumption within a budget.
+ *
+ * Labels are propagated in topological order. Each vertex keeps a bucket of
+ * labels sorted by resource consumed with strictly decreasing duration, so a
+ * new label is dominated exactly when its predecessor in resource order is
+ * no slower. A backward pass gives per-vertex lower bounds on the resource
+ * and duration still needed to reach the target; labels that cannot stay
+ * within the budget or beat the best known duration are discarded.
+ * Resource weights must be non-negative.
+ */
+public class ResourceConstrainedPath {
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final MultiWeightGraph graph;
+    private final int durationDim;
+    private final int resourceDim;
+    private final Metrics metrics;
+
+    // Label pool
+    private long[] labelResource;
+    private long[] labelDuration;
+    private int[] labelVertex;
+    private int[] labelPred;
+    private int labelCount;
+
+    // Per-vertex buckets: label ids sorted by resource
+    private int[][] bucket;
+    private int[] bucketSize;
+
+    public ResourceConstrainedPath(MultiWeightGraph graph) {
+        this(graph, 0, 1);
+    }
+
+    public ResourceConstrainedPath(MultiWeightGraph graph, int durationDim, int resourceDim) {
+        if (durationDim >= graph.getDimensions() || resourceDim >= graph.getDimensions()) {
+            throw new IllegalArgumentException("Graph has only " + graph.getDimensions() + " weight dimensions");
+        }
+        this.graph = graph;
+        this.durationDim = durationDim;
+        this.resourceDim = resourceDim;
+        this.metrics = new MetricsImpl();
+    }
+
+    public static class ConstrainedResult {
+        public final boolean feasible;
+        public final long duration;
+        public final long resource;
+        public final List<Integer> path;
+
+        public ConstrainedResult(boolean feasible, long duration, long resource, List<Integer> path) {
+            this.feasible = feasible;
+            this.duration = duration;
+            this.resource = resource;
+            this.path = path;
+        }
+
+        static ConstrainedResult infeasible() {
+            return new ConstrainedResult(false, -1, -1, new ArrayList<>());
+        }
+
+        @Override
+        public String toString() {
+            return feasible
+                    ? String.format("Constrained Path: %s, Duration: %d, Resource: %d", path, duration, resource)
+                    : "Constrained Path: infeasible";
+        }
+    }
+
+    /**
+     * Fastest source->target path whose total resource is at most budget.
+     */
+    public ConstrainedResult solve(int source, int target, long budget) {
+        int n = graph.getVertexCount();
+        int[] order = topologicalOrder();
+        int[] position = new int[n];
+        for (int i = 0; i < n; i++) {
+            position[order[i]] = i;
+        }
+
+        metrics.reset();
+        metrics.startTiming();
+
+        // Backward pass: least resource / duration still needed to reach the target
+        long[] minResource = new long[n];
+        long[] minDuration = new long[n];
+        long[] durationOfMinResource = new long[n];
+        Arrays.fill(minResource, INF);
+        Arrays.fill(minDuration, INF);
+        Arrays.fill(durationOfMinResource, INF);
+        minResource[target] = 0;
+        minDuration[target] = 0;
+        durationOfMinResource[target] = 0;
+        for (int k = position[target] - 1; k >= position[source]; k--) {
+            int u = order[k];
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getEdgeTarget(u, i);
+                if (minResource[v] == INF) continue;
+                long res = graph.getEdgeWeight(u, i, resourceDim);
+                long dur = graph.getEdgeWeight(u, i, durationDim);
+                if (res < 0) {
+                    throw new IllegalArgumentException("Resource weights must be non-negative");
+                }
+                long viaRes = res + minResource[v];
+                long viaDur = dur + durationOfMinResource[v];
+                if (viaRes < minResource[u] || (viaRes == minResource[u] && viaDur < durationOfMinResource[u])) {
+                    minResource[u] = viaRes;
+                    durationOfMinResource[u] = viaDur;
+                }
+                minDuration[u] = Math.min(minDuration[u], dur + minDuration[v]);
+            }
+        }
+
+        if (position[source] > position[target] || minResource[source] > budget) {
+            metrics.stopTiming();
+            return ConstrainedResult.infeasible();
+        }
+
+        // The least-resource path is feasible, so its duration bounds the optimum
+        long upperBound = durationOfMinResource[source];
+
+        labelResource = new long[64];
+        labelDuration = new long[64];
+        labelVertex = new int[64];
+        labelPred = new int[64];
+        labelCount = 0;
+        bucket = new int[n][];
+        bucketSize = new int[n];
+
+        insert(source, 0, 0, -1);
+
+        for (int k = position[source]; k < position[target]; k++) {
+            int u = order[k];
+            if (bucketSize[u] == 0) continue;
+            metrics.incrementCounter("vertices_processed");
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                int v = graph.getEdgeTarget(u, i);
+                if (minResource[v] == INF) continue;
+                long res = graph.getEdgeWeight(u, i, resourceDim);
+                long dur = graph.getEdgeWeight(u, i, durationDim);
+
+                for (int b = 0; b < bucketSize[u]; b++) {
+                    int label = bucket[u][b];
+                    long newRes = labelResource[label] + res;
+                    long newDur = labelDuration[label] + dur;
+                    metrics.incrementCounter("label_extensions");
+
+                    if (newRes + minResource[v] > budget) {
+                        metrics.incrementCounter("pruned_by_budget");
+                        // Bucket is sorted by resource: later labels are over budget too
+                        break;
+                    }
+                    if (newDur + minDuration[v] > upperBound) {
+                        metrics.incrementCounter("pruned_by_bound");
+                        continue;
+                    }
+                    if (insert(v, newRes, newDur, label) && v == target) {
+                        upperBound = Math.min(upperBound, newDur);
+                    }
+                }
+            }
+        }
+
+        metrics.stopTiming();
+
+        if (bucketSize[target] == 0) {
+            return ConstrainedResult.infeasible();
+        }
+        // Durations decrease along the bucket, so the last label is the fastest
+        int best = bucket[target][bucketSize[target] - 1];
+        List<Integer> path = new ArrayList<>();
+        for (int label = best; label != -1; label = labelPred[label]) {
+            path.add(labelVertex[label]);
+        }
+        Collections.reverse(path);
+        return new ConstrainedResult(true, labelDuration[best], labelResource[best], path);
+    }
+
+    /**
+     * Insert (resource, duration) into v's bucket unless dominated.
+     * @return true if the label was kept
+     */
+    private boolean insert(int v, long resource, long duration, int pred) {
+        int[] labels = bucket[v];
+        int size = bucketSize[v];
+
+        // First position whose resource is at least the new label's
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (labelResource[labels[mid]] < resource) lo = mid + 1; else hi = mid;
+        }
+        // Dominated by a cheaper label, or by the one of equal resource, that is no slower
+        if ((lo > 0 && labelDuration[labels[lo - 1]] <= duration)
+                || (lo < size && labelResource[labels[lo]] == resource && labelDuration[labels[lo]] <= duration)) {
+            metrics.incrementCounter("labels_dominated");
+            return false;
+        }
+
+        // Drop following labels that are now dominated (no less resource, no faster)
+        int end = lo;
+        while (end < size && labelDuration[labels[end]] >= duration) {
+            end++;
+        }
+        int removed = end - lo;
+
+        if (labels == null) {
+            labels = new int[4];
+        } else if (size - removed + 1 > labels.length) {
+            labels = Arrays.copyOf(labels, labels.length * 2);
+        }
+        System.arraycopy(labels, end, labels, lo + 1, size - end);
+        labels[lo] = newLabel(v, resource, duration, pred);
+        bucket[v] = labels;
+        bucketSize[v] = size - removed + 1;
+        return true;
+    }
+
+    private int newLabel(int v, long resource, long duration, int pred) {
+        if (labelCount == labelVertex.length) {
+            int capacity = labelCount * 2;
+            labelResource = Arrays.copyOf(labelResource, capacity);
+            labelDuration = Arrays.copyOf(labelDuration, capacity);
+            labelVertex = Arrays.copyOf(labelVertex, capacity);
+            labelPred = Arrays.copyOf(labelPred, capacity);
+        }
+        int id = labelCount++;
+        labelResource[id] = resource;
+        labelDuration[id] = duration;
+        labelVertex[id] = v;
+        labelPred[id] = pred;
+        metrics.incrementCounter("labels_created");
+        return id;
+    }
+
+    /**
+     * Reference solution by enumerating every source->target path.
+     * Exponential in the worst case; gives up after maxExpansions edge steps
+     * and then returns null.
+     */
+    public ConstrainedResult bruteForce(int source, int target, long budget, long maxExpansions) {
+        int n = graph.getVertexCount();
+        int[] stack = new int[n];
+        int[] nextEdge = new int[n];
+        long[] resource = new long[n];
+        long[] duration = new long[n];
+        long expansions = 0;
+
+        long bestDuration = Long.MAX_VALUE;
+        long bestResource = -1;
+        int[] bestPath = null;
+
+        metrics.reset();
+        metrics.startTiming();
+
+        int depth = 0;
+        stack[0] = source;
+        nextEdge[0] = 0;
+        while (depth >= 0) {
+            int u = stack[depth];
+            if (u == target) {
+                if (resource[depth] <= budget && duration[depth] < bestDuration) {
+                    bestDuration = duration[depth];
+                    bestResource = resource[depth];
+                    bestPath = Arrays.copyOf(stack, depth + 1);
+                }
+                depth--;
+                continue;
+            }
+            if (nextEdge[depth] == graph.getOutDegree(u)) {
+                depth--;
+                continue;
+            }
+            int i = nextEdge[depth]++;
+            if (++expansions > maxExpansions) {
+                metrics.stopTiming();
+                return null;
+            }
+            int v = graph.getEdgeTarget(u, i);
+            stack[depth + 1] = v;
+            nextEdge[depth + 1] = 0;
+            resource[depth + 1] = resource[depth] + graph.getEdgeWeight(u, i, resourceDim);
+            duration[depth + 1] = duration[depth] + graph.getEdgeWeight(u, i, durationDim);
+            depth++;
+        }
+
+        metrics.stopTiming();
+        metrics.incrementCounter("expansions");
+
+        if (bestPath == null) {
+            return ConstrainedResult.infeasible();
+        }
+        List<Integer> path = new ArrayList<>(bestPath.length);
+        for (int v : bestPath) {
+            path.add(v);
+        }
+        return new ConstrainedResult(true, bestDuration, bestResource, path);
+    }
+
+    private int[] topologicalOrder() {
+        int[] order = new TopologicalSort(graph).kahnOrder();
+        if (order.length == 0 && graph.getVertexCount() > 0) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
+        }
+        return order;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,79 @@
+package graph.dagsp;
+
+/**
+ * Aggregation rule for {@link DagDP}, specialized to primitive longs.
+ * A path's value is {@code one()} extended by each of its edges in turn;
+ * values of different paths into a vertex are merged with {@code combine}.
+ * {@code zero()} marks "no path" and must be absorbing under {@code extend}.
+ */
+public interface Semiring {
+
+    long zero();
+
+    long one();
+
+    /**
+     * Merge the values of two alternative paths.
+     */
+    long combine(long a, long b);
+
+    /**
+     * Append an edge of the given weight to a path of the given value.
+     */
+    long extend(long value, int weight);
+
+    /** Shortest distance; zero is Long.MAX_VALUE. */
+    Semiring MIN_PLUS = new Semiring() {
+        public long zero() { return Long.MAX_VALUE; }
+        public long one() { return 0; }
+        public long combine(long a, long b) { return Math.min(a, b); }
+        public long extend(long value, int weight) {
+            return value == Long.MAX_VALUE ? Long.MAX_VALUE : value + weight;
+        }
+    };
+
+    /** Longest distance; zero is Long.MIN_VALUE. */
+    Semiring MAX_PLUS = new Semiring() {
+        public long zero() { return Long.MIN_VALUE; }
+        public long one() { return 0; }
+        public long combine(long a, long b) { return Math.max(a, b); }
+        public long extend(long value, int weight) {
+            return value == Long.MIN_VALUE ? Long.MIN_VALUE : value + weight;
+        }
+    };
+
+    /** Reachability: 1 if some path exists, else 0. */
+    Semiring BOOLEAN = new Semiring() {
+        public long zero() { return 0; }
+        public long one() { return 1; }
+        public long combine(long a, long b) { return a | b; }
+        public long extend(long value, int weight) { return value; }
+    };
+
+    /** Number of distinct paths; throws ArithmeticException on long overflow. */
+    Semiring COUNT_CHECKED = new Semiring() {
+        public long zero() { return 0; }
+        public long one() { return 1; }
+        public long combine(long a, long b) { return Math.addExact(a, b); }
+        public long extend(long value, int weight) { return value; }
+    };
+
+    /**
+     * Number of distinct paths modulo a positive modulus.
+     */
+    static Semiring countMod(long modulus) {
+        if (modulus <= 0) {
+            throw new IllegalArgumentException("Modulus must be positive");
+        }
+        return new Semiring() {
+            public long zero() { return 0; }
+            public long one() { return 1 % modulus; }
+            public long combine(long a, long b) {
+                // a + b may wrap for moduli above 2^62; subtracting the modulus wraps it back
+                long sum = a + b;
+                return sum >= modulus || sum < 0 ? sum - modulus : sum;
+            }
+            public long extend(long value, int weight) { return value; }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package graph.partition;
+
+import common.EdgeCursor;
+import common.GraphStorage;
+import common.Metrics;
+import common.MetricsImpl;
+
+import java.util.Arrays;
+
+/**
+ * Balanced k-way vertex partitioning by label propagation.
+ * Vertices start in contiguous ID blocks (already a good cut after locality
+ * reordering). Each round visits vertices in ID order and moves a vertex to
+ * the partition holding most of its neighbors, ignoring edge directions, as
+ * long as that partition stays within (1 + imbalance) * n / k vertices.
+ * Rounds stop early once fewer than 0.1% of vertices move.
+ */
+public class LabelPropagationPartitioner {
+    public static final int DEFAULT_ROUNDS = 10;
+    public static final double DEFAULT_IMBALANCE = 0.05;
+
+    private final GraphStorage graph;
+    private final int parts;
+    private final int rounds;
+    private final double imbalance;
+    private final Metrics metrics;
+
+    public LabelPropagationPartitioner(GraphStorage graph, int parts) {
+        this(graph, parts, DEFAULT_ROUNDS, DEFAULT_IMBALANCE);
+    }
+
+    public LabelPropagationPartitioner(GraphStorage graph, int parts, int rounds, double imbalance) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("Partition count must be positive: " + parts);
+        }
+        if (imbalance < 0) {
+            throw new IllegalArgumentException("Imbalance must not be negative: " + imbalance);
+        }
+        this.graph = graph;
+        this.parts = parts;
+        this.rounds = rounds;
+        this.imbalance = imbalance;
+        this.metrics = new MetricsImpl();
+    }
+
+    /**
+     * Partition index of every vertex, in 0..parts-1.
+     */
+    public int[] partition() {
+        int n = graph.getVertexCount();
+        metrics.reset();
+        metrics.startTiming();
+
+        int[] partOf = new int[n];
+        int[] size = new int[parts];
+        for (int v = 0; v < n; v++) {
+            partOf[v] = (int) ((long) v * parts / n);
+            size[partOf[v]]++;
+        }
+        if (parts == 1 || n == 0) {
+            metrics.stopTiming();
+            return partOf;
+        }
+
+        // Undirected adjacency as CSR
+        int[] offsets = new int[n + 1];
+        EdgeCursor edges = graph.cursor();
+        for (int u = 0; u < n; u++) {
+            edges.reset(u);
+            while (edges.next()) {
+                offsets[u + 1]++;
+                offsets[edges.target() + 1]++;
+            }
+        }
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        int[] neighbors = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int u = 0; u < n; u++) {
+            edges.reset(u);
+            while (edges.next()) {
+                int v = edges.target();
+                neighbors[fill[u]++] = v;
+                neighbors[fill[v]++] = u;
+            }
+        }
+
+        int capacity = (int) Math.ceil((1 + imbalance) * n / parts);
+        int[] score = new int[parts];
+        int[] touched = new int[parts];
+        for (int round = 0; round < rounds; round++) {
+            int moved = 0;
+            for (int v = 0; v < n; v++) {
+                int count = 0;
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int p = partOf[neighbors[e]];
+                    if (score[p]++ == 0) {
+                        touched[count++] = p;
+                    }
+                }
+                int current = partOf[v];
+                int best = current;
+                for (int k = 0; k < count; k++) {
+                    int p = touched[k];
+                    if (p != current && size[p] < capacity
+                            && (score[p] > score[best] || (score[p] == score[best] && best != current && p < best))) {
+                        best = p;
+                    }
+                }
+                for (int k = 0; k < count; k++) {
+                    score[touched[k]] = 0;
+                }
+                if (best != current) {
+                    size[current]--;
+                    size[best]++;
+                    partOf[v] = best;
+                    moved++;
+                }
+            }
+            metrics.incrementCounter("rounds");
+            if (moved * 1000L < n) break;
+        }
+
+        metrics.stopTiming();
+        return partOf;
+    }
+
+    /**
+     * Number of edges whose endpoints lie in different partitions.
+     */
+    public static long countCutEdges(GraphStorage graph, int[] partOf) {
+        long cut = 0;
+        EdgeCursor edges = graph.cursor();
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            edges.reset(u);
+            while (edges.next()) {
+                if (partOf[edges.target()] != partOf[u]) {
+                    cut++;
+                }
+            }
+        }
+        return cut;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
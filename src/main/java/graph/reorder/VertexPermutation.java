@@ -0,0 +1,270 @@
+package graph.reorder;
+
+import common.CsrGraph;
+import common.GraphStorage;
+import graph.topo.TopologicalSort;
+
+import java.util.Arrays;
+
+/**
+ * Relabeling of vertices to improve memory locality. Export IDs are
+ * arbitrary, so neighbors end up far apart in every per-vertex array;
+ * after relabeling, vertices visited together get nearby IDs and the
+ * permuted graph is laid out contiguously in CSR order.
+ *
+ * Algorithms run on {@link #apply(GraphStorage)} and their per-vertex
+ * results are translated back with {@link #toOriginal(int[])} and
+ * {@link #toOriginalVertices(int[])}.
+ */
+public class VertexPermutation {
+
+    public enum Strategy {
+        /** Reverse Cuthill-McKee: BFS from low-degree vertices, neighbors by increasing degree, reversed. */
+        RCM,
+        /** Descending total degree, so hubs share cache lines. */
+        DEGREE,
+        /** Topological order; DAGs only. */
+        TOPOLOGICAL
+    }
+
+    private final int[] newId;   // newId[original]
+    private final int[] oldId;   // oldId[new]
+
+    /**
+     * @param order order[k] is the original vertex that gets new ID k
+     */
+    public VertexPermutation(int[] order) {
+        int n = order.length;
+        this.oldId = order.clone();
+        this.newId = new int[n];
+        Arrays.fill(newId, -1);
+        for (int k = 0; k < n; k++) {
+            int v = order[k];
+            if (v < 0 || v >= n || newId[v] != -1) {
+                throw new IllegalArgumentException("Order is not a permutation of 0.." + (n - 1));
+            }
+            newId[v] = k;
+        }
+    }
+
+    public static VertexPermutation identity(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        return new VertexPermutation(order);
+    }
+
+    public static VertexPermutation compute(GraphStorage graph, Strategy strategy) {
+        switch (strategy) {
+            case RCM:
+                return reverseCuthillMcKee(graph);
+            case DEGREE:
+                return byDegree(graph);
+            case TOPOLOGICAL:
+                return topological(graph);
+            default:
+                throw new IllegalArgumentException("Unknown strategy " + strategy);
+        }
+    }
+
+    /**
+     * Reverse Cuthill-McKee on the graph with edge directions ignored.
+     */
+    public static VertexPermutation reverseCuthillMcKee(GraphStorage graph) {
+        int n = graph.getVertexCount();
+
+        // Undirected adjacency as CSR
+        int[] degree = new int[n];
+        for (int u = 0; u < n; u++) {
+            int outDegree = graph.getOutDegree(u);
+            degree[u] += outDegree;
+            for (int i = 0; i < outDegree; i++) {
+                degree[graph.getEdgeTarget(u, i)]++;
+            }
+        }
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + degree[u];
+        }
+        int[] neighbors = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int u = 0; u < n; u++) {
+            int outDegree = graph.getOutDegree(u);
+            for (int i = 0; i < outDegree; i++) {
+                int v = graph.getEdgeTarget(u, i);
+                neighbors[fill[u]++] = v;
+                neighbors[fill[v]++] = u;
+            }
+        }
+
+        int[] byDegree = sortByDegree(degree, false);
+        boolean[] visited = new boolean[n];
+        int[] order = new int[n];
+        long[] keys = new long[16];
+        int head = 0, tail = 0;
+
+        for (int start : byDegree) {
+            if (visited[start]) continue;
+            visited[start] = true;
+            order[tail++] = start;
+            while (head < tail) {
+                int u = order[head++];
+                // Unvisited neighbors, enqueued by increasing degree
+                int count = 0;
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = neighbors[e];
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        if (count == keys.length) {
+                            keys = Arrays.copyOf(keys, count * 2);
+                        }
+                        keys[count++] = ((long) degree[v] << 32) | v;
+                    }
+                }
+                Arrays.sort(keys, 0, count);
+                for (int k = 0; k < count; k++) {
+                    order[tail++] = (int) keys[k];
+                }
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return new VertexPermutation(order);
+    }
+
+    /**
+     * Vertices by descending in + out degree, ties by original ID.
+     */
+    public static VertexPermutation byDegree(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        int[] degree = new int[n];
+        for (int u = 0; u < n; u++) {
+            int outDegree = graph.getOutDegree(u);
+            degree[u] += outDegree;
+            for (int i = 0; i < outDegree; i++) {
+                degree[graph.getEdgeTarget(u, i)]++;
+            }
+        }
+        return new VertexPermutation(sortByDegree(degree, true));
+    }
+
+    public static VertexPermutation topological(GraphStorage graph) {
+        int[] order = new TopologicalSort(graph).kahnOrder();
+        if (order.length == 0 && graph.getVertexCount() > 0) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
+        }
+        return new VertexPermutation(order);
+    }
+
+    /**
+     * Counting sort of vertex IDs by degree, stable in ID.
+     */
+    private static int[] sortByDegree(int[] degree, boolean descending) {
+        int n = degree.length;
+        int max = 0;
+        for (int d : degree) {
+            max = Math.max(max, d);
+        }
+        int[] start = new int[max + 2];
+        for (int d : degree) {
+            start[(descending ? max - d : d) + 1]++;
+        }
+        for (int k = 0; k <= max; k++) {
+            start[k + 1] += start[k];
+        }
+        int[] sorted = new int[n];
+        for (int v = 0; v < n; v++) {
+            sorted[start[descending ? max - degree[v] : degree[v]]++] = v;
+        }
+        return sorted;
+    }
+
+    /**
+     * The graph with every vertex v renamed to newId(v), as contiguous heap CSR.
+     * Out-edges keep their relative order.
+     */
+    public CsrGraph apply(GraphStorage graph) {
+        if (graph.getVertexCount() != newId.length) {
+            throw new IllegalArgumentException("Permutation size " + newId.length
+                    + " does not match graph with " + graph.getVertexCount() + " vertices");
+        }
+        return CsrGraph.copyOf(new GraphStorage() {
+            public int getVertexCount() { return graph.getVertexCount(); }
+            public int getEdgeCount() { return graph.getEdgeCount(); }
+            public boolean isDirected() { return graph.isDirected(); }
+            public String getWeightModel() { return graph.getWeightModel(); }
+            public int getNodeWeight(int node) { return graph.getNodeWeight(oldId[node]); }
+            public int getOutDegree(int v) { return graph.getOutDegree(oldId[v]); }
+            public int getEdgeTarget(int v, int index) { return newId[graph.getEdgeTarget(oldId[v], index)]; }
+            public int getEdgeWeight(int v, int index) { return graph.getEdgeWeight(oldId[v], index); }
+        });
+    }
+
+    public int toNew(int original) {
+        return newId[original];
+    }
+
+    public int toOriginal(int relabeled) {
+        return oldId[relabeled];
+    }
+
+    /**
+     * Per-vertex values computed on the permuted graph, indexed by original ID.
+     */
+    public int[] toOriginal(int[] valuesByNewId) {
+        int[] result = new int[valuesByNewId.length];
+        for (int v = 0; v < result.length; v++) {
+            result[v] = valuesByNewId[newId[v]];
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #toOriginal(int[])} for values that are themselves vertex IDs
+     * (parents, orders); negative entries such as -1 are kept.
+     */
+    public int[] toOriginalVertices(int[] vertexIdsByNewId) {
+        int[] result = new int[vertexIdsByNewId.length];
+        for (int v = 0; v < result.length; v++) {
+            int value = vertexIdsByNewId[newId[v]];
+            result[v] = value < 0 ? value : oldId[value];
+        }
+        return result;
+    }
+
+    /**
+     * A list of relabeled vertex IDs (e.g. an order or a path) in original IDs.
+     */
+    public int[] mapSequenceToOriginal(int[] relabeled) {
+        int[] result = new int[relabeled.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = oldId[relabeled[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Mean |newId(u) - newId(v)| over all edges, a proxy for how far apart neighbor data lives.
+     */
+    public static double averageEdgeGap(GraphStorage graph) {
+        long total = 0;
+        long edges = 0;
+        for (int u = 0; u < graph.getVertexCount(); u++) {
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                total += Math.abs(graph.getEdgeTarget(u, i) - u);
+                edges++;
+            }
+        }
+        return edges == 0 ? 0 : (double) total / edges;
+    }
+
+    public int size() {
+        return newId.length;
+    }
+}
@@ -0,0 +1,126 @@
+package graph.scc;
+
+import common.IntListView;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Flat SCC result: members of component c are
+ * members[offsets[c] .. offsets[c + 1]), and componentOf maps each vertex
+ * back to its component. Three int arrays replace a List of boxed lists;
+ * {@link #asLists()} and {@link #members(int)} are views over them.
+ */
+public final class Components {
+    public final int count;
+    public final int[] componentOf;
+    public final int[] offsets;
+    public final int[] members;
+
+    public Components(int count, int[] componentOf, int[] offsets, int[] members) {
+        if (offsets.length != count + 1 || members.length != componentOf.length) {
+            throw new IllegalArgumentException("Offsets must have count + 1 entries and members one per vertex");
+        }
+        this.count = count;
+        this.componentOf = componentOf;
+        this.offsets = offsets;
+        this.members = members;
+    }
+
+    /**
+     * Flatten components given as lists, keeping their order and member order.
+     */
+    public static Components of(List<List<Integer>> components, int vertexCount) {
+        int[] componentOf = new int[vertexCount];
+        int[] offsets = new int[components.size() + 1];
+        int[] members = new int[vertexCount];
+        int pos = 0;
+        for (int c = 0; c < components.size(); c++) {
+            offsets[c] = pos;
+            for (int v : components.get(c)) {
+                members[pos++] = v;
+                componentOf[v] = c;
+            }
+        }
+        offsets[components.size()] = pos;
+        return new Components(components.size(), componentOf, offsets, members);
+    }
+
+    /**
+     * Engine-independent numbering of a labeling: components are numbered in
+     * order of their smallest vertex and list members ascending, so any two
+     * engines that find the same SCCs produce identical Components.
+     */
+    public static Components ordered(int[] componentOf, int count) {
+        int n = componentOf.length;
+        int[] renumber = new int[count];
+        Arrays.fill(renumber, -1);
+        int[] ordered = new int[n];
+        int[] offsets = new int[count + 1];
+        int next = 0;
+        for (int v = 0; v < n; v++) {
+            int c = componentOf[v];
+            if (renumber[c] < 0) {
+                renumber[c] = next++;
+            }
+            ordered[v] = renumber[c];
+            offsets[ordered[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] members = new int[n];
+        int[] cursor = renumber;   // reused as fill position per component
+        System.arraycopy(offsets, 0, cursor, 0, count);
+        for (int v = 0; v < n; v++) {
+            members[cursor[ordered[v]]++] = v;
+        }
+        return new Components(count, ordered, offsets, members);
+    }
+
+    public int size(int c) {
+        return offsets[c + 1] - offsets[c];
+    }
+
+    /**
+     * Size of every component, indexed by component.
+     */
+    public int[] sizes() {
+        int[] sizes = new int[count];
+        for (int c = 0; c < count; c++) {
+            sizes[c] = offsets[c + 1] - offsets[c];
+        }
+        return sizes;
+    }
+
+    /**
+     * Vertices of component c, as a view over members.
+     */
+    public List<Integer> members(int c) {
+        return IntListView.of(members, offsets[c], offsets[c + 1]);
+    }
+
+    /**
+     * All components as a read-only list of member views.
+     */
+    public List<List<Integer>> asLists() {
+        return new ComponentList();
+    }
+
+    private final class ComponentList extends AbstractList<List<Integer>> implements RandomAccess {
+        @Override
+        public List<Integer> get(int c) {
+            if (c < 0 || c >= count) {
+                throw new IndexOutOfBoundsException("Component " + c + " out of bounds for count " + count);
+            }
+            return members(c);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
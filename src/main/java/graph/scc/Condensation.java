@@ -0,0 +1,58 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.Graph;
+import common.GraphStorage;
+
+import java.util.Arrays;
+
+/**
+ * Condensation DAG of a graph given its component labeling, shared by every
+ * SCC engine so the same labeling always yields the same DAG. Each component
+ * pair keeps the weight of its first original edge, scanning source vertices
+ * ascending and each adjacency in storage order; a component's out-edges
+ * appear in that discovery order. Node weights are component sizes.
+ */
+public final class Condensation {
+
+    private Condensation() {
+    }
+
+    public static Graph build(GraphStorage graph, int[] componentOf, int count) {
+        int n = graph.getVertexCount();
+
+        // Bucket vertices by component, ascending within each bucket
+        int[] offsets = new int[count + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[componentOf[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] members = new int[n];
+        int[] cursor = new int[count];
+        System.arraycopy(offsets, 0, cursor, 0, count);
+        for (int v = 0; v < n; v++) {
+            members[cursor[componentOf[v]]++] = v;
+        }
+
+        Graph condensation = new Graph(count, true, graph.getWeightModel());
+        int[] lastSource = cursor;   // reused: last source component that linked to each target
+        Arrays.fill(lastSource, -1);
+        EdgeCursor edges = graph.cursor();
+        for (int cu = 0; cu < count; cu++) {
+            for (int i = offsets[cu]; i < offsets[cu + 1]; i++) {
+                edges.reset(members[i]);
+                while (edges.next()) {
+                    int cv = componentOf[edges.target()];
+                    if (cv != cu && lastSource[cv] != cu) {
+                        lastSource[cv] = cu;
+                        condensation.addEdge(cu, cv, edges.weight());
+                    }
+                }
+            }
+            condensation.setNodeWeight(cu, offsets[cu + 1] - offsets[cu]);
+        }
+        return condensation;
+    }
+}
@@ -0,0 +1,36 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.GraphStorage;
+
+import java.util.Arrays;
+
+/**
+ * One edge cursor per DFS depth, kept across runs on the same graph.
+ */
+final class CursorPool {
+    private GraphStorage graph;
+    private EdgeCursor[] cursors = new EdgeCursor[16];
+
+    void use(GraphStorage graph) {
+        if (this.graph != graph) {
+            this.graph = graph;
+            Arrays.fill(cursors, null);
+        }
+    }
+
+    EdgeCursor at(int depth, int vertex) {
+        if (depth == cursors.length) {
+            cursors = Arrays.copyOf(cursors, depth * 2);
+        }
+        if (cursors[depth] == null) {
+            cursors[depth] = graph.cursor();
+        }
+        cursors[depth].reset(vertex);
+        return cursors[depth];
+    }
+
+    EdgeCursor at(int depth) {
+        return cursors[depth];
+    }
+}
@@ -0,0 +1,93 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.GraphStorage;
+
+import java.util.Arrays;
+
+/**
+ * Gabow's path-based algorithm. Instead of low-links it keeps a second
+ * stack of path boundaries: an edge to a vertex that is still unassigned
+ * merges every boundary discovered after it, and a vertex that is still the
+ * top boundary when it finishes closes a component. One preorder array and
+ * two stacks, with no per-vertex low values to update.
+ */
+public class GabowSCC implements SccAlgorithm {
+    private final CursorPool cursors = new CursorPool();
+    private int[] preorder = new int[0];
+    private int[] vertexStack = new int[0];
+    private int[] boundaries = new int[0];
+    private int[] call = new int[0];
+
+    @Override
+    public int computeComponents(GraphStorage graph, int[] componentOf) {
+        int n = graph.getVertexCount();
+        EngineEvent event = EngineEvent.begin(getName(), graph);
+        if (preorder.length < n) {
+            preorder = new int[n];
+            vertexStack = new int[n];
+            boundaries = new int[n];
+            call = new int[n];
+        }
+        Arrays.fill(preorder, 0, n, -1);
+        Arrays.fill(componentOf, 0, n, -1);
+        cursors.use(graph);
+
+        int time = 0;
+        int sp = 0;
+        int bp = 0;
+        int count = 0;
+        for (int root = 0; root < n; root++) {
+            if (preorder[root] != -1) continue;
+            preorder[root] = time++;
+            vertexStack[sp++] = root;
+            boundaries[bp++] = root;
+            call[0] = root;
+            cursors.at(0, root);
+            int depth = 1;
+
+            while (depth > 0) {
+                int u = call[depth - 1];
+                EdgeCursor edges = cursors.at(depth - 1);
+                boolean descended = false;
+                while (edges.next()) {
+                    int v = edges.target();
+                    if (preorder[v] == -1) {
+                        preorder[v] = time++;
+                        vertexStack[sp++] = v;
+                        boundaries[bp++] = v;
+                        call[depth] = v;
+                        cursors.at(depth++, v);
+                        descended = true;
+                        break;
+                    } else if (componentOf[v] == -1) {
+                        // v is on the current path's stack: collapse the cycle through it
+                        while (preorder[boundaries[bp - 1]] > preorder[v]) {
+                            bp--;
+                        }
+                    }
+                }
+                if (descended) continue;
+
+                if (boundaries[bp - 1] == u) {
+                    bp--;
+                    int v;
+                    do {
+                        v = vertexStack[--sp];
+                        componentOf[v] = count;
+                    } while (v != u);
+                    count++;
+                }
+                depth--;
+            }
+        }
+        event.endFullScan(1, count);
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return "Gabow";
+    }
+}
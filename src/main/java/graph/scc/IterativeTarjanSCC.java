@@ -0,0 +1,88 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.GraphStorage;
+
+import java.util.Arrays;
+
+/**
+ * Tarjan's algorithm with an explicit call stack instead of recursion, so
+ * depth is bounded by memory rather than the thread stack. A vertex that
+ * has a discovery index but no component yet is on the Tarjan stack, which
+ * replaces the onStack flags.
+ */
+public class IterativeTarjanSCC implements SccAlgorithm {
+    private final CursorPool cursors = new CursorPool();
+    private int[] index = new int[0];
+    private int[] low = new int[0];
+    private int[] stack = new int[0];
+    private int[] call = new int[0];
+
+    @Override
+    public int computeComponents(GraphStorage graph, int[] componentOf) {
+        int n = graph.getVertexCount();
+        EngineEvent event = EngineEvent.begin(getName(), graph);
+        if (index.length < n) {
+            index = new int[n];
+            low = new int[n];
+            stack = new int[n];
+            call = new int[n];
+        }
+        Arrays.fill(index, 0, n, -1);
+        Arrays.fill(componentOf, 0, n, -1);
+        cursors.use(graph);
+
+        int time = 0;
+        int sp = 0;
+        int count = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) continue;
+            index[root] = low[root] = time++;
+            stack[sp++] = root;
+            call[0] = root;
+            cursors.at(0, root);
+            int depth = 1;
+
+            while (depth > 0) {
+                int u = call[depth - 1];
+                EdgeCursor edges = cursors.at(depth - 1);
+                boolean descended = false;
+                while (edges.next()) {
+                    int v = edges.target();
+                    if (index[v] == -1) {
+                        index[v] = low[v] = time++;
+                        stack[sp++] = v;
+                        call[depth] = v;
+                        cursors.at(depth++, v);
+                        descended = true;
+                        break;
+                    } else if (componentOf[v] == -1) {
+                        low[u] = Math.min(low[u], index[v]);
+                    }
+                }
+                if (descended) continue;
+
+                if (low[u] == index[u]) {
+                    int v;
+                    do {
+                        v = stack[--sp];
+                        componentOf[v] = count;
+                    } while (v != u);
+                    count++;
+                }
+                if (--depth > 0) {
+                    int parent = call[depth - 1];
+                    low[parent] = Math.min(low[parent], low[u]);
+                }
+            }
+        }
+        event.endFullScan(1, count);
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return "IterativeTarjan";
+    }
+}
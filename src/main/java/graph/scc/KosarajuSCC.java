@@ -0,0 +1,99 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.GraphStorage;
+import common.ReverseAdjacency;
+
+import java.util.Arrays;
+
+/**
+ * Kosaraju's two-pass algorithm. The first pass records DFS finishing
+ * order on the graph, and the second pass labels the trees of the reverse
+ * graph ({@link GraphStorage#reverse()}, cached on the graph) in decreasing
+ * finishing time.
+ * Those trees come out sources first, so labels are flipped at the end to
+ * number components sinks first.
+ */
+public class KosarajuSCC implements SccAlgorithm {
+    private final CursorPool cursors = new CursorPool();
+    private boolean[] visited = new boolean[0];
+    private int[] finished = new int[0];
+    private int[] call = new int[0];
+
+    @Override
+    public int computeComponents(GraphStorage graph, int[] componentOf) {
+        int n = graph.getVertexCount();
+        EngineEvent event = EngineEvent.begin(getName(), graph);
+        if (visited.length < n) {
+            visited = new boolean[n];
+            finished = new int[n];
+            call = new int[n];
+        }
+        cursors.use(graph);
+        ReverseAdjacency reverse = graph.reverse();
+        int[] reverseOffsets = reverse.offsets;
+        int[] reverseSources = reverse.sources;
+
+        // Pass 1: finishing order on the forward graph
+        Arrays.fill(visited, 0, n, false);
+        int finishedCount = 0;
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) continue;
+            visited[root] = true;
+            call[0] = root;
+            cursors.at(0, root);
+            int depth = 1;
+            while (depth > 0) {
+                EdgeCursor edges = cursors.at(depth - 1);
+                boolean descended = false;
+                while (edges.next()) {
+                    int v = edges.target();
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        call[depth] = v;
+                        cursors.at(depth++, v);
+                        descended = true;
+                        break;
+                    }
+                }
+                if (!descended) {
+                    finished[finishedCount++] = call[--depth];
+                }
+            }
+        }
+
+        // Pass 2: trees of the reverse graph; order within a tree does not matter
+        Arrays.fill(componentOf, 0, n, -1);
+        int count = 0;
+        for (int k = n - 1; k >= 0; k--) {
+            int root = finished[k];
+            if (componentOf[root] != -1) continue;
+            componentOf[root] = count;
+            int sp = 0;
+            call[sp++] = root;
+            while (sp > 0) {
+                int u = call[--sp];
+                for (int e = reverseOffsets[u]; e < reverseOffsets[u + 1]; e++) {
+                    int v = reverseSources[e];
+                    if (componentOf[v] == -1) {
+                        componentOf[v] = count;
+                        call[sp++] = v;
+                    }
+                }
+            }
+            count++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            componentOf[v] = count - 1 - componentOf[v];
+        }
+        event.endFullScan(2, count);
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return "Kosaraju";
+    }
+}
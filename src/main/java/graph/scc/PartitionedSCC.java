@@ -0,0 +1,390 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.Graph;
+import common.GraphStorage;
+import common.Metrics;
+import common.MetricsImpl;
+import graph.partition.LabelPropagationPartitioner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SCCs computed per partition in parallel, then merged across partitions.
+ *
+ * 1. Each partition runs an iterative Tarjan over its own vertices and
+ *    intra-partition edges only, and collects its cut edges.
+ * 2. A local component can only join a cross-partition cycle if it is
+ *    reachable from a cut edge's head and reaches a cut edge's tail inside
+ *    its partition. Each partition marks these boundary components in
+ *    parallel.
+ * 3. Boundary components, the cut edges between them and the local edges
+ *    between them form the boundary graph. Sequential Gabow on it yields
+ *    the cross-partition merges; every other local component is final.
+ *    Boundary components can chain through every partition, so this step
+ *    must be iterative as well.
+ *
+ * Final components are numbered by their smallest vertex, and members are
+ * listed in ascending order.
+ */
+public class PartitionedSCC {
+    private final GraphStorage graph;
+    private final int[] partOf;
+    private final int partitions;
+    private final int threads;
+    private final Metrics metrics;
+
+    private int[] sccId;
+    private int sccCount;
+    private List<List<Integer>> sccs;
+
+    /**
+     * Label-propagation partitioning into one partition per thread.
+     */
+    public PartitionedSCC(GraphStorage graph, int threads) {
+        this(graph, new LabelPropagationPartitioner(graph, threads).partition(), threads);
+    }
+
+    /**
+     * @param partOf partition index of every vertex, 0-based
+     */
+    public PartitionedSCC(GraphStorage graph, int[] partOf, int threads) {
+        if (partOf.length != graph.getVertexCount()) {
+            throw new IllegalArgumentException("Partition array must cover all " + graph.getVertexCount() + " vertices");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        int max = -1;
+        for (int p : partOf) {
+            if (p < 0) {
+                throw new IllegalArgumentException("Negative partition index " + p);
+            }
+            max = Math.max(max, p);
+        }
+        this.graph = graph;
+        this.partOf = partOf;
+        this.partitions = max + 1;
+        this.threads = threads;
+        this.metrics = new MetricsImpl();
+    }
+
+    /**
+     * Local state of one partition; vertex-indexed arrays are shared but
+     * each partition only touches its own vertices.
+     */
+    private final class Partition {
+        final int id;
+        final int[] members;
+        int compCount;
+        int compBase;
+        int[] compVertices;      // members grouped by local component, in completion order
+        int[] compStart;
+        boolean[] reachesOut;    // local component reaches a cut edge
+        boolean[] boundary;
+        int[] cutEdges = new int[16];
+        int cutCount;
+        int[] localEdges = new int[16];   // boundary component pairs, local indices
+        int localCount;
+
+        Partition(int id, int[] members) {
+            this.id = id;
+            this.members = members;
+        }
+
+        /**
+         * Iterative Tarjan restricted to this partition.
+         */
+        void findLocalComponents(int[] disc, int[] low, int[] comp, boolean[] vertexOut) {
+            int size = members.length;
+            compVertices = new int[size];
+            compStart = new int[size + 1];
+            reachesOut = new boolean[size];
+            int[] stack = new int[size];
+            int sp = 0;
+            int[] call = new int[size];
+            EdgeCursor[] cursors = new EdgeCursor[Math.min(size, 16)];
+            int time = 0;
+            int filled = 0;
+
+            for (int root : members) {
+                if (disc[root] != -1) continue;
+                int depth = 0;
+                disc[root] = low[root] = time++;
+                stack[sp++] = root;
+                call[depth] = root;
+                cursors = cursorAt(cursors, depth);
+                cursors[depth++].reset(root);
+
+                while (depth > 0) {
+                    int u = call[depth - 1];
+                    EdgeCursor edges = cursors[depth - 1];
+                    boolean descended = false;
+                    while (edges.next()) {
+                        int v = edges.target();
+                        if (partOf[v] != id) {
+                            addCutEdge(u, v);
+                            vertexOut[u] = true;
+                        } else if (disc[v] == -1) {
+                            disc[v] = low[v] = time++;
+                            stack[sp++] = v;
+                            call[depth] = v;
+                            cursors = cursorAt(cursors, depth);
+                            cursors[depth++].reset(v);
+                            descended = true;
+                            break;
+                        } else if (comp[v] == -1) {
+                            low[u] = Math.min(low[u], disc[v]);
+                        } else if (reachesOut[comp[v]]) {
+                            vertexOut[u] = true;
+                        }
+                    }
+                    if (descended) continue;
+
+                    if (low[u] == disc[u]) {
+                        int c = compCount++;
+                        compStart[c] = filled;
+                        boolean out = false;
+                        int v;
+                        do {
+                            v = stack[--sp];
+                            comp[v] = c;
+                            out |= vertexOut[v];
+                            compVertices[filled++] = v;
+                        } while (v != u);
+                        reachesOut[c] = out;
+                    }
+                    depth--;
+                    if (depth > 0) {
+                        int parent = call[depth - 1];
+                        low[parent] = Math.min(low[parent], low[u]);
+                        if (comp[u] != -1 ? reachesOut[comp[u]] : vertexOut[u]) {
+                            vertexOut[parent] = true;
+                        }
+                    }
+                }
+            }
+            compStart[compCount] = filled;
+        }
+
+        private EdgeCursor[] cursorAt(EdgeCursor[] cursors, int level) {
+            if (level == cursors.length) {
+                cursors = Arrays.copyOf(cursors, level * 2);
+            }
+            if (cursors[level] == null) {
+                cursors[level] = graph.cursor();
+            }
+            return cursors;
+        }
+
+        private void addCutEdge(int u, int v) {
+            if (cutCount + 2 > cutEdges.length) {
+                cutEdges = Arrays.copyOf(cutEdges, cutEdges.length * 2);
+            }
+            cutEdges[cutCount++] = u;
+            cutEdges[cutCount++] = v;
+        }
+
+        /**
+         * Local components in topological order (reverse completion order):
+         * mark those reachable from a cut edge head, keep the ones that also
+         * reach a cut edge tail, and collect local edges between them.
+         */
+        void markBoundary(int[] comp, boolean[] cutHead) {
+            boolean[] reachedIn = new boolean[compCount];
+            boundary = new boolean[compCount];
+            EdgeCursor edges = graph.cursor();
+            for (int c = compCount - 1; c >= 0; c--) {
+                for (int i = compStart[c]; i < compStart[c + 1] && !reachedIn[c]; i++) {
+                    reachedIn[c] = cutHead[compVertices[i]];
+                }
+                if (!reachedIn[c]) continue;
+                boundary[c] = reachesOut[c];
+                for (int i = compStart[c]; i < compStart[c + 1]; i++) {
+                    edges.reset(compVertices[i]);
+                    while (edges.next()) {
+                        int v = edges.target();
+                        if (partOf[v] != id || comp[v] == c) continue;
+                        int d = comp[v];
+                        reachedIn[d] = true;
+                        if (boundary[c] && reachesOut[d]) {
+                            if (localCount + 2 > localEdges.length) {
+                                localEdges = Arrays.copyOf(localEdges, localEdges.length * 2);
+                            }
+                            localEdges[localCount++] = c;
+                            localEdges[localCount++] = d;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public List<List<Integer>> findSCCs() {
+        int n = graph.getVertexCount();
+        metrics.reset();
+        EngineEvent event = EngineEvent.begin("Partitioned", graph);
+        metrics.startTiming();
+
+        // Vertices grouped by partition, ascending within each
+        int[] start = new int[partitions + 1];
+        for (int p : partOf) {
+            start[p + 1]++;
+        }
+        for (int p = 0; p < partitions; p++) {
+            start[p + 1] += start[p];
+        }
+        int[] grouped = new int[n];
+        int[] fill = Arrays.copyOf(start, partitions);
+        for (int v = 0; v < n; v++) {
+            grouped[fill[partOf[v]]++] = v;
+        }
+        List<Partition> parts = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            parts.add(new Partition(p, Arrays.copyOfRange(grouped, start[p], start[p + 1])));
+        }
+
+        // Phase 1: local components
+        int[] disc = new int[n];
+        int[] low = new int[n];
+        int[] comp = new int[n];
+        boolean[] vertexOut = new boolean[n];
+        Arrays.fill(disc, -1);
+        Arrays.fill(comp, -1);
+        runAll(parts, part -> part.findLocalComponents(disc, low, comp, vertexOut));
+
+        boolean[] cutHead = new boolean[n];
+        int totalComps = 0;
+        long cutEdges = 0;
+        for (Partition part : parts) {
+            part.compBase = totalComps;
+            totalComps += part.compCount;
+            cutEdges += part.cutCount / 2;
+            for (int i = 1; i < part.cutCount; i += 2) {
+                cutHead[part.cutEdges[i]] = true;
+            }
+        }
+        metrics.incrementCounter("local_components", totalComps);
+        metrics.incrementCounter("cut_edges", cutEdges);
+
+        // Phase 2: boundary components
+        runAll(parts, part -> part.markBoundary(comp, cutHead));
+
+        // Phase 3: cross-partition cycles on the boundary graph
+        int[] boundaryId = new int[totalComps];
+        Arrays.fill(boundaryId, -1);
+        int boundaryCount = 0;
+        for (Partition part : parts) {
+            for (int c = 0; c < part.compCount; c++) {
+                if (part.boundary[c]) {
+                    boundaryId[part.compBase + c] = boundaryCount++;
+                }
+            }
+        }
+        Graph boundaryGraph = new Graph(boundaryCount, true, "edge");
+        for (Partition part : parts) {
+            for (int i = 0; i < part.cutCount; i += 2) {
+                int u = part.cutEdges[i];
+                int v = part.cutEdges[i + 1];
+                int from = boundaryId[parts.get(partOf[u]).compBase + comp[u]];
+                int to = boundaryId[parts.get(partOf[v]).compBase + comp[v]];
+                if (from >= 0 && to >= 0) {
+                    boundaryGraph.addEdge(from, to, 1);
+                }
+            }
+            for (int i = 0; i < part.localCount; i += 2) {
+                boundaryGraph.addEdge(boundaryId[part.compBase + part.localEdges[i]],
+                        boundaryId[part.compBase + part.localEdges[i + 1]], 1);
+            }
+        }
+        metrics.incrementCounter("boundary_vertices", boundaryCount);
+        metrics.incrementCounter("boundary_edges", boundaryGraph.getEdgeCount());
+        int[] boundaryScc = new int[boundaryCount];
+        int boundarySccCount = new GabowSCC().computeComponents(boundaryGraph, boundaryScc);
+
+        // Merge: a boundary component maps to its boundary SCC, others to themselves
+        int[] group = new int[totalComps];
+        for (int g = 0; g < totalComps; g++) {
+            group[g] = boundaryId[g] >= 0 ? totalComps + boundaryScc[boundaryId[g]] : g;
+        }
+        int[] finalId = new int[totalComps + boundarySccCount];
+        Arrays.fill(finalId, -1);
+        sccId = new int[n];
+        sccs = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            int key = group[parts.get(partOf[v]).compBase + comp[v]];
+            if (finalId[key] == -1) {
+                finalId[key] = sccs.size();
+                sccs.add(new ArrayList<>());
+            }
+            sccId[v] = finalId[key];
+            sccs.get(sccId[v]).add(v);
+        }
+        sccCount = sccs.size();
+
+        metrics.stopTiming();
+        event.endFullScan(1, sccCount);
+        return sccs;
+    }
+
+    private interface PartitionTask {
+        void run(Partition part);
+    }
+
+    private void runAll(List<Partition> parts, PartitionTask task) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, parts.size())));
+        try {
+            List<Callable<Void>> calls = new ArrayList<>();
+            for (Partition part : parts) {
+                calls.add(() -> {
+                    task.run(part);
+                    return null;
+                });
+            }
+            for (Future<Void> done : pool.invokeAll(calls)) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing partition components", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public int getSccId(int vertex) {
+        return sccId[vertex];
+    }
+
+    public int getSccCount() {
+        return sccCount;
+    }
+
+    public int getPartitionCount() {
+        return partitions;
+    }
+
+    /**
+     * Condensation DAG of the last run, see {@link Condensation#build}.
+     */
+    public Graph buildCondensation() {
+        return Condensation.build(graph, sccId, sccCount);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,23 @@
+package graph.scc;
+
+import common.GraphStorage;
+
+/**
+ * Strongly connected components as a primitive labeling.
+ * Implementations number components sinks first (reverse topological
+ * order of the condensation), like {@link TarjanSCC}, and keep their
+ * scratch arrays between calls, so repeated runs on graphs of similar
+ * size do not allocate. Instances are not thread-safe.
+ */
+public interface SccAlgorithm {
+
+    /**
+     * Label every vertex of graph with its component.
+     *
+     * @param componentOf output array with at least graph.getVertexCount() entries
+     * @return number of components
+     */
+    int computeComponents(GraphStorage graph, int[] componentOf);
+
+    String getName();
+}
@@ -1,99 +1,150 @@
 package graph.scc;
 
+import common.EdgeCursor;
+import common.EngineEvent;
 import common.Graph;
+import common.GraphStorage;
 import common.Metrics;
 import common.MetricsImpl;
+import common.Workspace;
 
 import java.util.*;
 
 
 public class TarjanSCC {
-    private final Graph graph;
+    private final GraphStorage graph;
     private final Metrics metrics;
     
     private int time;
-    private int[] disc;      
-    private int[] low;       
-    private boolean[] onStack;
-    private Stack<Integer> stack;
-    private List<List<Integer>> sccs;
+    private Components components;
     private int[] sccId;     
     private int sccCount;
-
-    public TarjanSCC(Graph graph) {
+    private int[] offsets;   // component starts in members, filled as components complete
+    private int[] members;
+    private int memberCount;
+    private EdgeCursor[] cursors;   // one per recursion depth
+    private int depth;
+
+    // Counters of the current run, added to metrics once at the end so the DFS does not box per edge
+    private long visits;
+    private long explored;
+    private long pops;
+
+    // Workspace scratch, held only during findSCCs
+    private int[] disc;
+    private int[] low;
+    private int[] stack;
+    private int stackSize;
+    private Workspace.Marks visited;
+    private Workspace.Marks done;   // visited and not done means on the stack
+
+    public TarjanSCC(GraphStorage graph) {
         this.graph = graph;
         this.metrics = new MetricsImpl();
     }
 
     
     public List<List<Integer>> findSCCs() {
+        return findComponents().asLists();
+    }
+
+    /**
+     * Find SCCs into flat arrays; {@link #findSCCs()} is a list view of the same result.
+     */
+    public Components findComponents() {
         int n = graph.getVertexCount();
         time = 0;
         sccCount = 0;
-        disc = new int[n];
-        low = new int[n];
-        onStack = new boolean[n];
-        stack = new Stack<>();
-        sccs = new ArrayList<>();
+        Workspace workspace = Workspace.current();
+        disc = workspace.ints(Workspace.Slot.SCC_DISC, n);
+        low = workspace.ints(Workspace.Slot.SCC_LOW, n);
+        stack = workspace.ints(Workspace.Slot.SCC_STACK, n);
+        stackSize = 0;
+        visited = workspace.marks(Workspace.MarkSlot.SCC_VISITED, n);
+        done = workspace.marks(Workspace.MarkSlot.SCC_DONE, n);
         sccId = new int[n];
-        
-        Arrays.fill(disc, -1);
-        Arrays.fill(sccId, -1);
+        offsets = new int[n + 1];
+        members = new int[n];
+        memberCount = 0;
+        cursors = new EdgeCursor[16];
+        depth = 0;
+        visits = explored = pops = 0;
+        EngineEvent event = EngineEvent.begin("Tarjan", graph);
 
         metrics.startTiming();
 
         // Run DFS from all unvisited vertices
         for (int i = 0; i < n; i++) {
-            if (disc[i] == -1) {
+            if (!visited.contains(i)) {
                 dfs(i);
             }
         }
 
         metrics.stopTiming();
-
-        return sccs;
+        metrics.incrementCounter("DFS_visits", visits);
+        metrics.incrementCounter("edges_explored", explored);
+        metrics.incrementCounter("stack_pops", pops);
+        event.end(explored, sccCount);
+
+        offsets[sccCount] = memberCount;
+        components = new Components(sccCount, sccId, Arrays.copyOf(offsets, sccCount + 1), members);
+        disc = low = stack = offsets = members = null;
+        visited = done = null;
+        return components;
     }
 
     
     private void dfs(int u) {
         disc[u] = low[u] = time++;
-        stack.push(u);
-        onStack[u] = true;
+        visited.add(u);
+        stack[stackSize++] = u;
         
-        metrics.incrementCounter("DFS_visits");
+        visits++;
 
        
-        for (Graph.Edge edge : graph.getAdjacent(u)) {
-            int v = edge.to;
-            metrics.incrementCounter("edges_explored");
+        EdgeCursor edges = cursorAt(depth++);
+        edges.reset(u);
+        while (edges.next()) {
+            int v = edges.target();
+            explored++;
 
-            if (disc[v] == -1) {
+            if (!visited.contains(v)) {
                
                 dfs(v);
                 low[u] = Math.min(low[u], low[v]);
-            } else if (onStack[v]) {
+            } else if (!done.contains(v)) {
                 
                 low[u] = Math.min(low[u], disc[v]);
             }
         }
+        depth--;
 
        
         if (low[u] == disc[u]) {
-            List<Integer> scc = new ArrayList<>();
+            offsets[sccCount] = memberCount;
             int v;
             do {
-                v = stack.pop();
-                onStack[v] = false;
-                scc.add(v);
+                v = stack[--stackSize];
+                done.add(v);
+                members[memberCount++] = v;
                 sccId[v] = sccCount;
-                metrics.incrementCounter("stack_pops");
+                pops++;
             } while (v != u);
             
-            sccs.add(scc);
             sccCount++;
         }
     }
 
+    private EdgeCursor cursorAt(int level) {
+        if (level == cursors.length) {
+            cursors = Arrays.copyOf(cursors, level * 2);
+        }
+        if (cursors[level] == null) {
+            cursors[level] = graph.cursor();
+        }
+        return cursors[level];
+    }
+
     
     public int getSccId(int vertex) {
         return sccId[vertex];
@@ -104,37 +155,11 @@ public class TarjanSCC {
         return sccCount;
     }
 
-    
+    /**
+     * Condensation DAG of the last run, see {@link Condensation#build}.
+     */
     public Graph buildCondensation() {
-        Graph condensation = new Graph(sccCount, true, graph.getWeightModel());
-        
-        Set<String> addedEdges = new HashSet<>();
-        
-        // For each edge in original graph
-        for (int u = 0; u < graph.getVertexCount(); u++) {
-            int sccU = sccId[u];
-            
-            for (Graph.Edge edge : graph.getAdjacent(u)) {
-                int v = edge.to;
-                int sccV = sccId[v];
-                
-                // Add edge between different SCCs (avoid duplicates)
-                if (sccU != sccV) {
-                    String edgeKey = sccU + "->" + sccV;
-                    if (!addedEdges.contains(edgeKey)) {
-                        condensation.addEdge(sccU, sccV, edge.weight);
-                        addedEdges.add(edgeKey);
-                    }
-                }
-            }
-        }
-        
-        // Set node weights for condensation based on SCC sizes
-        for (int i = 0; i < sccCount; i++) {
-            condensation.setNodeWeight(i, sccs.get(i).size());
-        }
-        
-        return condensation;
+        return Condensation.build(graph, sccId, sccCount);
     }
 
     /**
@@ -145,14 +170,10 @@ public class TarjanSCC {
     }
 
     /**
-     * Get SCCs with their sizes.
+     * Size of each SCC, indexed by component.
      */
-    public Map<Integer, Integer> getSccSizes() {
-        Map<Integer, Integer> sizes = new HashMap<>();
-        for (int i = 0; i < sccs.size(); i++) {
-            sizes.put(i, sccs.get(i).size());
-        }
-        return sizes;
+    public int[] getSccSizes() {
+        return components.sizes();
     }
 
     
@@ -160,12 +181,12 @@ public class TarjanSCC {
         System.out.println("\n=== Strongly Connected Components ===");
         System.out.println("Total SCCs found: " + sccCount);
         
-        for (int i = 0; i < sccs.size(); i++) {
-            List<Integer> scc = sccs.get(i);
+        for (int i = 0; i < sccCount; i++) {
+            List<Integer> scc = components.members(i);
             System.out.printf("SCC %d (size %d): %s%n", i, scc.size(), scc);
         }
         
-        System.out.println("\nSCC Sizes: " + getSccSizes());
+        System.out.println("\nSCC Sizes: " + Arrays.toString(getSccSizes()));
         System.out.println("\nMetrics:");
         System.out.println(metrics.getSummary());
     }
@@ -0,0 +1,268 @@
+package graph.scc;
+
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.GraphStorage;
+import common.Metrics;
+import common.MetricsImpl;
+import common.ReverseAdjacency;
+
+import java.util.Arrays;
+
+/**
+ * Trim-first SCC: repeatedly peels vertices with no remaining in-edges or
+ * no remaining out-edges, which are singleton components, and runs the
+ * wrapped engine only on the core that is left. On DAG-like inputs the core
+ * is empty and no DFS runs at all.
+ *
+ * Numbering stays sinks first: peeled sinks take the lowest IDs in the
+ * order they were removed, the core's components follow, and peeled
+ * sources take the highest IDs counting down.
+ */
+public class TrimmedSCC implements SccAlgorithm {
+    private final SccAlgorithm coreAlgorithm;
+    private final Metrics metrics = new MetricsImpl();
+    private final CoreGraph core = new CoreGraph();
+
+    private int[] inDegree = new int[0];
+    private int[] outDegree = new int[0];
+    private int[] worklist = new int[0];
+    private int[] coreIndex = new int[0];
+    private int[] coreComponent = new int[0];
+    private EdgeCursor edges;
+    private GraphStorage cursorGraph;
+
+    public TrimmedSCC() {
+        this(new GabowSCC());
+    }
+
+    public TrimmedSCC(SccAlgorithm coreAlgorithm) {
+        this.coreAlgorithm = coreAlgorithm;
+    }
+
+    @Override
+    public int computeComponents(GraphStorage graph, int[] componentOf) {
+        int n = graph.getVertexCount();
+        EngineEvent event = EngineEvent.begin(getName(), graph);
+        if (inDegree.length < n) {
+            inDegree = new int[n];
+            outDegree = new int[n];
+            worklist = new int[n];
+            coreIndex = new int[n];
+        }
+        if (cursorGraph != graph) {
+            cursorGraph = graph;
+            edges = graph.cursor();
+        }
+        metrics.reset();
+        metrics.startTiming();
+
+        // Degrees are consumed by the peeling, so work on copies of the shared ones
+        ReverseAdjacency reverse = graph.reverse();
+        int[] reverseOffsets = reverse.offsets;
+        int[] reverseSources = reverse.sources;
+        System.arraycopy(reverse.inDegree, 0, inDegree, 0, n);
+        System.arraycopy(reverse.outDegree, 0, outDegree, 0, n);
+        Arrays.fill(componentOf, 0, n, -1);
+
+        // Seed the worklist with every vertex that is already a source or a sink
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0 || outDegree[v] == 0) {
+                worklist[tail++] = v;
+                componentOf[v] = -2;
+            }
+        }
+
+        int sinks = 0;
+        int sources = 0;
+        while (head < tail) {
+            int v = worklist[head++];
+            if (outDegree[v] == 0) {
+                componentOf[v] = sinks++;
+                for (int e = reverseOffsets[v]; e < reverseOffsets[v + 1]; e++) {
+                    int u = reverseSources[e];
+                    if (--outDegree[u] == 0 && componentOf[u] == -1) {
+                        worklist[tail++] = u;
+                        componentOf[u] = -2;
+                    }
+                }
+            } else {
+                componentOf[v] = n - 1 - sources++;
+                edges.reset(v);
+                while (edges.next()) {
+                    int w = edges.target();
+                    if (--inDegree[w] == 0 && componentOf[w] == -1) {
+                        worklist[tail++] = w;
+                        componentOf[w] = -2;
+                    }
+                }
+            }
+        }
+
+        int coreCount = 0;
+        int coreVertices = n - tail;
+        int coreEdges = 0;
+        if (tail == 0) {
+            // Nothing peeled: the core is the whole graph, so skip the copy
+            coreCount = coreAlgorithm.computeComponents(graph, componentOf);
+            coreEdges = reverse.getEdgeCount();
+        } else if (coreVertices > 0) {
+            buildCore(n, coreVertices, componentOf);
+            if (coreComponent.length < coreVertices) {
+                coreComponent = new int[coreVertices];
+            }
+            coreCount = coreAlgorithm.computeComponents(core, coreComponent);
+            coreEdges = core.edgeCount;
+        }
+
+        int count = sinks + coreCount + sources;
+        for (int v = 0; v < n && tail > 0; v++) {
+            int c = componentOf[v];
+            if (c == -1) {
+                componentOf[v] = sinks + coreComponent[coreIndex[v]];
+            } else if (c >= sinks) {
+                // Sources were numbered down from n - 1; shift them to end at count - 1
+                componentOf[v] = c - (n - count);
+            }
+        }
+
+        metrics.stopTiming();
+        metrics.incrementCounter("trimmed_sinks", sinks);
+        metrics.incrementCounter("trimmed_sources", sources);
+        metrics.incrementCounter("core_vertices", coreVertices);
+        metrics.incrementCounter("core_edges", coreEdges);
+        metrics.incrementCounter("core_components", coreCount);
+        metrics.incrementCounter("edges", reverse.getEdgeCount());
+        event.endFullScan(1, count);
+        return count;
+    }
+
+    /**
+     * Relabels the untrimmed vertices 0..size-1 and copies the edges between them.
+     */
+    private void buildCore(int n, int size, int[] componentOf) {
+        int k = 0;
+        for (int v = 0; v < n; v++) {
+            if (componentOf[v] == -1) {
+                coreIndex[v] = k++;
+            }
+        }
+        core.reset(size);
+        int e = 0;
+        for (int v = 0; v < n; v++) {
+            if (componentOf[v] != -1) continue;
+            core.offsets[coreIndex[v]] = e;
+            edges.reset(v);
+            while (edges.next()) {
+                int w = edges.target();
+                if (componentOf[w] == -1) {
+                    if (e == core.targets.length) {
+                        core.targets = Arrays.copyOf(core.targets, Math.max(16, e * 2));
+                    }
+                    core.targets[e++] = coreIndex[w];
+                }
+            }
+        }
+        core.offsets[size] = e;
+        core.edgeCount = e;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getName() {
+        return "Trimmed" + coreAlgorithm.getName();
+    }
+
+    /**
+     * The untrimmed core as CSR over reused arrays. Only the structure
+     * matters to SCC, so edge and node weights read as zero. The same
+     * instance is passed on every call so the core engine keeps its cursors.
+     */
+    private static final class CoreGraph implements GraphStorage {
+        int vertexCount;
+        int edgeCount;
+        int[] offsets = new int[1];
+        int[] targets = new int[0];
+
+        void reset(int size) {
+            vertexCount = size;
+            if (offsets.length < size + 1) {
+                offsets = new int[size + 1];
+            }
+        }
+
+        @Override
+        public int getVertexCount() {
+            return vertexCount;
+        }
+
+        @Override
+        public int getEdgeCount() {
+            return edgeCount;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return true;
+        }
+
+        @Override
+        public String getWeightModel() {
+            return "edge";
+        }
+
+        @Override
+        public int getNodeWeight(int node) {
+            return 0;
+        }
+
+        @Override
+        public int getOutDegree(int v) {
+            return offsets[v + 1] - offsets[v];
+        }
+
+        @Override
+        public int getEdgeTarget(int v, int index) {
+            return targets[offsets[v] + index];
+        }
+
+        @Override
+        public int getEdgeWeight(int v, int index) {
+            return 0;
+        }
+
+        @Override
+        public EdgeCursor cursor() {
+            return new EdgeCursor() {
+                private int position;
+                private int end;
+
+                @Override
+                public void reset(int v) {
+                    position = offsets[v] - 1;
+                    end = offsets[v + 1];
+                }
+
+                @Override
+                public boolean next() {
+                    return ++position < end;
+                }
+
+                @Override
+                public int target() {
+                    return targets[position];
+                }
+
+                @Override
+                public int weight() {
+                    return 0;
+                }
+            };
+        }
+    }
+}
@@ -1,70 +1,90 @@
 package graph.topo;
 
-import common.Graph;
+import common.EdgeCursor;
+import common.EngineEvent;
+import common.IntListView;
+import common.GraphStorage;
 import common.Metrics;
 import common.MetricsImpl;
+import common.Workspace;
 
 import java.util.*;
 
 
 public class TopologicalSort {
-    private final Graph graph;
+    private final GraphStorage graph;
     private final Metrics metrics;
+    private int finishedCount;
+    private long explored;   // edges scanned by the current dfsSort
 
-    public TopologicalSort(Graph graph) {
+    public TopologicalSort(GraphStorage graph) {
         this.graph = graph;
         this.metrics = new MetricsImpl();
     }
 
  
     public List<Integer> kahnSort() {
-        int n = graph.getVertexCount();
-        int[] inDegree = new int[n];
-        
-        // Calculate in-degrees
-        for (int u = 0; u < n; u++) {
-            for (Graph.Edge edge : graph.getAdjacent(u)) {
-                inDegree[edge.to]++;
-            }
-        }
+        return IntListView.of(kahnOrder());
+    }
 
-        // Queue for vertices with in-degree 0
-        Queue<Integer> queue = new LinkedList<>();
+    /**
+     * Kahn's order as an int array; empty if the graph has a cycle.
+     * {@link #kahnSort()} is a list view of the same result.
+     */
+    public int[] kahnOrder() {
+        int n = graph.getVertexCount();
+        Workspace workspace = Workspace.current();
+        // Working copy of the cached in-degrees; the reverse adjacency is shared
+        int[] inDegree = workspace.ints(Workspace.Slot.TOPO_DEGREE, n);
+        System.arraycopy(graph.reverse().inDegree, 0, inDegree, 0, n);
+        EdgeCursor edges = graph.cursor();
+
+        // FIFO queue for vertices with in-degree 0; each vertex enters once
+        int[] queue = workspace.ints(Workspace.Slot.TOPO_QUEUE, n);
+        int head = 0;
+        int tail = 0;
         for (int i = 0; i < n; i++) {
             if (inDegree[i] == 0) {
-                queue.offer(i);
-                metrics.incrementCounter("queue_pushes");
+                queue[tail++] = i;
             }
         }
 
-        List<Integer> topoOrder = new ArrayList<>();
+        int[] topoOrder = new int[n];
+        int count = 0;
+        // Counted locally and added to metrics once, so the loop does not box per edge
+        long relaxations = 0;
+        EngineEvent event = EngineEvent.begin("Kahn", graph);
         
         metrics.startTiming();
 
-        while (!queue.isEmpty()) {
-            int u = queue.poll();
-            topoOrder.add(u);
-            metrics.incrementCounter("queue_pops");
+        while (head < tail) {
+            int u = queue[head++];
+            topoOrder[count++] = u;
 
             // Reduce in-degree for adjacent vertices
-            for (Graph.Edge edge : graph.getAdjacent(u)) {
-                int v = edge.to;
+            edges.reset(u);
+            while (edges.next()) {
+                int v = edges.target();
                 inDegree[v]--;
-                metrics.incrementCounter("edge_relaxations");
+                relaxations++;
                 
                 if (inDegree[v] == 0) {
-                    queue.offer(v);
-                    metrics.incrementCounter("queue_pushes");
+                    queue[tail++] = v;
                 }
             }
         }
 
         metrics.stopTiming();
+        // Every vertex pushed was popped: the queue is drained
+        metrics.incrementCounter("edge_relaxations", relaxations);
+        metrics.incrementCounter("queue_pushes", tail);
+        metrics.incrementCounter("queue_pops", head);
+        event.end(relaxations, count);
 
         // Check if all vertices are included (cycle detection)
-        if (topoOrder.size() != n) {
+        if (count != n) {
             System.err.println("Warning: Graph contains a cycle! Topological sort incomplete.");
-            return new ArrayList<>(); // Return empty list to indicate cycle
+            return new int[0]; // Return empty order to indicate cycle
         }
 
         return topoOrder;
@@ -76,46 +96,61 @@ public class TopologicalSort {
      */
     public List<Integer> dfsSort() {
         int n = graph.getVertexCount();
-        boolean[] visited = new boolean[n];
-        Stack<Integer> stack = new Stack<>();
+        Workspace workspace = Workspace.current();
+        Workspace.Marks visited = workspace.marks(Workspace.MarkSlot.TOPO_VISITED, n);
+        // Finished vertices in post-order
+        int[] finished = workspace.ints(Workspace.Slot.TOPO_STACK, n);
+        List<EdgeCursor> cursors = new ArrayList<>();
+        finishedCount = 0;
+        explored = 0;
 
         metrics.reset();
+        EngineEvent event = EngineEvent.begin("DFSTopo", graph);
         metrics.startTiming();
 
         for (int i = 0; i < n; i++) {
-            if (!visited[i]) {
-                dfsHelper(i, visited, stack);
+            if (!visited.contains(i)) {
+                dfsHelper(i, visited, finished, cursors, 0);
             }
         }
 
         metrics.stopTiming();
-
-        List<Integer> topoOrder = new ArrayList<>();
-        while (!stack.isEmpty()) {
-            topoOrder.add(stack.pop());
+        // Each vertex is visited once and pushed once when it finishes
+        metrics.incrementCounter("DFS_visits", finishedCount);
+        metrics.incrementCounter("edges_explored", explored);
+        metrics.incrementCounter("stack_pushes", finishedCount);
+        event.end(explored, finishedCount);
+
+        int[] topoOrder = new int[finishedCount];
+        for (int i = 0; i < finishedCount; i++) {
+            topoOrder[i] = finished[finishedCount - 1 - i];
         }
 
-        return topoOrder;
+        return IntListView.of(topoOrder);
     }
 
     /**
      * Helper method for DFS-based topological sort.
      */
-    private void dfsHelper(int u, boolean[] visited, Stack<Integer> stack) {
-        visited[u] = true;
-        metrics.incrementCounter("DFS_visits");
+    private void dfsHelper(int u, Workspace.Marks visited, int[] finished, List<EdgeCursor> cursors, int depth) {
+        visited.add(u);
 
-        for (Graph.Edge edge : graph.getAdjacent(u)) {
-            int v = edge.to;
-            metrics.incrementCounter("edges_explored");
+        // One cursor per recursion depth, reused across siblings
+        if (depth == cursors.size()) {
+            cursors.add(graph.cursor());
+        }
+        EdgeCursor edges = cursors.get(depth);
+        edges.reset(u);
+        while (edges.next()) {
+            int v = edges.target();
+            explored++;
             
-            if (!visited[v]) {
-                dfsHelper(v, visited, stack);
+            if (!visited.contains(v)) {
+                dfsHelper(v, visited, finished, cursors, depth + 1);
             }
         }
 
-        stack.push(u);
-        metrics.incrementCounter("stack_pushes");
+        finished[finishedCount++] = u;
     }
 
     /**
@@ -133,16 +168,23 @@ public class TopologicalSort {
             return false;
         }
 
-        Map<Integer, Integer> position = new HashMap<>();
+        int n = graph.getVertexCount();
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
         for (int i = 0; i < order.size(); i++) {
-            position.put(order.get(i), i);
+            int v = order.get(i);
+            if (v < 0 || v >= n || position[v] != -1) {
+                return false;
+            }
+            position[v] = i;
         }
 
         // Check that for every edge u->v, u comes before v
-        for (int u = 0; u < graph.getVertexCount(); u++) {
-            for (Graph.Edge edge : graph.getAdjacent(u)) {
-                int v = edge.to;
-                if (position.get(u) >= position.get(v)) {
+        EdgeCursor edges = graph.cursor();
+        for (int u = 0; u < n; u++) {
+            edges.reset(u);
+            while (edges.next()) {
+                if (position[u] >= position[edges.target()]) {
                     return false;
                 }
             }
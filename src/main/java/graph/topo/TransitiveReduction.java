@@ -0,0 +1,147 @@
+package graph.topo;
+
+import common.Graph;
+import common.GraphStorage;
+import common.Metrics;
+import common.MetricsImpl;
+
+import java.util.Arrays;
+
+/**
+ * Transitive reduction of a DAG: drops every edge u->v for which another
+ * path u ~> v exists. Reachability is a bitset per vertex, filled in reverse
+ * topological order; successors of u are visited in increasing topological
+ * position, so an edge is redundant exactly when its target is already in
+ * u's reachable set. Bitsets cover a chunk of target columns at a time,
+ * bounding memory to V * chunkBits bits.
+ *
+ * The reduced graph has the same reachability, hence the same topological
+ * orders and precedence constraints, and the same longest paths under the
+ * node weight model. Edge-weighted shortest/longest paths are not preserved.
+ */
+public class TransitiveReduction {
+    public static final int DEFAULT_CHUNK_BITS = 4096;
+
+    private final GraphStorage graph;
+    private final int chunkBits;
+    private final Metrics metrics;
+    private int edgesRemoved;
+
+    public TransitiveReduction(GraphStorage graph) {
+        this(graph, DEFAULT_CHUNK_BITS);
+    }
+
+    public TransitiveReduction(GraphStorage graph, int chunkBits) {
+        if (chunkBits < 64 || chunkBits % 64 != 0) {
+            throw new IllegalArgumentException("Chunk size must be a positive multiple of 64 bits");
+        }
+        this.graph = graph;
+        this.chunkBits = chunkBits;
+        this.metrics = new MetricsImpl();
+    }
+
+    /**
+     * Build the reduced DAG, keeping weights and the weight model of the input.
+     */
+    public Graph reduce() {
+        int n = graph.getVertexCount();
+        int[] topo = new TopologicalSort(graph).kahnOrder();
+        if (topo.length == 0 && n > 0) {
+            throw new IllegalArgumentException("Graph contains a cycle - not a DAG!");
+        }
+
+        int[] position = new int[n];
+        for (int i = 0; i < n; i++) {
+            position[topo[i]] = i;
+        }
+
+        metrics.reset();
+        metrics.startTiming();
+
+        // Out-edges of every vertex as CSR, sorted by target topological position
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + graph.getOutDegree(u);
+        }
+        long[] keys = new long[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                keys[offsets[u] + i] = ((long) position[graph.getEdgeTarget(u, i)] << 32) | i;
+            }
+            Arrays.sort(keys, offsets[u], offsets[u + 1]);
+        }
+        int[] edgeIndex = new int[offsets[n]];
+        int[] edgePosition = new int[offsets[n]];
+        for (int k = 0; k < keys.length; k++) {
+            edgePosition[k] = (int) (keys[k] >>> 32);
+            edgeIndex[k] = (int) keys[k];
+        }
+
+        // Indexed by original edge slot; columns of the bitsets are topological positions
+        boolean[] redundant = new boolean[offsets[n]];
+        int chunk = Math.min(chunkBits, (n + 63) & ~63);
+        int words = Math.max(chunk / 64, 1);
+        long[] reach = new long[n * words];
+
+        for (int low = 0; low < n; low += chunk) {
+            int high = Math.min(low + chunk, n);
+            Arrays.fill(reach, 0L);
+            metrics.incrementCounter("chunks");
+
+            // Vertices at or after high cannot reach a column in [low, high)
+            for (int p = high - 1; p >= 0; p--) {
+                int u = topo[p];
+                int row = p * words;
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    int target = edgePosition[k];
+                    if (target >= high) {
+                        // Later positions are only reached through columns outside this chunk
+                        break;
+                    }
+                    metrics.incrementCounter("edge_checks");
+                    if (target >= low) {
+                        int bit = target - low;
+                        if ((reach[row + (bit >>> 6)] & (1L << bit)) != 0) {
+                            redundant[offsets[u] + edgeIndex[k]] = true;
+                            continue;
+                        }
+                        reach[row + (bit >>> 6)] |= 1L << bit;
+                    }
+                    int targetRow = target * words;
+                    for (int w = 0; w < words; w++) {
+                        reach[row + w] |= reach[targetRow + w];
+                    }
+                }
+            }
+        }
+
+        Graph reduced = new Graph(n, true, graph.getWeightModel());
+        edgesRemoved = 0;
+        for (int u = 0; u < n; u++) {
+            reduced.setNodeWeight(u, graph.getNodeWeight(u));
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                if (redundant[offsets[u] + i]) {
+                    edgesRemoved++;
+                } else {
+                    reduced.addEdge(u, graph.getEdgeTarget(u, i), graph.getEdgeWeight(u, i));
+                }
+            }
+        }
+
+        metrics.stopTiming();
+        return reduced;
+    }
+
+    /**
+     * Number of edges dropped by the last {@link #reduce()}.
+     */
+    public int getEdgesRemoved() {
+        return edgesRemoved;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,212 @@
+package utils;
+
+import common.GraphStorage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Two-tier cache of analysis results keyed by graph content.
+ * The memory tier is a bounded LRU map; the optional disk tier keeps one
+ * serialized result per fingerprint in a directory and survives restarts.
+ */
+public class AnalysisCache {
+    private static final String FILE_SUFFIX = ".analysis";
+
+    /**
+     * Disk entries may only hold an AnalysisResult and its primitive arrays
+     * (Strings are not filtered), so a planted file cannot deserialize
+     * any other class on the classpath.
+     */
+    private static final ObjectInputFilter RESULT_FILTER = info -> {
+        Class<?> type = info.serialClass();
+        if (info.depth() > 2) {
+            return ObjectInputFilter.Status.REJECTED;
+        }
+        if (type == null) {
+            return ObjectInputFilter.Status.UNDECIDED;
+        }
+        if (type == AnalysisResult.class || (type.isArray() && type.getComponentType().isPrimitive())) {
+            return ObjectInputFilter.Status.ALLOWED;
+        }
+        return ObjectInputFilter.Status.REJECTED;
+    };
+
+    private final int maxEntries;
+    private final File diskDir;
+    private final LinkedHashMap<GraphFingerprint, AnalysisResult> memory;
+
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Memory-only cache holding at most maxEntries results.
+     */
+    public AnalysisCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Cache with a memory tier of maxEntries results backed by diskDir (may be null).
+     */
+    public AnalysisCache(int maxEntries, File diskDir) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry");
+        }
+        this.maxEntries = maxEntries;
+        this.diskDir = diskDir;
+        if (diskDir != null) {
+            diskDir.mkdirs();
+        }
+        this.memory = new LinkedHashMap<GraphFingerprint, AnalysisResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<GraphFingerprint, AnalysisResult> eldest) {
+                if (size() > AnalysisCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached analysis of graph from source, computing and storing it on a miss.
+     */
+    public AnalysisResult getOrCompute(GraphStorage graph, int source) {
+        return getOrCompute(GraphFingerprint.of(graph, source), graph, source);
+    }
+
+    /**
+     * As {@link #getOrCompute(GraphStorage, int)} with the key already known,
+     * for callers that keep a graph and hashed its content once:
+     * key must equal GraphFingerprint.of(graph, source).
+     */
+    public AnalysisResult getOrCompute(GraphFingerprint key, GraphStorage graph, int source) {
+        AnalysisResult result = lookup(key);
+        if (result != null) {
+            return result;
+        }
+
+        result = AnalysisResult.compute(graph, source);
+        put(key, result);
+        return result;
+    }
+
+    /**
+     * Look a fingerprint up in memory, then on disk. Returns null on a miss.
+     */
+    public AnalysisResult lookup(GraphFingerprint key) {
+        synchronized (this) {
+            AnalysisResult result = memory.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+        }
+
+        AnalysisResult result = readFromDisk(key);
+        synchronized (this) {
+            if (result != null) {
+                diskHits++;
+                memory.put(key, result);
+            } else {
+                misses++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store a result in memory and, if enabled, on disk.
+     */
+    public void put(GraphFingerprint key, AnalysisResult result) {
+        synchronized (this) {
+            memory.put(key, result);
+        }
+        writeToDisk(key, result);
+    }
+
+    private AnalysisResult readFromDisk(GraphFingerprint key) {
+        if (diskDir == null) {
+            return null;
+        }
+        File file = new File(diskDir, key.toHex() + FILE_SUFFIX);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            in.setObjectInputFilter(RESULT_FILTER);
+            return (AnalysisResult) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // A stale or corrupt entry is treated as a miss and overwritten later
+            System.err.println("Warning: ignoring unreadable cache entry " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(GraphFingerprint key, AnalysisResult result) {
+        if (diskDir == null) {
+            return;
+        }
+        File target = new File(diskDir, key.toHex() + FILE_SUFFIX);
+        File tmp = new File(diskDir, key.toHex() + FILE_SUFFIX + ".tmp" + Thread.currentThread().getId());
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeObject(result);
+        } catch (IOException e) {
+            System.err.println("Warning: could not write cache entry " + target + ": " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+        }
+    }
+
+    /**
+     * Drop every in-memory entry; the disk tier is left untouched.
+     */
+    public synchronized void clearMemory() {
+        memory.clear();
+    }
+
+    public synchronized int size() {
+        return memory.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized String getStats() {
+        long lookups = hits + diskHits + misses;
+        double hitRate = lookups == 0 ? 0 : 100.0 * (hits + diskHits) / lookups;
+        return String.format("entries=%d/%d, hits=%d, diskHits=%d, misses=%d, evictions=%d, hitRate=%.1f%%",
+                memory.size(), maxEntries, hits, diskHits, misses, evictions, hitRate);
+    }
+}
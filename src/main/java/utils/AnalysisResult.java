@@ -0,0 +1,478 @@
+package utils;
+
+import common.BitsetGraph;
+import common.Graph;
+import common.GraphStorage;
+import common.IntListView;
+import common.PhaseEvent;
+import graph.dagsp.DAGShortestPath;
+import graph.reorder.VertexPermutation;
+import graph.scc.BitsetSCC;
+import graph.scc.Components;
+import graph.scc.Condensation;
+import graph.scc.TrimmedSCC;
+import graph.topo.BitsetTopologicalSort;
+import graph.topo.TopologicalSort;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Complete output of the SCC -> condensation -> topo -> DAG path pipeline,
+ * held in primitive arrays so it can be cached in memory or on disk.
+ * Results are shared between callers through the cache, so the arrays stay
+ * private: read them element by element or through read-only list views.
+ */
+public class AnalysisResult implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final int vertexCount;
+    private final int source;
+    private final String weightModel;
+
+    // SCCs: members of component c are sccMembers[sccOffsets[c] .. sccOffsets[c + 1])
+    private final int sccCount;
+    private final int[] sccId;
+    private final int[] sccOffsets;
+    private final int[] sccMembers;
+
+    // Condensation DAG in CSR form
+    private final int[] condOffsets;
+    private final int[] condTargets;
+    private final int[] condWeights;
+    private final int[] condNodeWeights;
+
+    // Empty when the condensation could not be sorted
+    private final int[] topoOrder;
+
+    // Path results on the condensation, null when topoOrder is empty
+    private final int condensationSource;
+    private final int[] shortestDist;
+    private final int[] shortestParent;
+    private final int[] longestDist;
+    private final int[] longestParent;
+
+    // Phase timings of the run that produced this result
+    private final double sccTimeMs;
+    private final double topoTimeMs;
+    private final double shortestTimeMs;
+    private final double longestTimeMs;
+
+    // Metrics summaries (time and counters) of the engines behind each phase
+    private final String sccMetrics;
+    private final String topoMetrics;
+    private final String shortestMetrics;
+    private final String longestMetrics;
+
+    private AnalysisResult(Builder b) {
+        this.vertexCount = b.vertexCount;
+        this.source = b.source;
+        this.weightModel = b.weightModel;
+        this.sccCount = b.sccCount;
+        this.sccId = b.sccId;
+        this.sccOffsets = b.sccOffsets;
+        this.sccMembers = b.sccMembers;
+        this.condOffsets = b.condOffsets;
+        this.condTargets = b.condTargets;
+        this.condWeights = b.condWeights;
+        this.condNodeWeights = b.condNodeWeights;
+        this.topoOrder = b.topoOrder;
+        this.condensationSource = b.condensationSource;
+        this.shortestDist = b.shortestDist;
+        this.shortestParent = b.shortestParent;
+        this.longestDist = b.longestDist;
+        this.longestParent = b.longestParent;
+        this.sccTimeMs = b.sccTimeMs;
+        this.topoTimeMs = b.topoTimeMs;
+        this.shortestTimeMs = b.shortestTimeMs;
+        this.longestTimeMs = b.longestTimeMs;
+        this.sccMetrics = b.sccMetrics;
+        this.topoMetrics = b.topoMetrics;
+        this.shortestMetrics = b.shortestMetrics;
+        this.longestMetrics = b.longestMetrics;
+    }
+
+    /**
+     * Run the full pipeline on a graph from the given source vertex.
+     * Dense graphs (see {@link BitsetGraph#isDense}) go through the bitset
+     * SCC and topological sort engines; the rest through {@link TrimmedSCC}
+     * over Gabow and Kahn. All of them are iterative.
+     * Either way components are renumbered by {@link Components#ordered}
+     * and the condensation is built from graph itself, so the result does
+     * not depend on which engine ran.
+     */
+    public static AnalysisResult compute(GraphStorage graph, int source) {
+        Builder b = new Builder();
+        b.vertexCount = graph.getVertexCount();
+        b.source = source;
+        b.weightModel = graph.getWeightModel();
+
+        Components components;
+        PhaseEvent phase = PhaseEvent.begin("scc", graph);
+        if (BitsetGraph.isDense(graph)) {
+            BitsetSCC sccFinder = new BitsetSCC(graph instanceof BitsetGraph
+                    ? (BitsetGraph) graph : BitsetGraph.copyOf(graph));
+            sccFinder.findSCCs();
+            components = Components.ordered(sccIds(sccFinder::getSccId, b.vertexCount), sccFinder.getSccCount());
+            b.sccTimeMs = sccFinder.getMetrics().getElapsedTimeMillis();
+            b.sccMetrics = sccFinder.getMetrics().getSummary();
+            phase.end(-1);
+        } else {
+            // Iterative engines, so deep chains cannot overflow the stack of a CLI, batch or server thread
+            TrimmedSCC sccFinder = new TrimmedSCC();
+            int[] componentOf = new int[b.vertexCount];
+            int count = sccFinder.computeComponents(graph, componentOf);
+            components = Components.ordered(componentOf, count);
+            b.sccTimeMs = sccFinder.getMetrics().getElapsedTimeMillis();
+            b.sccMetrics = sccFinder.getMetrics().getSummary();
+            phase.endFullScan(1);
+        }
+        b.sccCount = components.count;
+        b.sccId = components.componentOf;
+        b.sccOffsets = components.offsets;
+        b.sccMembers = components.members;
+
+        phase = PhaseEvent.begin("condensation", graph);
+        Graph condensation = Condensation.build(graph, b.sccId, b.sccCount);
+        int cn = condensation.getVertexCount();
+        b.condOffsets = new int[cn + 1];
+        b.condNodeWeights = new int[cn];
+        int cm = 0;
+        for (int u = 0; u < cn; u++) {
+            cm += condensation.getOutDegree(u);
+        }
+        b.condTargets = new int[cm];
+        b.condWeights = new int[cm];
+        int pos = 0;
+        for (int u = 0; u < cn; u++) {
+            b.condOffsets[u] = pos;
+            b.condNodeWeights[u] = condensation.getNodeWeight(u);
+            int degree = condensation.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                b.condTargets[pos] = condensation.getEdgeTarget(u, i);
+                b.condWeights[pos] = condensation.getEdgeWeight(u, i);
+                pos++;
+            }
+        }
+        b.condOffsets[cn] = pos;
+        phase.endFullScan(1);
+
+        phase = PhaseEvent.begin("topo", condensation);
+        if (BitsetGraph.isDense(condensation)) {
+            BitsetTopologicalSort topoSort = new BitsetTopologicalSort(BitsetGraph.copyOf(condensation));
+            b.topoOrder = toArray(topoSort.sort());
+            b.topoTimeMs = topoSort.getMetrics().getElapsedTimeMillis();
+            b.topoMetrics = topoSort.getMetrics().getSummary();
+            phase.end(-1);
+        } else {
+            TopologicalSort topoSort = new TopologicalSort(condensation);
+            b.topoOrder = topoSort.kahnOrder();
+            b.topoTimeMs = topoSort.getMetrics().getElapsedTimeMillis();
+            b.topoMetrics = topoSort.getMetrics().getSummary();
+            phase.end(topoSort.getMetrics().getCounter("edge_relaxations"));
+        }
+
+        b.condensationSource = -1;
+        if (b.topoOrder.length > 0) {
+            b.condensationSource = b.sccId[source];
+            DAGShortestPath dagSP = new DAGShortestPath(condensation);
+
+            phase = PhaseEvent.begin("shortest", condensation);
+            DAGShortestPath.PathResult shortest = dagSP.shortestPaths(b.condensationSource);
+            b.shortestTimeMs = dagSP.getMetrics().getElapsedTimeMillis();
+            b.shortestMetrics = dagSP.getMetrics().getSummary();
+            b.shortestDist = shortest.distances;
+            b.shortestParent = shortest.parent;
+            long relaxed = dagSP.getMetrics().getCounter("edge_relaxations");
+            phase.end(relaxed);
+
+            phase = PhaseEvent.begin("longest", condensation);
+            DAGShortestPath.PathResult longest = dagSP.longestPaths(b.condensationSource);
+            b.longestTimeMs = dagSP.getMetrics().getElapsedTimeMillis();
+            b.longestMetrics = dagSP.getMetrics().getSummary();
+            b.longestDist = longest.distances;
+            b.longestParent = longest.parent;
+            phase.end(dagSP.getMetrics().getCounter("edge_relaxations") - relaxed);
+        }
+
+        return new AnalysisResult(b);
+    }
+
+    /**
+     * Run the pipeline on the graph relabeled by permutation for memory
+     * locality, reporting vertices under their original IDs. Component
+     * numbering follows the relabeled graph.
+     */
+    public static AnalysisResult compute(GraphStorage graph, int source, VertexPermutation permutation) {
+        AnalysisResult relabeled = compute(permutation.apply(graph), permutation.toNew(source));
+        Builder b = relabeled.toBuilder();
+        b.source = source;
+        b.sccId = permutation.toOriginal(relabeled.sccId);
+        b.sccMembers = permutation.mapSequenceToOriginal(relabeled.sccMembers);
+        return new AnalysisResult(b);
+    }
+
+    private Builder toBuilder() {
+        Builder b = new Builder();
+        b.vertexCount = vertexCount;
+        b.source = source;
+        b.weightModel = weightModel;
+        b.sccCount = sccCount;
+        b.sccId = sccId;
+        b.sccOffsets = sccOffsets;
+        b.sccMembers = sccMembers;
+        b.condOffsets = condOffsets;
+        b.condTargets = condTargets;
+        b.condWeights = condWeights;
+        b.condNodeWeights = condNodeWeights;
+        b.topoOrder = topoOrder;
+        b.condensationSource = condensationSource;
+        b.shortestDist = shortestDist;
+        b.shortestParent = shortestParent;
+        b.longestDist = longestDist;
+        b.longestParent = longestParent;
+        b.sccTimeMs = sccTimeMs;
+        b.topoTimeMs = topoTimeMs;
+        b.shortestTimeMs = shortestTimeMs;
+        b.longestTimeMs = longestTimeMs;
+        b.sccMetrics = sccMetrics;
+        b.topoMetrics = topoMetrics;
+        b.shortestMetrics = shortestMetrics;
+        b.longestMetrics = longestMetrics;
+        return b;
+    }
+
+    private static int[] sccIds(IntUnaryOperator sccIdOf, int n) {
+        int[] sccId = new int[n];
+        for (int v = 0; v < n; v++) {
+            sccId[v] = sccIdOf.applyAsInt(v);
+        }
+        return sccId;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public String getWeightModel() {
+        return weightModel;
+    }
+
+    public int getSccCount() {
+        return sccCount;
+    }
+
+    public int getSccId(int v) {
+        return sccId[v];
+    }
+
+    /**
+     * Component of every vertex, as a view over sccId.
+     */
+    public List<Integer> getSccIds() {
+        return IntListView.of(sccId);
+    }
+
+    public int getSccSize(int c) {
+        return sccOffsets[c + 1] - sccOffsets[c];
+    }
+
+    /**
+     * The i-th vertex of SCC c, in the order {@link #getScc} lists them.
+     */
+    public int getSccMember(int c, int i) {
+        return sccMembers[sccOffsets[c] + i];
+    }
+
+    /**
+     * Vertices of SCC c, as a view over sccMembers.
+     */
+    public List<Integer> getScc(int c) {
+        return IntListView.of(sccMembers, sccOffsets[c], sccOffsets[c + 1]);
+    }
+
+    /**
+     * Rebuild the condensation DAG as a Graph.
+     */
+    public Graph getCondensation() {
+        Graph condensation = new Graph(sccCount, true, weightModel);
+        for (int u = 0; u < sccCount; u++) {
+            condensation.setNodeWeight(u, condNodeWeights[u]);
+            for (int e = condOffsets[u]; e < condOffsets[u + 1]; e++) {
+                condensation.addEdge(u, condTargets[e], condWeights[e]);
+            }
+        }
+        return condensation;
+    }
+
+    public int getCondensationEdgeCount() {
+        return condTargets.length;
+    }
+
+    public boolean hasPaths() {
+        return topoOrder.length > 0;
+    }
+
+    /**
+     * Whether the topological order lists every component once and puts
+     * each condensation edge's source before its target.
+     */
+    public boolean isTopoOrderValid() {
+        if (topoOrder.length != sccCount) {
+            return false;
+        }
+        int[] position = new int[sccCount];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < topoOrder.length; i++) {
+            int c = topoOrder[i];
+            if (c < 0 || c >= sccCount || position[c] != -1) {
+                return false;
+            }
+            position[c] = i;
+        }
+        for (int u = 0; u < sccCount; u++) {
+            for (int e = condOffsets[u]; e < condOffsets[u + 1]; e++) {
+                if (position[u] >= position[condTargets[e]]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The i-th component in topological order.
+     */
+    public int getTopoComponent(int i) {
+        return topoOrder[i];
+    }
+
+    /**
+     * Topological order of the condensation, empty when it could not be sorted.
+     */
+    public List<Integer> getTopoOrder() {
+        return IntListView.of(topoOrder);
+    }
+
+    /**
+     * Component holding the source vertex, -1 when there are no paths.
+     */
+    public int getCondensationSource() {
+        return condensationSource;
+    }
+
+    // Path accessors are indexed by component and only valid when hasPaths()
+
+    public int getShortestDistance(int c) {
+        return shortestDist[c];
+    }
+
+    public int getShortestParent(int c) {
+        return shortestParent[c];
+    }
+
+    public int getLongestDistance(int c) {
+        return longestDist[c];
+    }
+
+    public int getLongestParent(int c) {
+        return longestParent[c];
+    }
+
+    public List<Integer> getShortestDistances() {
+        return pathView(shortestDist);
+    }
+
+    public List<Integer> getShortestParents() {
+        return pathView(shortestParent);
+    }
+
+    public List<Integer> getLongestDistances() {
+        return pathView(longestDist);
+    }
+
+    public List<Integer> getLongestParents() {
+        return pathView(longestParent);
+    }
+
+    private static List<Integer> pathView(int[] values) {
+        return values != null ? IntListView.of(values) : Collections.emptyList();
+    }
+
+    public double getSccTimeMs() {
+        return sccTimeMs;
+    }
+
+    public double getTopoTimeMs() {
+        return topoTimeMs;
+    }
+
+    public double getShortestTimeMs() {
+        return shortestTimeMs;
+    }
+
+    public double getLongestTimeMs() {
+        return longestTimeMs;
+    }
+
+    // Metrics summaries as Metrics.getSummary() printed them; path summaries are null without paths
+
+    public String getSccMetrics() {
+        return sccMetrics;
+    }
+
+    public String getTopoMetrics() {
+        return topoMetrics;
+    }
+
+    public String getShortestMetrics() {
+        return shortestMetrics;
+    }
+
+    public String getLongestMetrics() {
+        return longestMetrics;
+    }
+
+    private static class Builder {
+        int vertexCount;
+        int source;
+        String weightModel;
+        int sccCount;
+        int[] sccId;
+        int[] sccOffsets;
+        int[] sccMembers;
+        int[] condOffsets;
+        int[] condTargets;
+        int[] condWeights;
+        int[] condNodeWeights;
+        int[] topoOrder;
+        int condensationSource;
+        int[] shortestDist;
+        int[] shortestParent;
+        int[] longestDist;
+        int[] longestParent;
+        double sccTimeMs;
+        double topoTimeMs;
+        double shortestTimeMs;
+        double longestTimeMs;
+        String sccMetrics;
+        String topoMetrics;
+        String shortestMetrics;
+        String longestMetrics;
+    }
+}
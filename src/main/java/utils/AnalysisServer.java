@@ -0,0 +1,413 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import common.Graph;
+import common.GraphJson;
+import common.Workspace;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resident analysis service with a small HTTP/JSON API on the JDK HTTP server.
+ * Uploaded graphs stay in memory by ID and analyses are served through a
+ * shared {@link AnalysisCache}, so repeated queries skip JVM startup,
+ * parsing and recomputation.
+ *
+ * <pre>
+ * POST   /graphs               body: graph JSON        -> {"id":...}
+ * POST   /graphs?path=file     load a graph from disk  -> {"id":...}
+ * GET    /graphs               list loaded graph IDs
+ * GET    /graphs/{id}          full analysis (JSON output mode)
+ * GET    /graphs/{id}/scc      SCC count and per-vertex SCC ids
+ * GET    /graphs/{id}/topo     topological order of the condensation
+ * GET    /graphs/{id}/paths?source=S   shortest/longest distances and parents
+ * DELETE /graphs/{id}          unload a graph
+ * GET    /stats                request count, p50/p99 latency, cache stats
+ * </pre>
+ *
+ * Upload bodies over the configured limit get 413, and requests arriving while
+ * the pool and its queue are full get 503 instead of being run anyway.
+ */
+public class AnalysisServer {
+    private static final int LATENCY_SAMPLES = 10_000;
+    private static final long DEFAULT_MAX_UPLOAD_BYTES = 256L << 20;
+    // Set while a rejected request runs on the dispatcher thread, which then only answers 503
+    private static final ThreadLocal<Boolean> OVERLOADED = ThreadLocal.withInitial(() -> false);
+
+    private static class StoredGraph {
+        final Graph graph;
+        final int source;
+        // Content hash taken once on upload; each query only mixes in its source
+        final GraphFingerprint content;
+
+        StoredGraph(Graph graph, int source, GraphFingerprint content) {
+            this.graph = graph;
+            this.source = source;
+            this.content = content;
+        }
+    }
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final AnalysisCache cache;
+    private final long maxUploadBytes;
+    private final Map<String, StoredGraph> graphs = new ConcurrentHashMap<>();
+    private final LatencyRecorder latency = new LatencyRecorder(LATENCY_SAMPLES);
+
+    public AnalysisServer(int port, int threads, AnalysisCache cache) throws IOException {
+        this(port, threads, cache, DEFAULT_MAX_UPLOAD_BYTES);
+    }
+
+    /**
+     * @param port           TCP port, 0 picks a free one
+     * @param threads        size of the request pool; excess requests queue up to 4x this
+     *                       and beyond that are answered with 503
+     * @param maxUploadBytes largest accepted graph upload body
+     */
+    public AnalysisServer(int port, int threads, AnalysisCache cache, long maxUploadBytes) throws IOException {
+        this.cache = cache;
+        this.maxUploadBytes = maxUploadBytes;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), AnalysisServer::reject);
+        server.setExecutor(executor);
+        server.createContext("/graphs", admitted(this::handleGraphs));
+        server.createContext("/stats", admitted(this::handleStats));
+    }
+
+    /**
+     * Overflow policy: the exchange can only be answered by running it, so run it
+     * on the dispatcher thread flagged as overloaded and let it reply 503 at once.
+     */
+    private static void reject(Runnable exchange, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            return;
+        }
+        OVERLOADED.set(true);
+        try {
+            exchange.run();
+        } finally {
+            OVERLOADED.remove();
+        }
+    }
+
+    private static HttpHandler admitted(HttpHandler handler) {
+        return exchange -> {
+            if (OVERLOADED.get()) {
+                try {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    send(exchange, 503, error("Server busy, retry later"));
+                } finally {
+                    exchange.close();
+                }
+                return;
+            }
+            handler.handle(exchange);
+        };
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    // ---- handlers ----
+
+    private void handleGraphs(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            String method = exchange.getRequestMethod();
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            // parts: "", "graphs", id?, resource?
+            Map<String, String> query = parseQuery(exchange.getRequestURI());
+
+            if (parts.length == 2) {
+                if ("POST".equals(method)) {
+                    upload(exchange, query);
+                } else if ("GET".equals(method)) {
+                    send(exchange, 200, "{\"graphs\":" + toJsonArray(graphs.keySet()) + "}");
+                } else {
+                    send(exchange, 405, error("Use GET or POST on /graphs"));
+                }
+                return;
+            }
+
+            StoredGraph stored = graphs.get(parts[2]);
+            if (stored == null) {
+                send(exchange, 404, error("Unknown graph id " + parts[2]));
+                return;
+            }
+
+            if ("DELETE".equals(method) && parts.length == 3) {
+                graphs.remove(parts[2]);
+                send(exchange, 200, "{\"deleted\":\"" + parts[2] + "\"}");
+                return;
+            }
+            if (!"GET".equals(method)) {
+                send(exchange, 405, error("Use GET or DELETE on /graphs/{id}"));
+                return;
+            }
+
+            String resource = parts.length > 3 ? parts[3] : "";
+            int source = query.containsKey("source") ? Integer.parseInt(query.get("source")) : stored.source;
+            if (source < 0 || source >= stored.graph.getVertexCount()) {
+                send(exchange, 400, error("Source vertex out of range"));
+                return;
+            }
+            AnalysisResult result = cache.getOrCompute(stored.content.withSource(source), stored.graph, source);
+
+            switch (resource) {
+                case "":
+                    StringWriter body = new StringWriter();
+                    new ResultWriter(body, OutputMode.JSON).write(parts[2], stored.graph, result);
+                    send(exchange, 200, body.toString().trim());
+                    break;
+                case "scc":
+                    send(exchange, 200, "{\"scc_count\":" + result.getSccCount()
+                            + ",\"scc_id\":" + toJsonArray(result.getSccIds()) + "}");
+                    break;
+                case "topo":
+                    send(exchange, 200, "{\"valid\":" + result.isTopoOrderValid()
+                            + ",\"order\":" + toJsonArray(result.getTopoOrder()) + "}");
+                    break;
+                case "paths":
+                    if (!result.hasPaths()) {
+                        send(exchange, 409, error("Condensation has no topological order"));
+                    } else {
+                        send(exchange, 200, "{\"source\":" + source
+                                + ",\"condensation_source\":" + result.getCondensationSource()
+                                + ",\"scc_id\":" + toJsonArray(result.getSccIds())
+                                + ",\"shortest\":{\"dist\":" + toJsonArray(result.getShortestDistances())
+                                + ",\"parent\":" + toJsonArray(result.getShortestParents())
+                                + "},\"longest\":{\"dist\":" + toJsonArray(result.getLongestDistances())
+                                + ",\"parent\":" + toJsonArray(result.getLongestParents()) + "}}");
+                    }
+                    break;
+                default:
+                    send(exchange, 404, error("Unknown resource " + resource));
+            }
+        } catch (RuntimeException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (OutOfMemoryError e) {
+            sendError(exchange, 413, "Graph too large to analyze");
+        } catch (Throwable t) {
+            // StackOverflowError and friends must not leave the client without a reply
+            sendError(exchange, 500, "Analysis failed: " + t);
+        } finally {
+            exchange.close();
+            Workspace.trim();
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void upload(HttpExchange exchange, Map<String, String> query) throws IOException {
+        GraphJson json;
+        if (query.containsKey("path")) {
+            try (Reader reader = new BufferedReader(new FileReader(query.get("path")))) {
+                json = GraphJson.parse(reader, 1);
+            } catch (IOException e) {
+                send(exchange, 400, error("Cannot load " + query.get("path") + ": " + e.getMessage()));
+                return;
+            }
+        } else {
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            try (Reader reader = new BufferedReader(new InputStreamReader(
+                    new LimitedInputStream(exchange.getRequestBody(), maxUploadBytes), StandardCharsets.UTF_8))) {
+                if (length != null && Long.parseLong(length) > maxUploadBytes) {
+                    throw new UploadTooLargeException(maxUploadBytes);
+                }
+                json = GraphJson.parse(reader, 1);
+            } catch (UploadTooLargeException e) {
+                send(exchange, 413, error(e.getMessage()));
+                return;
+            } catch (IOException e) {
+                send(exchange, 400, error("Malformed graph JSON: " + e.getMessage()));
+                return;
+            }
+        }
+        Graph graph = Graph.fromJson(json);
+        int source = Math.max(json.source, 0);
+
+        GraphFingerprint content = GraphFingerprint.of(graph);
+        String id = content.withSource(source).toHex();
+        graphs.put(id, new StoredGraph(graph, source, content));
+        send(exchange, 201, "{\"id\":\"" + id + "\",\"n\":" + graph.getVertexCount()
+                + ",\"edges\":" + graph.getEdgeCount() + ",\"source\":" + source + "}");
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            sendStats(exchange);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sendStats(HttpExchange exchange) throws IOException {
+        String body = String.format("{\"requests\":%d,\"p50_ms\":%.3f,\"p99_ms\":%.3f,"
+                        + "\"graphs\":%d,\"pool_active\":%d,\"pool_queued\":%d,\"cache\":\"%s\"}",
+                latency.getCount(), latency.percentileMillis(50), latency.percentileMillis(99),
+                graphs.size(), executor.getActiveCount(), executor.getQueue().size(), cache.getStats());
+        send(exchange, 200, body);
+    }
+
+    // ---- helpers ----
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Best-effort error reply: the response may already be committed or the client gone.
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            send(exchange, status, error(message));
+        } catch (IOException ignored) {
+            // The exchange is closed by the caller either way
+        }
+    }
+
+    private static String error(String message) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        ResultWriter.writeJsonString(sb, String.valueOf(message));
+        return sb.append('}').toString();
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String toJsonArray(List<Integer> values) {
+        StringBuilder sb = new StringBuilder(values.size() * 4 + 2).append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            int value = values.get(i);
+            if (value == Integer.MAX_VALUE || value == Integer.MIN_VALUE) {
+                sb.append("null");
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String toJsonArray(Iterable<String> values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (String value : values) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append('"').append(value).append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static class UploadTooLargeException extends IOException {
+        UploadTooLargeException(long limit) {
+            super("Upload exceeds " + limit + " bytes");
+        }
+    }
+
+    /**
+     * Request body that fails once more than limit bytes are read, for chunked uploads
+     * that declare no Content-Length.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int read = super.read(buf, off, len);
+            if (read > 0) {
+                consume(read);
+            }
+            return read;
+        }
+
+        private void consume(int bytes) throws UploadTooLargeException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new UploadTooLargeException(limit);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+            AnalysisServer server = new AnalysisServer(port, threads, new AnalysisCache(256));
+            server.start();
+            System.out.println("Analysis server listening on http://127.0.0.1:" + server.getPort()
+                    + " with " + threads + " worker threads");
+        } catch (IOException e) {
+            System.err.println("Error starting server: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package utils;
+
+import common.Graph;
+import common.Workspace;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Batch analysis of many dataset files.
+ * A reader thread parses files, a bounded worker pool runs the analysis
+ * pipeline and a single writer emits one CSV line per file in input order.
+ * At most maxInFlight parsed graphs are held at once, so a slow pool
+ * throttles the reader instead of filling the heap.
+ */
+public class BatchAnalyzer {
+    public static final String CSV_HEADER =
+            "Dataset,Vertices,Edges,SCCs,Cond_V,Cond_E,Topo_Valid,Source,Reachable,Critical_Length";
+
+    private final int workers;
+    private final int maxInFlight;
+    private final AnalysisCache cache;
+
+    public BatchAnalyzer(int workers, int maxInFlight) {
+        this(workers, maxInFlight, null);
+    }
+
+    /**
+     * @param cache optional result cache shared by all workers, may be null
+     */
+    public BatchAnalyzer(int workers, int maxInFlight, AnalysisCache cache) {
+        if (workers < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Batch needs at least one worker and one in-flight slot");
+        }
+        this.workers = workers;
+        this.maxInFlight = maxInFlight;
+        this.cache = cache;
+    }
+
+    private static class Completed {
+        final int index;
+        final String line;
+
+        Completed(int index, String line) {
+            this.index = index;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Analyze all files concurrently and write their summaries to out in input order.
+     * A file's in-flight slot is held until its line is written, so parsed
+     * graphs, queued completions and lines waiting for an earlier file never
+     * exceed maxInFlight together. Every failure, including an Error thrown by
+     * the analysis or a rejected task, becomes that file's ERROR line.
+     */
+    public void run(List<File> files, Writer out) throws IOException, InterruptedException {
+        BlockingQueue<Completed> completed = new ArrayBlockingQueue<>(maxInFlight);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+
+        Thread reader = new Thread(() -> {
+            int i = 0;
+            try {
+                for (; i < files.size(); i++) {
+                    inFlight.acquire();
+                    submit(files.get(i), i, pool, completed);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();   // the writer has finished or failed
+            } catch (Throwable t) {
+                // Never leave the writer waiting: this and every later file report the failure
+                try {
+                    for (; i < files.size(); i++) {
+                        completed.put(new Completed(i, errorLine(files.get(i), t)));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "batch-reader");
+
+        reader.start();
+        try {
+            out.write(CSV_HEADER);
+            out.write(System.lineSeparator());
+
+            // Writer stage: reorder completions back into input order
+            Map<Integer, String> pending = new HashMap<>();
+            int next = 0;
+            while (next < files.size()) {
+                Completed done = completed.take();
+                pending.put(done.index, done.line);
+                String line;
+                while ((line = pending.remove(next)) != null) {
+                    out.write(line);
+                    out.write(System.lineSeparator());
+                    next++;
+                    inFlight.release();
+                }
+            }
+            out.flush();
+        } finally {
+            reader.interrupt();
+            reader.join();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse one file on the reader thread and hand it to the pool; exactly one
+     * completion is enqueued for index whatever fails.
+     */
+    private void submit(File file, int index, ExecutorService pool, BlockingQueue<Completed> completed)
+            throws InterruptedException {
+        Graph graph;
+        int source;
+        try {
+            graph = Graph.fromJsonFile(file.getPath());
+            source = Math.max(Graph.getSourceFromJson(file.getPath()), 0);
+        } catch (Throwable t) {
+            completed.put(new Completed(index, errorLine(file, t)));
+            return;
+        }
+        try {
+            pool.execute(() -> {
+                String line;
+                try {
+                    line = analyze(file, graph, source);
+                } catch (Throwable t) {
+                    line = errorLine(file, t);
+                } finally {
+                    Workspace.trim();
+                }
+                // Never blocks: the queue has a slot for every in-flight file
+                completed.add(new Completed(index, line));
+            });
+        } catch (RejectedExecutionException e) {
+            completed.put(new Completed(index, errorLine(file, e)));
+        }
+    }
+
+    /**
+     * Analyze files one after another on the calling thread; the output matches {@link #run}.
+     */
+    public void runSequential(List<File> files, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write(System.lineSeparator());
+        for (File file : files) {
+            String line;
+            try {
+                Graph graph = Graph.fromJsonFile(file.getPath());
+                int source = Math.max(Graph.getSourceFromJson(file.getPath()), 0);
+                line = analyze(file, graph, source);
+            } catch (Throwable t) {
+                line = errorLine(file, t);
+            }
+            out.write(line);
+            out.write(System.lineSeparator());
+        }
+        out.flush();
+    }
+
+    private String analyze(File file, Graph graph, int source) {
+        AnalysisResult result = cache != null
+                ? cache.getOrCompute(graph, source)
+                : AnalysisResult.compute(graph, source);
+        return formatResult(datasetName(file), graph.getEdgeCount(), result);
+    }
+
+    /**
+     * One CSV summary line for an analyzed dataset.
+     */
+    public static String formatResult(String dataset, int edgeCount, AnalysisResult result) {
+        int reachable = 0;
+        int criticalLength = 0;
+        if (result.hasPaths()) {
+            for (int c = 0; c < result.getSccCount(); c++) {
+                if (result.getShortestDistance(c) != Integer.MAX_VALUE) reachable++;
+                int d = result.getLongestDistance(c);
+                if (d != Integer.MIN_VALUE) criticalLength = Math.max(criticalLength, d);
+            }
+        }
+        return String.format("%s,%d,%d,%d,%d,%d,%b,%d,%d,%d",
+                dataset, result.getVertexCount(), edgeCount, result.getSccCount(),
+                result.getSccCount(), result.getCondensationEdgeCount(),
+                result.isTopoOrderValid(), result.getSource(), reachable, criticalLength);
+    }
+
+    private static String errorLine(File file, Throwable t) {
+        String message = t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+        return datasetName(file) + ",ERROR," + csvQuote(message);
+    }
+
+    /**
+     * RFC 4180 quoting, so commas, quotes and line breaks in the message stay in one field.
+     */
+    private static String csvQuote(String field) {
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+
+    private static String datasetName(File file) {
+        return file.getName().replace(".json", "");
+    }
+
+    /**
+     * Expand directories into their JSON files (sorted by name); plain files are kept as given.
+     */
+    public static List<File> collectInputs(List<String> paths) {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                File[] children = file.listFiles((d, name) -> name.endsWith(".json"));
+                if (children != null) {
+                    Arrays.sort(children);
+                    files.addAll(Arrays.asList(children));
+                }
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+}
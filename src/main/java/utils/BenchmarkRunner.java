@@ -1,9 +1,15 @@
 package utils;
 
+import common.BitsetGraph;
 import common.Graph;
 import common.Metrics;
+import graph.scc.BitsetSCC;
+import graph.scc.IterativeTarjanSCC;
+import graph.scc.PartitionedSCC;
 import graph.scc.TarjanSCC;
+import graph.partition.LabelPropagationPartitioner;
 import graph.topo.TopologicalSort;
+import graph.topo.TransitiveReduction;
 import graph.dagsp.DAGShortestPath;
 
 import java.io.File;
@@ -12,6 +18,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Benchmark runner for analyzing algorithm performance.
@@ -52,6 +59,8 @@ public class BenchmarkRunner {
         }
     }
 
+    private static final int PARTITIONS = 4;
+
     private final List<BenchmarkResult> results = new ArrayList<>();
 
     /**
@@ -99,6 +108,11 @@ public class BenchmarkRunner {
             "SCCs=" + sccs.size()
         ));
 
+        if (BitsetGraph.isDense(graph)) {
+            benchmarkBitsetScc(datasetName, graph);
+        }
+        benchmarkPartitionedScc(datasetName, graph);
+
         // 2. Build Condensation
         Graph condensation = scc.buildCondensation();
         int condNodes = condensation.getVertexCount();
@@ -118,6 +132,10 @@ public class BenchmarkRunner {
             "Valid=" + !topoOrder.isEmpty()
         ));
 
+        if (!topoOrder.isEmpty()) {
+            benchmarkReduction(datasetName, origN, origE, condensation);
+        }
+
         // 4. DAG Shortest Path (if DAG exists)
         if (!topoOrder.isEmpty() && condNodes > 0) {
             DAGShortestPath dagSP = new DAGShortestPath(condensation);
@@ -151,6 +169,182 @@ public class BenchmarkRunner {
         }
     }
 
+    /**
+     * Transitive reduction of a DAG, then topological sort on the reduced graph.
+     */
+    private void benchmarkReduction(String datasetName, int origN, int origE, Graph dag) {
+        TransitiveReduction reduction = new TransitiveReduction(dag);
+        Graph reduced = reduction.reduce();
+        Metrics reductionMetrics = reduction.getMetrics();
+
+        results.add(new BenchmarkResult(
+            datasetName, "Transitive_Reduction",
+            origN, origE,
+            dag.getVertexCount(), dag.getEdgeCount(),
+            reductionMetrics.getElapsedTimeMillis(),
+            reductionMetrics.getCounter("edge_checks"),
+            "Removed=" + reduction.getEdgesRemoved()
+        ));
+
+        TopologicalSort reducedSort = new TopologicalSort(reduced);
+        List<Integer> reducedOrder = reducedSort.kahnSort();
+        Metrics reducedMetrics = reducedSort.getMetrics();
+
+        results.add(new BenchmarkResult(
+            datasetName, "Topo_Kahn_Reduced",
+            origN, origE,
+            reduced.getVertexCount(), reduced.getEdgeCount(),
+            reducedMetrics.getElapsedTimeMillis(),
+            reducedMetrics.getCounter("queue_pops"),
+            "Valid=" + !reducedOrder.isEmpty()
+        ));
+    }
+
+    /**
+     * Random DAGs large enough for redundant edges to dominate: every pair
+     * i < j is linked with the given probability.
+     */
+    public void runReductionScaling(int[] sizes, double edgeProbability) {
+        Random random = new Random(42);
+        for (int n : sizes) {
+            Graph dag = new Graph(n, true, "edge");
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (random.nextDouble() < edgeProbability) {
+                        dag.addEdge(i, j, 1 + random.nextInt(10));
+                    }
+                }
+            }
+            String name = "synthetic_dag_" + n;
+            System.out.println("Processing: " + name);
+
+            TopologicalSort fullSort = new TopologicalSort(dag);
+            fullSort.kahnSort();
+            results.add(new BenchmarkResult(
+                name, "Topo_Kahn",
+                n, dag.getEdgeCount(),
+                n, dag.getEdgeCount(),
+                fullSort.getMetrics().getElapsedTimeMillis(),
+                fullSort.getMetrics().getCounter("queue_pops"),
+                "Valid=true"
+            ));
+            benchmarkReduction(name, n, dag.getEdgeCount(), dag);
+        }
+    }
+
+    private void benchmarkBitsetScc(String datasetName, Graph graph) {
+        BitsetGraph bits = BitsetGraph.copyOf(graph);
+        BitsetSCC scc = new BitsetSCC(bits);
+        List<List<Integer>> sccs = scc.findSCCs();
+        Metrics sccMetrics = scc.getMetrics();
+
+        results.add(new BenchmarkResult(
+            datasetName, "SCC_Bitset",
+            graph.getVertexCount(), graph.getEdgeCount(),
+            graph.getVertexCount(), bits.getEdgeCount(),
+            sccMetrics.getElapsedTimeMillis(),
+            sccMetrics.getCounter("DFS_visits"),
+            "SCCs=" + sccs.size()
+        ));
+    }
+
+    /**
+     * Label-propagation partitioning plus per-partition SCCs; the row time
+     * covers both, the details give the boundary graph size.
+     */
+    private void benchmarkPartitionedScc(String datasetName, Graph graph) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        LabelPropagationPartitioner partitioner = new LabelPropagationPartitioner(graph, PARTITIONS);
+        int[] partOf = partitioner.partition();
+        PartitionedSCC scc = new PartitionedSCC(graph, partOf, threads);
+        List<List<Integer>> sccs = scc.findSCCs();
+        Metrics sccMetrics = scc.getMetrics();
+
+        results.add(new BenchmarkResult(
+            datasetName, "SCC_Partitioned",
+            graph.getVertexCount(), graph.getEdgeCount(),
+            graph.getVertexCount(), graph.getEdgeCount(),
+            partitioner.getMetrics().getElapsedTimeMillis() + sccMetrics.getElapsedTimeMillis(),
+            sccMetrics.getCounter("local_components"),
+            "SCCs=" + sccs.size() + ";Cut=" + sccMetrics.getCounter("cut_edges")
+                + ";Boundary=" + sccMetrics.getCounter("boundary_vertices")
+        ));
+    }
+
+    /**
+     * Sparse graphs of 200-vertex communities: random edges inside a
+     * community, a few forward edges between nearby communities and rare
+     * back edges, so some SCCs span communities.
+     */
+    public void runPartitionScaling(int[] sizes) {
+        Random random = new Random(42);
+        for (int n : sizes) {
+            Graph graph = new Graph(n, true, "edge");
+            for (int u = 0; u < n; u++) {
+                int community = u / 200 * 200;
+                int size = Math.min(200, n - community);
+                for (int k = 0; k < 3; k++) {
+                    graph.addEdge(u, community + random.nextInt(size), 1 + random.nextInt(10));
+                }
+                if (random.nextInt(20) == 0) {
+                    graph.addEdge(u, Math.min(n - 1, u + 200 + random.nextInt(400)), 1 + random.nextInt(10));
+                }
+                if (random.nextInt(1000) == 0) {
+                    graph.addEdge(u, Math.max(0, u - 200 - random.nextInt(400)), 1 + random.nextInt(10));
+                }
+            }
+            String name = "synthetic_communities_" + n;
+            System.out.println("Processing: " + name);
+
+            // Forward edges chain the communities, too deep for the recursive Tarjan
+            int[] componentOf = new int[n];
+            long start = System.nanoTime();
+            int count = new IterativeTarjanSCC().computeComponents(graph, componentOf);
+            results.add(new BenchmarkResult(
+                name, "SCC_IterTarjan",
+                n, graph.getEdgeCount(),
+                n, graph.getEdgeCount(),
+                (System.nanoTime() - start) / 1e6,
+                n,
+                "SCCs=" + count
+            ));
+            benchmarkPartitionedScc(name, graph);
+        }
+    }
+
+    /**
+     * Random dense graphs with planted SCCs: vertices are split into blocks of
+     * 50, edges inside a block go both ways, edges between blocks only forward.
+     */
+    public void runDenseScaling(int[] sizes, double edgeProbability) {
+        Random random = new Random(42);
+        for (int n : sizes) {
+            Graph graph = new Graph(n, true, "edge");
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    boolean allowed = i != j && (i / 50 == j / 50 || i / 50 < j / 50);
+                    if (allowed && random.nextDouble() < edgeProbability) {
+                        graph.addEdge(i, j, 1 + random.nextInt(10));
+                    }
+                }
+            }
+            String name = "synthetic_dense_" + n;
+            System.out.println("Processing: " + name);
+
+            TarjanSCC tarjan = new TarjanSCC(graph);
+            List<List<Integer>> sccs = tarjan.findSCCs();
+            results.add(new BenchmarkResult(
+                name, "SCC_Tarjan",
+                n, graph.getEdgeCount(),
+                n, graph.getEdgeCount(),
+                tarjan.getMetrics().getElapsedTimeMillis(),
+                tarjan.getMetrics().getCounter("DFS_visits"),
+                "SCCs=" + sccs.size()
+            ));
+            benchmarkBitsetScc(name, graph);
+        }
+    }
+
     /**
      * Save results to CSV file.
      */
@@ -177,7 +371,8 @@ public class BenchmarkRunner {
         System.out.println("=".repeat(80));
 
         // Group by algorithm
-        String[] algorithms = {"SCC_Tarjan", "Topo_Kahn", "DAG_Shortest", "DAG_Longest"};
+        String[] algorithms = {"SCC_Tarjan", "SCC_IterTarjan", "SCC_Bitset", "SCC_Partitioned", "Topo_Kahn",
+            "Transitive_Reduction", "Topo_Kahn_Reduced", "DAG_Shortest", "DAG_Longest"};
         
         for (String algo : algorithms) {
             List<BenchmarkResult> algoResults = results.stream()
@@ -241,7 +436,8 @@ public class BenchmarkRunner {
             writer.println("| Algorithm | Avg Time (ms) | Best Time (ms) | Worst Time (ms) |");
             writer.println("|-----------|---------------|----------------|-----------------|");
             
-            String[] algorithms = {"SCC_Tarjan", "Topo_Kahn", "DAG_Shortest", "DAG_Longest"};
+            String[] algorithms = {"SCC_Tarjan", "SCC_IterTarjan", "SCC_Bitset", "SCC_Partitioned", "Topo_Kahn",
+                "Transitive_Reduction", "Topo_Kahn_Reduced", "DAG_Shortest", "DAG_Longest"};
             for (String algo : algorithms) {
                 List<BenchmarkResult> algoResults = results.stream()
                     .filter(r -> r.algorithm.equals(algo))
@@ -282,6 +478,9 @@ public class BenchmarkRunner {
             
             // Run benchmarks
             runner.runAllBenchmarks(dataDir);
+            runner.runReductionScaling(new int[]{500, 2000}, 0.05);
+            runner.runDenseScaling(new int[]{1000, 3000}, 0.3);
+            runner.runPartitionScaling(new int[]{20000, 200000});
             
             // Save results
             runner.saveToCSV(outputCSV);
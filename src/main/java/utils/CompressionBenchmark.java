@@ -0,0 +1,117 @@
+package utils;
+
+import common.CompressedGraph;
+import common.CsrGraph;
+import common.Graph;
+import common.GraphStorage;
+import graph.dagsp.DAGShortestPath;
+import graph.reorder.VertexPermutation;
+import graph.scc.TarjanSCC;
+import graph.topo.TopologicalSort;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Footprint and decode overhead of {@link CompressedGraph} against plain CSR
+ * ({@link CsrGraph}). Uses the shuffled grids of {@link ReorderBenchmark},
+ * once with export IDs and once after RCM relabeling, since gap sizes (and
+ * so bytes per edge) depend on ID locality. Times are the best of several
+ * runs of the algorithm phase only.
+ *
+ * Usage: CompressionBenchmark [side] [runs]
+ */
+public class CompressionBenchmark {
+
+    private interface Phase {
+        double run(GraphStorage graph);
+    }
+
+    private static double best(GraphStorage graph, int runs, Phase phase) {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            best = Math.min(best, phase.run(graph));
+        }
+        return best;
+    }
+
+    private static double scc(GraphStorage graph) {
+        TarjanSCC scc = new TarjanSCC(graph);
+        scc.findSCCs();
+        return scc.getMetrics().getElapsedTimeMillis();
+    }
+
+    private static double kahn(GraphStorage graph) {
+        TopologicalSort topo = new TopologicalSort(graph);
+        topo.kahnSort();
+        return topo.getMetrics().getElapsedTimeMillis();
+    }
+
+    private static void report(String name, CsrGraph csr, CompressedGraph compressed,
+                               int source, boolean acyclic, int runs) throws IOException {
+        File file = File.createTempFile("compressed", ".cgr");
+        try {
+            compressed.save(file);
+            double edges = csr.getEdgeCount();
+            System.out.printf("%-14s %8.2f %8.2f %8.2f %6.1fx",
+                    name, csr.getMemoryBytes() / edges, compressed.getCompressedBytes() / edges,
+                    file.length() / edges, (double) csr.getMemoryBytes() / compressed.getCompressedBytes());
+        } finally {
+            file.delete();
+        }
+
+        if (acyclic) {
+            System.out.printf(" %9s %9s %9.1f %9.1f %9.1f %9.1f%n", "-", "-",
+                    best(csr, runs, CompressionBenchmark::kahn), best(compressed, runs, CompressionBenchmark::kahn),
+                    best(csr, runs, g -> shortest(g, source)), best(compressed, runs, g -> shortest(g, source)));
+        } else {
+            System.out.printf(" %9.1f %9.1f %9s %9s %9s %9s%n",
+                    best(csr, runs, CompressionBenchmark::scc), best(compressed, runs, CompressionBenchmark::scc),
+                    "-", "-", "-", "-");
+        }
+    }
+
+    private static double shortest(GraphStorage graph, int source) {
+        DAGShortestPath sp = new DAGShortestPath(graph);
+        sp.shortestPaths(source);
+        return sp.getMetrics().getElapsedTimeMillis();
+    }
+
+    private static void run(int side, int runs) {
+        int[] id = ReorderBenchmark.shuffledIds(side * side, 7);
+        Graph cyclic = ReorderBenchmark.shuffledGrid(side, id, 0.3, 42);
+        Graph dag = ReorderBenchmark.shuffledGrid(side, id, 0.0, 42);
+        int corner = id[0];
+
+        System.out.printf("Grid %dx%d: %d vertices, %d edges (cyclic), %d edges (DAG)%n",
+                side, side, cyclic.getVertexCount(), cyclic.getEdgeCount(), dag.getEdgeCount());
+        System.out.printf("%-14s %8s %8s %8s %7s %9s %9s %9s %9s %9s %9s%n", "Graph", "CSR B/e", "Comp B/e",
+                "File B/e", "Ratio", "SCC csr", "SCC comp", "Kahn csr", "Kahn comp", "SP csr", "SP comp");
+
+        try {
+            VertexPermutation identity = VertexPermutation.identity(cyclic.getVertexCount());
+            VertexPermutation cyclicRcm = VertexPermutation.reverseCuthillMcKee(cyclic);
+            VertexPermutation dagRcm = VertexPermutation.reverseCuthillMcKee(dag);
+
+            CsrGraph csr = identity.apply(cyclic);
+            report("cyclic", csr, CompressedGraph.copyOf(csr), 0, false, runs);
+            csr = cyclicRcm.apply(cyclic);
+            report("cyclic rcm", csr, CompressedGraph.copyOf(csr), 0, false, runs);
+            csr = identity.apply(dag);
+            report("dag", csr, CompressedGraph.copyOf(csr), corner, true, runs);
+            csr = dagRcm.apply(dag);
+            report("dag rcm", csr, CompressedGraph.copyOf(csr), dagRcm.toNew(corner), true, runs);
+        } catch (IOException e) {
+            System.err.println("Error writing compressed graph: " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 700;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        // Tarjan's DFS recurses once per vertex on a path
+        Thread worker = new Thread(null, () -> run(side, runs), "compression-benchmark", 1L << 30);
+        worker.start();
+        worker.join();
+    }
+}
@@ -0,0 +1,163 @@
+package utils;
+
+import common.Graph;
+import common.MultiWeightGraph;
+import graph.dagsp.ResourceConstrainedPath;
+import graph.dagsp.ResourceConstrainedPath.ConstrainedResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link ResourceConstrainedPath} against exhaustive path
+ * enumeration. Each dataset's condensation is turned into a two-weight DAG
+ * (duration = edge weight, resource derived so that fast edges are
+ * expensive) and every vertex reachable from the source is queried with a
+ * budget halfway between its least-resource path and its fastest path.
+ * Layered synthetic DAGs show how both scale with the number of paths.
+ * Both methods run once to warm up and then report the best of runs.
+ *
+ * Usage: ConstrainedPathBenchmark [data-dir] [runs]
+ */
+public class ConstrainedPathBenchmark {
+    private static final long UNBOUNDED = Long.MAX_VALUE / 8;
+    private static final long MAX_EXPANSIONS = 50_000_000L;
+
+    /**
+     * Duration from dimension 0 of the condensation, resource from the inverse of it.
+     */
+    static MultiWeightGraph withResources(Graph condensation) {
+        int n = condensation.getVertexCount();
+        MultiWeightGraph graph = new MultiWeightGraph(n, 2);
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < condensation.getOutDegree(u); i++) {
+                int v = condensation.getEdgeTarget(u, i);
+                int duration = condensation.getEdgeWeight(u, i);
+                int resource = Math.max(1, 11 - duration) + (u * 31 + v * 17) % 3;
+                graph.addEdge(u, v, duration, resource);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Complete bipartite links between consecutive layers, random weights.
+     * Vertex 0 is a single source layer and the last vertex a single sink.
+     */
+    static MultiWeightGraph layered(int width, int layers, long seed) {
+        Random random = new Random(seed);
+        int n = width * layers + 2;
+        MultiWeightGraph graph = new MultiWeightGraph(n, 2);
+        for (int j = 0; j < width; j++) {
+            graph.addEdge(0, 1 + j, 1 + random.nextInt(10), 1 + random.nextInt(10));
+            graph.addEdge(1 + (layers - 1) * width + j, n - 1, 1 + random.nextInt(10), 1 + random.nextInt(10));
+        }
+        for (int l = 0; l + 1 < layers; l++) {
+            for (int a = 0; a < width; a++) {
+                for (int b = 0; b < width; b++) {
+                    int duration = 1 + random.nextInt(10);
+                    graph.addEdge(1 + l * width + a, 1 + (l + 1) * width + b, duration, 12 - duration);
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static void run(String name, MultiWeightGraph graph, int source, int[] targets, int runs) {
+        ResourceConstrainedPath solver = new ResourceConstrainedPath(graph);
+        // Swapping the dimensions yields the least-resource path
+        ResourceConstrainedPath frugal = new ResourceConstrainedPath(graph, 1, 0);
+        long[] budgets = new long[targets.length];
+        for (int t = 0; t < targets.length; t++) {
+            ConstrainedResult fastest = solver.solve(source, targets[t], UNBOUNDED);
+            ConstrainedResult cheapest = frugal.solve(source, targets[t], UNBOUNDED);
+            budgets[t] = (fastest.resource + cheapest.duration) / 2;
+        }
+
+        // Both sides get one unmeasured warm-up pass and then report their best of runs
+        ConstrainedResult[] labelResults = new ConstrainedResult[targets.length];
+        for (int t = 0; t < targets.length; t++) {
+            labelResults[t] = solver.solve(source, targets[t], budgets[t]);
+        }
+        double labelMs = Double.MAX_VALUE;
+        long labels = 0;
+        for (int r = 0; r < runs; r++) {
+            long start = System.nanoTime();
+            labels = 0;
+            for (int t = 0; t < targets.length; t++) {
+                labelResults[t] = solver.solve(source, targets[t], budgets[t]);
+                labels += solver.getMetrics().getCounter("labels_created");
+            }
+            labelMs = Math.min(labelMs, (System.nanoTime() - start) / 1_000_000.0);
+        }
+
+        int feasible = 0;
+        String agreement = "yes";
+        for (int t = 0; t < targets.length; t++) {
+            ConstrainedResult exact = solver.bruteForce(source, targets[t], budgets[t], MAX_EXPANSIONS);
+            if (exact == null) {
+                agreement = "n/a";
+                break;
+            }
+            if (exact.feasible) feasible++;
+            if (exact.feasible != labelResults[t].feasible
+                    || (exact.feasible && exact.duration != labelResults[t].duration)) {
+                agreement = "NO";
+            }
+        }
+        double bruteMs = Double.MAX_VALUE;
+        for (int r = 0; r < runs && !"n/a".equals(agreement); r++) {
+            long start = System.nanoTime();
+            for (int t = 0; t < targets.length; t++) {
+                solver.bruteForce(source, targets[t], budgets[t], MAX_EXPANSIONS);
+            }
+            bruteMs = Math.min(bruteMs, (System.nanoTime() - start) / 1_000_000.0);
+        }
+
+        System.out.printf("%-22s %5d %6d %7d %8d %10.3f %12s %6s%n", name, graph.getVertexCount(),
+                graph.getEdgeCount(), targets.length, labels, labelMs,
+                "n/a".equals(agreement) ? "> limit" : String.format("%.3f", bruteMs), agreement);
+        if ("yes".equals(agreement) && feasible < targets.length) {
+            System.out.printf("%-22s   (%d of %d queries infeasible within budget)%n", "",
+                    targets.length - feasible, targets.length);
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            String dataDir = args.length > 0 ? args[0] : "data";
+            int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+            System.out.printf("%-22s %5s %6s %7s %8s %10s %12s %6s%n", "Dataset", "V", "E",
+                    "Queries", "Labels", "Labels ms", "Brute ms", "Match");
+
+            for (File file : BatchAnalyzer.collectInputs(List.of(dataDir))) {
+                Graph graph = Graph.fromJsonFile(file.getPath());
+                int source = Math.max(Graph.getSourceFromJson(file.getPath()), 0);
+                AnalysisResult result = AnalysisResult.compute(graph, source);
+                if (!result.hasPaths()) continue;
+
+                MultiWeightGraph dag = withResources(result.getCondensation());
+                int reachable = 0;
+                for (int v = 0; v < result.getSccCount(); v++) {
+                    if (result.getShortestDistance(v) != Integer.MAX_VALUE) reachable++;
+                }
+                int[] targets = new int[reachable];
+                for (int v = 0, k = 0; v < result.getSccCount(); v++) {
+                    if (result.getShortestDistance(v) != Integer.MAX_VALUE) targets[k++] = v;
+                }
+                run(file.getName().replace(".json", ""), dag, result.getCondensationSource(), targets, runs);
+            }
+
+            for (int layers = 6; layers <= 14; layers += 4) {
+                MultiWeightGraph graph = layered(4, layers, 42);
+                run("layered_4x" + layers, graph, 0, new int[]{graph.getVertexCount() - 1}, runs);
+            }
+        } catch (IOException e) {
+            System.err.println("Error running constrained path benchmark: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
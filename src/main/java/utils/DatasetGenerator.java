@@ -1,8 +1,8 @@
 package utils;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
@@ -262,11 +262,26 @@ public class DatasetGenerator {
 
     /**
      * Save graph to JSON file.
+     * Written field by field with a streaming writer instead of reflection.
      */
     private static void saveGraph(String filename, GraphData graph) throws IOException {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (FileWriter writer = new FileWriter(filename)) {
-            gson.toJson(graph, writer);
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(new FileWriter(filename)))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("directed").value(graph.directed);
+            writer.name("n").value(graph.n);
+            writer.name("edges").beginArray();
+            for (Edge edge : graph.edges) {
+                writer.beginObject();
+                writer.name("u").value(edge.u);
+                writer.name("v").value(edge.v);
+                writer.name("w").value(edge.w);
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.name("source").value(graph.source);
+            writer.name("weight_model").value(graph.weight_model);
+            writer.endObject();
         }
     }
 
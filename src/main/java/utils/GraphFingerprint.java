@@ -0,0 +1,110 @@
+package utils;
+
+import common.EdgeCursor;
+import common.GraphStorage;
+
+/**
+ * 128-bit content hash of a graph and analysis source.
+ * Two independent 64-bit lanes are streamed over the vertex count,
+ * weight model, node weights and every edge (target, weight) in order;
+ * the source is mixed in last, so a caller that keeps a graph can hash
+ * its content once and derive the key of each source in O(1).
+ */
+public final class GraphFingerprint {
+    private static final long SEED_HI = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LO = 0xC2B2AE3D27D4EB4FL;
+
+    private final long hi;
+    private final long lo;
+
+    private GraphFingerprint(long hi, long lo) {
+        this.hi = hi;
+        this.lo = lo;
+    }
+
+    /**
+     * Fingerprint a graph for analyses started at the given source vertex.
+     */
+    public static GraphFingerprint of(GraphStorage graph, int source) {
+        return of(graph).withSource(source);
+    }
+
+    /**
+     * Fingerprint of the graph content alone; combine with {@link #withSource}
+     * to get a cache key.
+     */
+    public static GraphFingerprint of(GraphStorage graph) {
+        int n = graph.getVertexCount();
+        long h1 = SEED_HI;
+        long h2 = SEED_LO;
+
+        h1 = mix(h1, n);
+        h1 = mix(h1, graph.isDirected() ? 1 : 0);
+        h2 = mix(h2, graph.getWeightModel().hashCode());
+
+        // Sequential cursor: indexed access decodes from the row start on compressed storage
+        EdgeCursor edges = graph.cursor();
+        for (int u = 0; u < n; u++) {
+            int degree = graph.getOutDegree(u);
+            h1 = mix(h1, ((long) u << 32) | (degree & 0xFFFFFFFFL));
+            h2 = mix(h2, graph.getNodeWeight(u));
+            edges.reset(u);
+            while (edges.next()) {
+                long edge = ((long) edges.target() << 32) | (edges.weight() & 0xFFFFFFFFL);
+                h1 = mix(h1, edge);
+                h2 = mix(h2, edge ^ h1);
+            }
+        }
+
+        return new GraphFingerprint(fmix(h1 ^ h2), fmix(h2 + h1));
+    }
+
+    /**
+     * Key for analyses of this content fingerprint's graph from source.
+     */
+    public GraphFingerprint withSource(int source) {
+        long h1 = mix(hi, source);
+        long h2 = mix(lo, h1);
+        return new GraphFingerprint(fmix(h1 ^ h2), fmix(h2 + h1));
+    }
+
+    private static long mix(long h, long value) {
+        h ^= value * 0xFF51AFD7ED558CCDL;
+        h = Long.rotateLeft(h, 31);
+        return h * 5 + 0x52DCE729;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Hex form, usable as a file name.
+     */
+    public String toHex() {
+        return String.format("%016x%016x", hi, lo);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GraphFingerprint)) return false;
+        GraphFingerprint other = (GraphFingerprint) o;
+        return hi == other.hi && lo == other.lo;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (lo ^ (lo >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
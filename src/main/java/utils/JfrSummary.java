@@ -0,0 +1,180 @@
+package utils;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summarizes the pipeline's JDK Flight Recorder events from a .jfr file
+ * into markdown tables: time, edges scanned and allocation per phase, per
+ * engine, and optionally per input file. Phases do not overlap; engine
+ * calls can nest (DAG paths include their own Kahn sort).
+ *
+ * Record with:
+ * <pre>
+ * java -XX:StartFlightRecording=filename=run.jfr,settings=profile -jar assignment4.jar data
+ * </pre>
+ *
+ * Usage: JfrSummary recording.jfr [--by-input]
+ */
+public class JfrSummary {
+    static final String PHASE_EVENT = "scheduling.Phase";
+    static final String ENGINE_EVENT = "scheduling.Engine";
+    static final String ANALYSIS_EVENT = "scheduling.Analysis";
+
+    // Pipeline order; phases not listed here follow in first-seen order
+    private static final List<String> PHASES =
+            Arrays.asList("load", "scc", "condensation", "topo", "shortest", "longest", "print");
+
+    /**
+     * Totals over the events sharing one phase or engine name.
+     */
+    static final class Row {
+        final String name;
+        int count;
+        long totalNanos;
+        long maxNanos;
+        long edgesScanned = -1;
+        long allocatedBytes = -1;
+
+        Row(String name) {
+            this.name = name;
+        }
+
+        void add(RecordedEvent event) {
+            long nanos = event.getDuration().toNanos();
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            edgesScanned = addKnown(edgesScanned, event.getLong("edgesScanned"));
+            allocatedBytes = addKnown(allocatedBytes, event.getLong("allocatedBytes"));
+        }
+
+        private static long addKnown(long total, long value) {
+            if (value < 0) {
+                return total;
+            }
+            return total < 0 ? value : total + value;
+        }
+    }
+
+    public static String summarize(Path recording, boolean byInput) throws IOException {
+        List<RecordedEvent> phases = new ArrayList<>();
+        List<RecordedEvent> engines = new ArrayList<>();
+        List<RecordedEvent> analyses = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String type = event.getEventType().getName();
+            if (type.equals(PHASE_EVENT)) {
+                phases.add(event);
+            } else if (type.equals(ENGINE_EVENT)) {
+                engines.add(event);
+            } else if (type.equals(ANALYSIS_EVENT)) {
+                analyses.add(event);
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        Map<String, Row> phaseRows = new LinkedHashMap<>();
+        for (String phase : PHASES) {
+            phaseRows.put(phase, new Row(phase));
+        }
+        for (RecordedEvent event : phases) {
+            phaseRows.computeIfAbsent(event.getString("phase"), Row::new).add(event);
+        }
+        phaseRows.values().removeIf(row -> row.count == 0);
+        out.append(String.format("Phases (%d events, %d inputs)%n%n", phases.size(), analyses.size()));
+        appendTable(out, "Phase", phaseRows.values());
+
+        Map<String, Row> engineRows = new LinkedHashMap<>();
+        for (RecordedEvent event : engines) {
+            engineRows.computeIfAbsent(event.getString("engine"), Row::new).add(event);
+        }
+        List<Row> byTime = new ArrayList<>(engineRows.values());
+        byTime.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        out.append(String.format("%nEngines (%d calls)%n%n", engines.size()));
+        appendTable(out, "Engine", byTime);
+
+        if (byInput) {
+            out.append(String.format("%nInputs%n%n"));
+            appendInputs(out, analyses, phases, phaseRows.keySet());
+        }
+        return out.toString();
+    }
+
+    private static void appendTable(StringBuilder out, String label, Iterable<Row> rows) {
+        long total = 0;
+        for (Row row : rows) {
+            total += row.totalNanos;
+        }
+        out.append("| ").append(label)
+                .append(" | Count | Total ms | Share | Mean ms | Max ms | Edges scanned | Allocated MB |\n");
+        out.append("|").append("-".repeat(label.length() + 2))
+                .append("|-------|----------|-------|---------|--------|---------------|--------------|\n");
+        for (Row row : rows) {
+            out.append(String.format(Locale.ROOT, "| %s | %d | %.3f | %.1f%% | %.3f | %.3f | %s | %s |%n",
+                    row.name, row.count, row.totalNanos / 1e6,
+                    total == 0 ? 0.0 : 100.0 * row.totalNanos / total,
+                    row.totalNanos / 1e6 / row.count, row.maxNanos / 1e6,
+                    row.edgesScanned < 0 ? "-" : Long.toString(row.edgesScanned),
+                    row.allocatedBytes < 0 ? "-" : String.format(Locale.ROOT, "%.2f", row.allocatedBytes / 1e6)));
+        }
+    }
+
+    /**
+     * One row per analysed input: phase events on the same thread inside the
+     * input's analysis event are attributed to it.
+     */
+    private static void appendInputs(StringBuilder out, List<RecordedEvent> analyses, List<RecordedEvent> phases,
+                                     Iterable<String> phaseNames) {
+        List<String> names = new ArrayList<>();
+        phaseNames.forEach(names::add);
+        out.append("| Input | Vertices | Edges | Total ms");
+        StringBuilder rule = new StringBuilder("|-------|----------|-------|---------");
+        for (String name : names) {
+            out.append(" | ").append(name).append(" ms");
+            rule.append("|").append("-".repeat(name.length() + 5));
+        }
+        out.append(" |\n").append(rule).append("|\n");
+
+        for (RecordedEvent analysis : analyses) {
+            long thread = threadId(analysis);
+            double[] ms = new double[names.size()];
+            for (RecordedEvent phase : phases) {
+                if (threadId(phase) == thread
+                        && !phase.getStartTime().isBefore(analysis.getStartTime())
+                        && !phase.getEndTime().isAfter(analysis.getEndTime())) {
+                    int index = names.indexOf(phase.getString("phase"));
+                    ms[index] += phase.getDuration().toNanos() / 1e6;
+                }
+            }
+            out.append(String.format(Locale.ROOT, "| %s | %d | %d | %.3f", analysis.getString("input"),
+                    analysis.getInt("vertices"), analysis.getInt("edges"), analysis.getDuration().toNanos() / 1e6));
+            for (double value : ms) {
+                out.append(String.format(Locale.ROOT, " | %.3f", value));
+            }
+            out.append(" |\n");
+        }
+    }
+
+    private static long threadId(RecordedEvent event) {
+        return event.getThread() != null ? event.getThread().getJavaThreadId() : -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JfrSummary recording.jfr [--by-input]");
+            System.exit(2);
+        }
+        boolean byInput = args.length > 1 && args[1].equals("--by-input");
+        System.out.print(summarize(Paths.get(args[0]), byInput));
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe recorder of the most recent request latencies.
+ * Keeps a fixed ring of samples so percentiles reflect recent traffic
+ * and memory stays constant however long the process runs.
+ */
+public class LatencyRecorder {
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long total;
+
+    public LatencyRecorder(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        total++;
+    }
+
+    /**
+     * Total number of recorded requests, including samples that rotated out.
+     */
+    public synchronized long getCount() {
+        return total;
+    }
+
+    /**
+     * Latency percentile (0-100) over the retained samples, in milliseconds.
+     */
+    public double percentileMillis(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (size == 0) {
+                return 0;
+            }
+            sorted = Arrays.copyOf(samples, size);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,24 @@
+package utils;
+
+/**
+ * How much of an analysis is written out.
+ */
+public enum OutputMode {
+    /** A handful of summary lines per dataset. */
+    SUMMARY,
+    /** One compact JSON object per dataset with all result arrays. */
+    JSON,
+    /** One CSV row per condensation node. */
+    CSV,
+    /** Human-readable report with every SCC and every path. */
+    FULL;
+
+    public static OutputMode parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown output mode '" + name
+                    + "', expected one of summary, json, csv, full");
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package utils;
+
+import common.BitsetGraph;
+import common.CompressedGraph;
+import common.Graph;
+import common.GraphStore;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.DagDP;
+import graph.dagsp.PointToPointQuery;
+import graph.dagsp.Semiring;
+import graph.partition.LabelPropagationPartitioner;
+import graph.scc.BitsetSCC;
+import graph.scc.GabowSCC;
+import graph.scc.IterativeTarjanSCC;
+import graph.scc.KosarajuSCC;
+import graph.scc.PartitionedSCC;
+import graph.scc.TarjanSCC;
+import graph.scc.TrimmedSCC;
+import graph.topo.TopologicalSort;
+import graph.topo.TransitiveReduction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Performance regression check for every engine on fixed generated graphs
+ * ({@link RandomGraphs}). Each engine is warmed up, then timed over several
+ * runs; the best wall time and the bytes allocated per run are compared
+ * with a baseline CSV (the best run is far more stable than the mean on a
+ * shared machine). A run fails (exit code 1) when an engine's best time
+ * exceeds its baseline by more than the tolerance. Allocation is
+ * recorded and reported but not enforced.
+ *
+ * Times are compared relative to a fixed calibration workload measured in
+ * the same run, so a uniformly slower machine (or a busier one) does not
+ * read as a regression, and an engine that looks slower is measured once
+ * more before it counts.
+ *
+ * System properties: {@code perf.tolerance} (fraction, default 0.50) and
+ * {@code perf.update=true} to rewrite the baseline instead of checking it.
+ * A missing baseline is written on the first run. The Maven profile
+ * {@code perf} runs this class during {@code verify}.
+ *
+ * Usage: PerfRegression [baseline.csv]
+ */
+public class PerfRegression {
+    private static final String HEADER = "Engine,Graph,Vertices,Edges,Best_ms,Alloc_bytes";
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+    // Differences below this are timer and scheduling noise, not regressions
+    private static final double NOISE_FLOOR_MS = 1.0;
+
+    private interface Engine {
+        /**
+         * Untimed per-run setup, e.g. a fresh copy of state that run() mutates.
+         */
+        default void prepare() {
+        }
+
+        void run();
+    }
+
+    /**
+     * An engine whose every run gets its own input from setup, built outside the timing.
+     */
+    private static <T> Engine prepared(Supplier<T> setup, Consumer<T> body) {
+        return new Engine() {
+            private T input;
+
+            @Override
+            public void prepare() {
+                input = setup.get();
+            }
+
+            @Override
+            public void run() {
+                body.accept(input);
+                input = null;
+            }
+        };
+    }
+
+    /**
+     * One engine on one graph, with its measurement.
+     */
+    static final class Measurement {
+        final String engine;
+        final String graph;
+        final int vertices;
+        final int edges;
+        final double bestMs;
+        final long allocBytes;
+
+        Measurement(String engine, String graph, int vertices, int edges, double bestMs, long allocBytes) {
+            this.engine = engine;
+            this.graph = graph;
+            this.vertices = vertices;
+            this.edges = edges;
+            this.bestMs = bestMs;
+            this.allocBytes = allocBytes;
+        }
+
+        String key() {
+            return engine + "," + graph;
+        }
+
+        String toCSV() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%.3f,%d", engine, graph, vertices, edges, bestMs, allocBytes);
+        }
+    }
+
+    private static final String CALIBRATION = "Calibration";
+
+    private final List<Measurement> measurements = new ArrayList<>();
+    private final Map<String, Engine> engines = new HashMap<>();
+    private final Map<String, Graph> graphs = new HashMap<>();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private void measure(String engine, String graphName, Graph graph, Engine body) {
+        Measurement m = time(engine, graphName, graph, body);
+        measurements.add(m);
+        engines.put(m.key(), body);
+        graphs.put(m.key(), graph);
+        System.out.printf("  %-22s %-12s %10.3f ms %14d bytes%n", engine, graphName, m.bestMs, m.allocBytes);
+    }
+
+    private Measurement time(String engine, String graphName, Graph graph, Engine body) {
+        for (int r = 0; r < WARMUP_RUNS; r++) {
+            body.prepare();
+            body.run();
+        }
+        System.gc();
+        double best = Double.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int r = 0; r < MEASURED_RUNS; r++) {
+            body.prepare();
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000.0);
+            long bytes = allocatedBytes() - bytesBefore;
+            allocated = Math.min(allocated, bytes);
+        }
+        return new Measurement(engine, graphName, graph.getVertexCount(), graph.getEdgeCount(),
+                best, allocatedBytes() < 0 ? -1 : allocated);
+    }
+
+    /**
+     * Bytes allocated so far by this thread, or -1 where the JVM does not report it.
+     */
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Pointer chasing over a random permutation plus boxed list appends,
+     * the same mix of cache misses and allocation as the engines.
+     */
+    private static long calibrationWorkload(int[] next) {
+        long sum = 0;
+        int v = 0;
+        for (int i = 0; i < next.length; i++) {
+            v = next[v];
+            sum += v;
+        }
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < next.length / 4; i++) {
+            list.add(next[i]);
+        }
+        return sum + list.size();
+    }
+
+    public void runAll() {
+        int[] cycle = RandomGraphs.randomCycle(1 << 20, 1);
+        Graph none = new Graph(0, true, "edge");
+        measure(CALIBRATION, "-", none, () -> calibrationWorkload(cycle));
+
+        Graph sparse = RandomGraphs.generate(RandomGraphs.Shape.SPARSE, 100_000, 1);
+        Graph planted = RandomGraphs.generate(RandomGraphs.Shape.PLANTED_SCCS, 100_000, 1);
+        Graph dense = RandomGraphs.generate(RandomGraphs.Shape.DENSE, 1500, 1);
+        Graph dag = RandomGraphs.generate(RandomGraphs.Shape.DAG, 100_000, 1);
+        Graph smallDag = RandomGraphs.generate(RandomGraphs.Shape.DAG, 20_000, 1);
+
+        CompressedGraph compressedSparse = CompressedGraph.copyOf(sparse);
+        int[] partOf = new LabelPropagationPartitioner(planted, 4).partition();
+        BitsetGraph denseBits = BitsetGraph.copyOf(dense);
+
+        measure("SCC_Tarjan", "sparse", sparse, () -> new TarjanSCC(sparse).findSCCs());
+        measure("SCC_Tarjan_Compressed", "sparse", sparse, () -> new TarjanSCC(compressedSparse).findSCCs());
+        int[] componentOf = new int[sparse.getVertexCount()];
+        IterativeTarjanSCC iterativeTarjan = new IterativeTarjanSCC();
+        KosarajuSCC kosaraju = new KosarajuSCC();
+        GabowSCC gabow = new GabowSCC();
+        measure("SCC_IterTarjan", "sparse", sparse, () -> iterativeTarjan.computeComponents(sparse, componentOf));
+        measure("SCC_Kosaraju", "sparse", sparse, () -> kosaraju.computeComponents(sparse, componentOf));
+        measure("SCC_Gabow", "sparse", sparse, () -> gabow.computeComponents(sparse, componentOf));
+        measure("SCC_Tarjan", "planted", planted, () -> new TarjanSCC(planted).findSCCs());
+        measure("SCC_Partitioned", "planted", planted, () -> new PartitionedSCC(planted, partOf, 4).findSCCs());
+        measure("SCC_Tarjan", "dense", dense, () -> new TarjanSCC(dense).findSCCs());
+        measure("SCC_Bitset", "dense", dense, () -> new BitsetSCC(denseBits).findSCCs());
+        int[] dagComponents = new int[dag.getVertexCount()];
+        TrimmedSCC trimmed = new TrimmedSCC();
+        measure("SCC_Trimmed", "dag", dag, () -> trimmed.computeComponents(dag, dagComponents));
+        measure("Topo_Kahn", "dag", dag, () -> new TopologicalSort(dag).kahnSort());
+        measure("Topo_DFS", "dag", dag, () -> new TopologicalSort(dag).dfsSort());
+        measure("DAG_Shortest", "dag", dag, () -> new DAGShortestPath(dag).shortestPaths(0));
+        measure("DAG_Longest", "dag", dag, () -> new DAGShortestPath(dag).longestPaths(0));
+        DagDP dp = new DagDP(dag);
+        measure("DagDP_MinPlus", "dag", dag, () -> dp.run(Semiring.MIN_PLUS, 0));
+        PointToPointQuery query = new PointToPointQuery(dag);
+        measure("P2P_Shortest_x100", "dag", dag, () -> {
+            for (int s = 0; s < 90_000; s += 900) {
+                query.shortest(s, s + 1000);
+            }
+        });
+        measure("Analysis_Lazy", "dag", dag, () -> ReachableAnalysis.compute(dag, 90_000));
+        GraphStore store = GraphStore.copyOf(dag);
+        measure("DAG_Shortest_Snapshot", "dag", dag, () -> new DAGShortestPath(store.snapshot()).shortestPaths(0));
+        // Every run edits its own copy, so all runs start from the same graph; the copy is outside the timing
+        measure("Store_AddEdge_x100", "dag", dag, prepared(() -> GraphStore.copyOf(dag), fresh -> {
+            for (int u = 0; u < 90_000; u += 900) {
+                fresh.addEdge(u, u + 1000, 1);
+            }
+        }));
+        measure("Transitive_Reduction", "small_dag", smallDag, () -> new TransitiveReduction(smallDag).reduce());
+
+        // Calibrate again at the end and keep the better run: machine load drifts during the check
+        Measurement last = time(CALIBRATION, "-", none, () -> calibrationWorkload(cycle));
+        if (last.bestMs < measurements.get(0).bestMs) {
+            measurements.set(0, last);
+            System.out.printf("  %-22s %-12s %10.3f ms (end of run)%n", CALIBRATION, "-", last.bestMs);
+        }
+    }
+
+    static Map<String, Measurement> readBaseline(File file) throws IOException {
+        Map<String, Measurement> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(HEADER)) continue;
+            String[] f = line.split(",");
+            if (f.length != 6) {
+                throw new IOException("Malformed baseline line: " + line);
+            }
+            Measurement m = new Measurement(f[0], f[1], Integer.parseInt(f[2]), Integer.parseInt(f[3]),
+                    Double.parseDouble(f[4]), Long.parseLong(f[5]));
+            baseline.put(m.key(), m);
+        }
+        return baseline;
+    }
+
+    void writeBaseline(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println(HEADER);
+            for (Measurement m : measurements) {
+                writer.println(m.toCSV());
+            }
+        }
+    }
+
+    /**
+     * Compare with the baseline and print one line per engine; the number of regressions.
+     */
+    int compare(Map<String, Measurement> baseline, double tolerance) {
+        int regressions = 0;
+        Measurement baseCalibration = baseline.get(CALIBRATION + ",-");
+        double scale = 1;
+        for (Measurement m : measurements) {
+            if (m.engine.equals(CALIBRATION) && baseCalibration != null && baseCalibration.bestMs > 0) {
+                scale = m.bestMs / baseCalibration.bestMs;
+            }
+        }
+        System.out.printf("%nCalibration workload: %.2fx its baseline time%n", scale);
+        System.out.printf("%n%-22s %-12s %12s %12s %8s %10s%n", "Engine", "Graph", "Expected ms", "Current ms",
+                "Change", "Alloc");
+        for (int i = 0; i < measurements.size(); i++) {
+            Measurement m = measurements.get(i);
+            Measurement base = baseline.get(m.key());
+            if (base == null) {
+                System.out.printf("%-22s %-12s %12s %12.3f %8s %10s%n", m.engine, m.graph, "-", m.bestMs, "new", "-");
+                continue;
+            }
+            double expected = base.bestMs * scale;
+            if (isRegression(m, expected, tolerance)) {
+                // Confirm with a second measurement before failing
+                Measurement again = time(m.engine, m.graph, graphs.get(m.key()), engines.get(m.key()));
+                if (again.bestMs < m.bestMs) {
+                    m = again;
+                    measurements.set(i, again);
+                }
+            }
+            double change = expected > 0 ? m.bestMs / expected - 1 : 0;
+            boolean regressed = isRegression(m, expected, tolerance);
+            String alloc = base.allocBytes > 0 && m.allocBytes >= 0
+                    ? String.format("%+.0f%%", 100.0 * (m.allocBytes - base.allocBytes) / base.allocBytes) : "-";
+            System.out.printf("%-22s %-12s %12.3f %12.3f %+7.0f%% %10s%s%n", m.engine, m.graph,
+                    expected, m.bestMs, 100 * change, alloc, regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions++;
+            }
+        }
+        return regressions;
+    }
+
+    private static boolean isRegression(Measurement m, double expectedMs, double tolerance) {
+        return m.bestMs > expectedMs * (1 + tolerance) && m.bestMs - expectedMs > NOISE_FLOOR_MS;
+    }
+
+    private static int run(String[] args) throws IOException {
+        File baselineFile = new File(args.length > 0 ? args[0] : "results/perf_baseline.csv");
+        double tolerance = Double.parseDouble(System.getProperty("perf.tolerance", "0.50"));
+        boolean update = Boolean.parseBoolean(System.getProperty("perf.update", "false"));
+
+        PerfRegression check = new PerfRegression();
+        System.out.println("Measuring engines (best of " + MEASURED_RUNS + " runs after " + WARMUP_RUNS + " warm-up runs)");
+        check.runAll();
+
+        if (update || !baselineFile.exists()) {
+            check.writeBaseline(baselineFile);
+            System.out.println("\nBaseline written to: " + baselineFile);
+            return 0;
+        }
+        int regressions = check.compare(readBaseline(baselineFile), tolerance);
+        if (regressions > 0) {
+            System.err.printf("%n%d engine(s) slower than baseline by more than %.0f%%%n", regressions, 100 * tolerance);
+            return 1;
+        }
+        System.out.printf("%nNo regressions beyond %.0f%% of %s%n", 100 * tolerance, baselineFile);
+        return 0;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] status = {1};
+        // Tarjan's DFS recurses once per vertex on a path
+        Thread worker = new Thread(null, () -> {
+            try {
+                status[0] = run(args);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Performance check failed: " + e.getMessage());
+            }
+        }, "perf-regression", 1L << 30);
+        worker.start();
+        worker.join();
+        System.exit(status[0]);
+    }
+}
@@ -0,0 +1,172 @@
+package utils;
+
+import common.Graph;
+
+import java.util.Random;
+
+/**
+ * Seeded random graphs of various shapes, shared by the differential tests
+ * and {@link PerfRegression}. All shapes are directed with edge weights in
+ * [-3, 20] unless noted; the same shape, size and seed always give the same graph.
+ */
+public final class RandomGraphs {
+
+    public enum Shape {
+        /** About 3 random out-edges per vertex. */
+        SPARSE,
+        /** Forward edges only (i < j), about 4 per vertex. */
+        DAG,
+        /** Blocks of 50 vertices with edges both ways inside and only forward between blocks. */
+        PLANTED_SCCS,
+        /** Every pair linked with probability 0.3. */
+        DENSE,
+        /**
+         * Cycles of 10 vertices with extra edges inside, and forward pairs between
+         * blocks linked with probability 0.3; out-edges are added in descending
+         * target order. Dense enough for the bitset engines, with n / 10 SCCs.
+         */
+        DENSE_BLOCKS,
+        /** A path 0 -> 1 -> ... -> n-1, closed into a cycle. */
+        CYCLE,
+        /** A long path with shortcuts, acyclic. */
+        CHAIN,
+        /** Grid with right/down edges and occasional left/up edges. */
+        GRID,
+        /** Hub 0 linked to and from every vertex, plus a few spokes between leaves. */
+        STAR,
+        /** Random edges with self-loops, parallel edges and isolated vertices. */
+        MULTI,
+        /** Forward edges with node weights (node weight model). */
+        NODE_WEIGHTED_DAG
+    }
+
+    private RandomGraphs() {
+    }
+
+    public static Graph generate(Shape shape, int n, long seed) {
+        Random random = new Random(seed);
+        Graph graph = new Graph(n, true, shape == Shape.NODE_WEIGHTED_DAG ? "node" : "edge");
+        if (n == 0) {
+            return graph;
+        }
+        switch (shape) {
+            case SPARSE:
+                for (int e = 0; e < 3 * n; e++) {
+                    graph.addEdge(random.nextInt(n), random.nextInt(n), weight(random));
+                }
+                break;
+            case DAG:
+            case NODE_WEIGHTED_DAG:
+                for (int e = 0; e < 4 * n && n > 1; e++) {
+                    int u = random.nextInt(n - 1);
+                    int v = u + 1 + random.nextInt(Math.min(n - u - 1, 1 + random.nextInt(50)));
+                    graph.addEdge(u, v, weight(random));
+                }
+                if (shape == Shape.NODE_WEIGHTED_DAG) {
+                    for (int v = 0; v < n; v++) {
+                        graph.setNodeWeight(v, random.nextInt(10));
+                    }
+                }
+                break;
+            case PLANTED_SCCS:
+                for (int i = 0; i < n; i++) {
+                    for (int k = 0; k < 4; k++) {
+                        int block = i / 50 * 50;
+                        int j = random.nextInt(4) == 0
+                                ? Math.min(n - 1, block + random.nextInt(n - block))
+                                : block + random.nextInt(Math.min(50, n - block));
+                        if (j != i) graph.addEdge(i, j, weight(random));
+                    }
+                }
+                break;
+            case DENSE:
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        if (i != j && random.nextDouble() < 0.3) graph.addEdge(i, j, weight(random));
+                    }
+                }
+                break;
+            case DENSE_BLOCKS:
+                for (int i = 0; i < n; i++) {
+                    int block = i / 10;
+                    int next = i + 1 < Math.min(n, block * 10 + 10) ? i + 1 : block * 10;
+                    for (int j = n - 1; j >= 0; j--) {
+                        boolean link = j / 10 == block
+                                ? j != i && (j == next || random.nextInt(3) == 0)
+                                : j / 10 > block && random.nextDouble() < 0.3;
+                        if (link) graph.addEdge(i, j, weight(random));
+                    }
+                }
+                break;
+            case CYCLE:
+                for (int i = 0; i < n; i++) {
+                    graph.addEdge(i, (i + 1) % n, weight(random));
+                }
+                break;
+            case CHAIN:
+                for (int i = 0; i + 1 < n; i++) {
+                    graph.addEdge(i, i + 1, weight(random));
+                    if (random.nextInt(4) == 0) {
+                        graph.addEdge(i, Math.min(n - 1, i + 2 + random.nextInt(10)), weight(random));
+                    }
+                }
+                break;
+            case GRID: {
+                int side = (int) Math.ceil(Math.sqrt(n));
+                for (int v = 0; v < n; v++) {
+                    int r = v / side, c = v % side;
+                    if (c + 1 < side && v + 1 < n) graph.addEdge(v, v + 1, weight(random));
+                    if (v + side < n) graph.addEdge(v, v + side, weight(random));
+                    if (c > 0 && random.nextInt(10) == 0) graph.addEdge(v, v - 1, weight(random));
+                    if (r > 0 && random.nextInt(10) == 0) graph.addEdge(v, v - side, weight(random));
+                }
+                break;
+            }
+            case STAR:
+                for (int v = 1; v < n; v++) {
+                    graph.addEdge(0, v, weight(random));
+                    if (random.nextBoolean()) graph.addEdge(v, 0, weight(random));
+                    if (random.nextInt(5) == 0) graph.addEdge(v, 1 + random.nextInt(n - 1), weight(random));
+                }
+                break;
+            case MULTI:
+                for (int e = 0; e < 2 * n; e++) {
+                    // Leave the top tenth of vertices isolated
+                    int u = random.nextInt(Math.max(1, n - n / 10));
+                    int v = random.nextInt(5) == 0 ? u : random.nextInt(Math.max(1, n - n / 10));
+                    graph.addEdge(u, v, weight(random));
+                    if (random.nextInt(4) == 0) graph.addEdge(u, v, weight(random));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+        return graph;
+    }
+
+    /**
+     * A random cyclic permutation: following next[v] from any vertex visits all n vertices.
+     */
+    public static int[] randomCycle(int n, long seed) {
+        Random random = new Random(seed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++) {
+            next[order[i]] = order[(i + 1) % n];
+        }
+        return next;
+    }
+
+    private static int weight(Random random) {
+        return random.nextInt(24) - 3;
+    }
+}
@@ -0,0 +1,273 @@
+package utils;
+
+import common.EdgeCursor;
+import common.GraphStorage;
+import common.SparseIntMap;
+
+import java.util.Arrays;
+
+/**
+ * Lazy counterpart of {@link AnalysisResult}: SCCs, condensation and DAG
+ * paths for only the part of the graph reachable from the source. An
+ * iterative Tarjan starts at the source and discovers vertices as it goes,
+ * indexing them through a {@link SparseIntMap}, so no array is sized by the
+ * whole graph and cost follows the reachable region rather than V + E.
+ *
+ * Components complete sinks first, so the source's component is always the
+ * last one, and walking components backwards is a topological order of the
+ * reachable condensation. Paths are relaxed in that walk, keeping the first
+ * edge between each pair of components (in ascending member order) as the
+ * full pipeline's condensation does. Distances per component therefore match
+ * {@link AnalysisResult} for every reachable component; component numbers
+ * are local to this result.
+ */
+public class ReachableAnalysis {
+    public final int source;
+    public final int vertexCount;
+
+    // Reached vertices in discovery order
+    public final int[] vertices;
+
+    // Members of component c: componentMembers[componentOffsets[c] .. componentOffsets[c + 1]), ascending
+    public final int componentCount;
+    public final int[] componentOffsets;
+    public final int[] componentMembers;
+    public final int sourceComponent;
+    public final int condensationEdgeCount;
+
+    // Per component, from the source's component
+    public final int[] shortestDist;
+    public final int[] shortestParent;
+    public final int[] longestDist;
+    public final int[] longestParent;
+
+    public final long edgesScanned;
+    public final double timeMs;
+
+    private final SparseIntMap localIndex;
+    private final int[] componentOfLocal;
+
+    // Traversal state, dropped when the constructor returns
+    private int[] low;
+    private int[] component;
+    private int[] stack;
+    private int[] call;
+    private EdgeCursor[] cursors;
+    private int[] offsets;
+    private int[] members;
+
+    private ReachableAnalysis(GraphStorage graph, int source) {
+        if (source < 0 || source >= graph.getVertexCount()) {
+            throw new IllegalArgumentException("Invalid source vertex " + source);
+        }
+        long start = System.nanoTime();
+        this.source = source;
+        this.vertexCount = graph.getVertexCount();
+        this.localIndex = new SparseIntMap();
+
+        int[] reached = new int[16];
+        low = new int[16];
+        component = new int[16];
+        stack = new int[16];
+        call = new int[16];
+        members = new int[16];
+        offsets = new int[17];
+        cursors = new EdgeCursor[16];
+
+        int count = 0;
+        int sp = 0;
+        int components = 0;
+        int memberPos = 0;
+        long scanned = 0;
+
+        // Iterative Tarjan from the source; local index doubles as discovery time
+        localIndex.put(source, count);
+        reached[0] = source;
+        low[0] = 0;
+        component[0] = -1;
+        stack[sp++] = 0;
+        count++;
+        call[0] = 0;
+        cursorAt(graph, 0).reset(source);
+        int depth = 1;
+
+        while (depth > 0) {
+            int u = call[depth - 1];
+            EdgeCursor edges = cursors[depth - 1];
+            boolean descended = false;
+            while (edges.next()) {
+                scanned++;
+                int w = edges.target();
+                int lw = localIndex.get(w);
+                if (lw == -1) {
+                    lw = count++;
+                    if (lw == reached.length) {
+                        reached = Arrays.copyOf(reached, lw * 2);
+                        grow(lw * 2);
+                    }
+                    localIndex.put(w, lw);
+                    reached[lw] = w;
+                    low[lw] = lw;
+                    component[lw] = -1;
+                    stack[sp++] = lw;
+                    if (depth == call.length) {
+                        call = Arrays.copyOf(call, depth * 2);
+                    }
+                    call[depth] = lw;
+                    cursorAt(graph, depth++).reset(w);
+                    descended = true;
+                    break;
+                } else if (component[lw] == -1) {
+                    low[u] = Math.min(low[u], lw);
+                }
+            }
+            if (descended) continue;
+
+            if (low[u] == u) {
+                if (components + 1 == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[components] = memberPos;
+                int v;
+                do {
+                    v = stack[--sp];
+                    component[v] = components;
+                    members[memberPos++] = reached[v];
+                } while (v != u);
+                Arrays.sort(members, offsets[components], memberPos);
+                components++;
+            }
+            if (--depth > 0) {
+                int parent = call[depth - 1];
+                low[parent] = Math.min(low[parent], low[u]);
+            }
+        }
+        offsets[components] = memberPos;
+
+        this.vertices = Arrays.copyOf(reached, count);
+        this.componentCount = components;
+        this.componentOffsets = Arrays.copyOf(offsets, components + 1);
+        this.componentMembers = Arrays.copyOf(members, count);
+        this.componentOfLocal = Arrays.copyOf(component, count);
+        this.sourceComponent = components - 1;
+
+        // Relax in reverse completion order, i.e. topological order from the source's component
+        int k = components;
+        shortestDist = new int[k];
+        shortestParent = new int[k];
+        longestDist = new int[k];
+        longestParent = new int[k];
+        Arrays.fill(shortestDist, Integer.MAX_VALUE);
+        Arrays.fill(shortestParent, -1);
+        Arrays.fill(longestDist, Integer.MIN_VALUE);
+        Arrays.fill(longestParent, -1);
+        shortestDist[sourceComponent] = 0;
+        longestDist[sourceComponent] = 0;
+
+        boolean nodeModel = "node".equals(graph.getWeightModel());
+        int[] seenFrom = new int[k];   // component whose edges last reached d; needs no clearing
+        Arrays.fill(seenFrom, -1);
+        int condensationEdges = 0;
+        EdgeCursor edges = cursors[0];
+        for (int c = k - 1; c >= 0; c--) {
+            for (int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++) {
+                edges.reset(componentMembers[i]);
+                while (edges.next()) {
+                    scanned++;
+                    int d = componentOfLocal[localIndex.get(edges.target())];
+                    if (d == c || seenFrom[d] == c) continue;
+                    seenFrom[d] = c;
+                    condensationEdges++;
+                    int weight = nodeModel ? componentOffsets[d + 1] - componentOffsets[d] : edges.weight();
+                    if (shortestDist[c] != Integer.MAX_VALUE && shortestDist[c] + weight < shortestDist[d]) {
+                        shortestDist[d] = shortestDist[c] + weight;
+                        shortestParent[d] = c;
+                    }
+                    if (longestDist[c] != Integer.MIN_VALUE && longestDist[c] + weight > longestDist[d]) {
+                        longestDist[d] = longestDist[c] + weight;
+                        longestParent[d] = c;
+                    }
+                }
+            }
+        }
+        this.condensationEdgeCount = condensationEdges;
+        this.edgesScanned = scanned;
+        this.timeMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        low = component = stack = call = offsets = members = null;
+        cursors = null;
+    }
+
+    /**
+     * Analyze the subgraph reachable from source.
+     */
+    public static ReachableAnalysis compute(GraphStorage graph, int source) {
+        return new ReachableAnalysis(graph, source);
+    }
+
+    private void grow(int capacity) {
+        low = Arrays.copyOf(low, capacity);
+        component = Arrays.copyOf(component, capacity);
+        stack = Arrays.copyOf(stack, capacity);
+        members = Arrays.copyOf(members, capacity);
+    }
+
+    private EdgeCursor cursorAt(GraphStorage graph, int depth) {
+        if (depth == cursors.length) {
+            cursors = Arrays.copyOf(cursors, depth * 2);
+        }
+        if (cursors[depth] == null) {
+            cursors[depth] = graph.cursor();
+        }
+        return cursors[depth];
+    }
+
+    public boolean isReachable(int vertex) {
+        return localIndex.get(vertex) != -1;
+    }
+
+    /**
+     * Local component of vertex, or -1 if it is not reachable from the source.
+     */
+    public int componentOf(int vertex) {
+        int local = localIndex.get(vertex);
+        return local == -1 ? -1 : componentOfLocal[local];
+    }
+
+    /**
+     * Shortest distance to vertex's component, or Integer.MAX_VALUE if unreachable.
+     */
+    public int shortestDistanceTo(int vertex) {
+        int c = componentOf(vertex);
+        return c == -1 ? Integer.MAX_VALUE : shortestDist[c];
+    }
+
+    /**
+     * Longest distance to vertex's component, or Integer.MIN_VALUE if unreachable.
+     */
+    public int longestDistanceTo(int vertex) {
+        int c = componentOf(vertex);
+        return c == -1 ? Integer.MIN_VALUE : longestDist[c];
+    }
+
+    /**
+     * Component where the longest path from the source ends.
+     */
+    public int criticalEnd() {
+        int end = sourceComponent;
+        for (int c = 0; c < componentCount; c++) {
+            if (longestDist[c] > longestDist[end]) {
+                end = c;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Heap bytes held by this result, including the vertex index.
+     */
+    public long getMemoryBytes() {
+        return 4L * (vertices.length + componentOffsets.length + componentMembers.length + componentOfLocal.length
+                + 4L * componentCount) + localIndex.getMemoryBytes();
+    }
+}
@@ -0,0 +1,143 @@
+package utils;
+
+import common.CsrGraph;
+import common.Graph;
+import common.GraphStorage;
+import graph.dagsp.DAGShortestPath;
+import graph.reorder.VertexPermutation;
+import graph.scc.TarjanSCC;
+
+import java.util.Random;
+
+/**
+ * Effect of vertex relabeling on SCC and DAG shortest path time.
+ * Test graphs are side x side grids whose vertex IDs are shuffled, which
+ * mimics exports with arbitrary IDs: neighbors in the graph are far apart
+ * in memory. Each ordering is applied to the shuffled graph, stored as CSR,
+ * and timed (best of several runs). The average edge gap |id(u) - id(v)|
+ * is reported as a locality measure; hardware cache-miss counts can be
+ * collected by running this class under {@code perf stat -e cache-misses}.
+ *
+ * Usage: ReorderBenchmark [side] [runs]
+ */
+public class ReorderBenchmark {
+
+    /**
+     * Random permutation of 0..n-1: id[k] is the vertex ID of grid cell k.
+     */
+    static int[] shuffledIds(int n, long seed) {
+        Random random = new Random(seed);
+        int[] id = new int[n];
+        for (int i = 0; i < n; i++) {
+            id[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = id[i];
+            id[i] = id[j];
+            id[j] = t;
+        }
+        return id;
+    }
+
+    /**
+     * Grid with right/down edges (a DAG), plus left/up edges with the given
+     * probability to create cycles. Cell k gets vertex ID id[k].
+     */
+    static Graph shuffledGrid(int side, int[] id, double backEdgeProbability, long seed) {
+        Random random = new Random(seed);
+        int n = side * side;
+        Graph graph = new Graph(n, true, "edge");
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = id[r * side + c];
+                if (c + 1 < side) graph.addEdge(u, id[r * side + c + 1], 1 + random.nextInt(9));
+                if (r + 1 < side) graph.addEdge(u, id[(r + 1) * side + c], 1 + random.nextInt(9));
+                if (c > 0 && random.nextDouble() < backEdgeProbability) {
+                    graph.addEdge(u, id[r * side + c - 1], 1 + random.nextInt(9));
+                }
+                if (r > 0 && random.nextDouble() < backEdgeProbability) {
+                    graph.addEdge(u, id[(r - 1) * side + c], 1 + random.nextInt(9));
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static double timeScc(GraphStorage graph, int runs) {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            TarjanSCC scc = new TarjanSCC(graph);
+            scc.findSCCs();
+            best = Math.min(best, scc.getMetrics().getElapsedTimeMillis());
+        }
+        return best;
+    }
+
+    private static double timeShortest(GraphStorage graph, int source, int runs) {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < runs; r++) {
+            DAGShortestPath sp = new DAGShortestPath(graph);
+            sp.shortestPaths(source);
+            best = Math.min(best, sp.getMetrics().getElapsedTimeMillis());
+        }
+        return best;
+    }
+
+    private static void run(int side, int runs) {
+        int[] id = shuffledIds(side * side, 7);
+        Graph cyclic = shuffledGrid(side, id, 0.3, 42);
+        Graph dag = shuffledGrid(side, id, 0.0, 42);
+        // Top-left cell: the DAG's only source
+        int corner = id[0];
+
+        System.out.printf("Grid %dx%d: %d vertices, %d edges (cyclic), %d edges (DAG)%n",
+                side, side, cyclic.getVertexCount(), cyclic.getEdgeCount(), dag.getEdgeCount());
+        System.out.printf("%-12s %10s %12s %10s %14s%n", "Ordering", "Edge gap", "SCC ms", "DAG gap", "Shortest ms");
+
+        String[] names = {"shuffled", "rcm", "degree", "topological"};
+        for (String name : names) {
+            VertexPermutation cyclicOrder;
+            VertexPermutation dagOrder;
+            switch (name) {
+                case "rcm":
+                    cyclicOrder = VertexPermutation.reverseCuthillMcKee(cyclic);
+                    dagOrder = VertexPermutation.reverseCuthillMcKee(dag);
+                    break;
+                case "degree":
+                    cyclicOrder = VertexPermutation.byDegree(cyclic);
+                    dagOrder = VertexPermutation.byDegree(dag);
+                    break;
+                case "topological":
+                    cyclicOrder = null;
+                    dagOrder = VertexPermutation.topological(dag);
+                    break;
+                default:
+                    cyclicOrder = VertexPermutation.identity(cyclic.getVertexCount());
+                    dagOrder = VertexPermutation.identity(dag.getVertexCount());
+            }
+
+            String sccColumns;
+            if (cyclicOrder != null) {
+                CsrGraph permuted = cyclicOrder.apply(cyclic);
+                sccColumns = String.format("%10.1f %12.1f", VertexPermutation.averageEdgeGap(permuted),
+                        timeScc(permuted, runs));
+            } else {
+                sccColumns = String.format("%10s %12s", "-", "cyclic");
+            }
+            CsrGraph permutedDag = dagOrder.apply(dag);
+            System.out.printf("%-12s %s %10.1f %14.1f%n", name, sccColumns,
+                    VertexPermutation.averageEdgeGap(permutedDag),
+                    timeShortest(permutedDag, dagOrder.toNew(corner), runs));
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 700;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        // Tarjan's DFS recurses once per vertex on a path
+        Thread worker = new Thread(null, () -> run(side, runs), "reorder-benchmark", 1L << 30);
+        worker.start();
+        worker.join();
+    }
+}
@@ -0,0 +1,459 @@
+package utils;
+
+import common.GraphStorage;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Streams an {@link AnalysisResult} to a writer in one of the {@link OutputMode}s.
+ * Numbers are formatted into a reusable char buffer and paths are read
+ * straight from the parent arrays, so output costs no per-vertex garbage.
+ */
+public class ResultWriter {
+    private static final String RULE = "============================================================";
+
+    private final Writer out;
+    private final OutputMode mode;
+    private final char[] digits = new char[11];
+    private int[] pathBuffer = new int[0];
+
+    /**
+     * The writer should be buffered; it is flushed but never closed here.
+     */
+    public ResultWriter(Writer out, OutputMode mode) {
+        this.out = out;
+        this.mode = mode;
+    }
+
+    public OutputMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Write the analysis of one dataset.
+     */
+    public void write(String dataset, GraphStorage graph, AnalysisResult result) throws IOException {
+        switch (mode) {
+            case SUMMARY:
+                writeSummary(dataset, graph, result);
+                break;
+            case JSON:
+                writeJson(dataset, graph, result);
+                break;
+            case CSV:
+                writeCsv(dataset, result);
+                break;
+            default:
+                writeFull(dataset, graph, result);
+        }
+        out.flush();
+    }
+
+    // ---- summary ----
+
+    private void writeSummary(String dataset, GraphStorage graph, AnalysisResult result) throws IOException {
+        out.write("Dataset: ");
+        out.write(dataset);
+        out.write("\n  Vertices: ");
+        writeInt(graph.getVertexCount());
+        out.write(", Edges: ");
+        writeInt(graph.getEdgeCount());
+        out.write(", Weight model: ");
+        out.write(result.getWeightModel());
+        out.write("\n  SCCs: ");
+        writeInt(result.getSccCount());
+        out.write(", Condensation edges: ");
+        writeInt(result.getCondensationEdgeCount());
+        out.write("\n  Topological order: ");
+        out.write(result.hasPaths() ? "Valid" : "N/A (cyclic)");
+        if (result.hasPaths()) {
+            int end = criticalEnd(result);
+            out.write("\n  Critical path length: ");
+            writeInt(result.getLongestDistance(end));
+            out.write(" (SCC ");
+            writeInt(result.getCondensationSource());
+            out.write(" -> SCC ");
+            writeInt(end);
+            out.write(')');
+        }
+        out.write(String.format("%n  Time: scc=%.3f ms, topo=%.3f ms, shortest=%.3f ms, longest=%.3f ms%n",
+                result.getSccTimeMs(), result.getTopoTimeMs(), result.getShortestTimeMs(),
+                result.getLongestTimeMs()));
+    }
+
+    // ---- JSON ----
+
+    private void writeJson(String dataset, GraphStorage graph, AnalysisResult result) throws IOException {
+        out.write("{\"dataset\":");
+        writeJsonString(out, dataset);
+        out.write(",\"n\":");
+        writeInt(graph.getVertexCount());
+        out.write(",\"edges\":");
+        writeInt(graph.getEdgeCount());
+        out.write(",\"weight_model\":");
+        writeJsonString(out, result.getWeightModel());
+        out.write(",\"source\":");
+        writeInt(result.getSource());
+        out.write(",\"scc_count\":");
+        writeInt(result.getSccCount());
+        out.write(",\"scc_id\":");
+        writeJsonArray(result::getSccId, result.getVertexCount(), 0);
+        out.write(",\"condensation_edges\":");
+        writeInt(result.getCondensationEdgeCount());
+        out.write(",\"topo_order\":");
+        writeJsonArray(result::getTopoComponent, result.getTopoOrder().size(), 0);
+        if (result.hasPaths()) {
+            int count = result.getSccCount();
+            out.write(",\"condensation_source\":");
+            writeInt(result.getCondensationSource());
+            out.write(",\"shortest\":{\"dist\":");
+            writeJsonArray(result::getShortestDistance, count, Integer.MAX_VALUE);
+            out.write(",\"parent\":");
+            writeJsonArray(result::getShortestParent, count, 0);
+            out.write("},\"longest\":{\"dist\":");
+            writeJsonArray(result::getLongestDistance, count, Integer.MIN_VALUE);
+            out.write(",\"parent\":");
+            writeJsonArray(result::getLongestParent, count, 0);
+            out.write('}');
+        }
+        out.write("}\n");
+    }
+
+    /**
+     * Write value as a quoted JSON string, escaping quotes, backslashes and control characters.
+     */
+    public static void writeJsonString(Appendable out, String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+                out.append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Write values 0 .. length - 1 as a JSON array, with the sentinel value written as null (0 disables).
+     */
+    private void writeJsonArray(IntUnaryOperator values, int length, int nullValue) throws IOException {
+        out.write('[');
+        for (int i = 0; i < length; i++) {
+            if (i > 0) out.write(',');
+            int value = values.applyAsInt(i);
+            if (nullValue != 0 && value == nullValue) {
+                out.write("null");
+            } else {
+                writeInt(value);
+            }
+        }
+        out.write(']');
+    }
+
+    // ---- CSV ----
+
+    /**
+     * Header of the CSV mode; rows are one condensation node each.
+     */
+    public static final String CSV_HEADER =
+            "dataset,scc,size,topo_index,shortest_dist,shortest_parent,longest_dist,longest_parent,members";
+
+    private void writeCsv(String dataset, AnalysisResult result) throws IOException {
+        int[] topoIndex = new int[result.getSccCount()];
+        int sorted = result.getTopoOrder().size();
+        for (int i = 0; i < sorted; i++) {
+            topoIndex[result.getTopoComponent(i)] = i;
+        }
+
+        for (int c = 0; c < result.getSccCount(); c++) {
+            out.write(dataset);
+            out.write(',');
+            writeInt(c);
+            out.write(',');
+            writeInt(result.getSccSize(c));
+            out.write(',');
+            if (result.hasPaths()) {
+                writeInt(topoIndex[c]);
+                out.write(',');
+                writeOptional(result.getShortestDistance(c), Integer.MAX_VALUE);
+                out.write(',');
+                writeOptional(result.getShortestParent(c), -1);
+                out.write(',');
+                writeOptional(result.getLongestDistance(c), Integer.MIN_VALUE);
+                out.write(',');
+                writeOptional(result.getLongestParent(c), -1);
+            } else {
+                out.write(",,,,");
+            }
+            out.write(',');
+            for (int i = 0; i < result.getSccSize(c); i++) {
+                if (i > 0) out.write(' ');
+                writeInt(result.getSccMember(c, i));
+            }
+            out.write('\n');
+        }
+    }
+
+    private void writeOptional(int value, int missing) throws IOException {
+        if (value != missing) {
+            writeInt(value);
+        }
+    }
+
+    // ---- full report ----
+
+    private void writeFull(String dataset, GraphStorage graph, AnalysisResult result) throws IOException {
+        out.write("\nAnalyzing dataset: ");
+        out.write(dataset);
+        out.write("\n\n");
+        writeGraph(graph);
+
+        header("STEP 1: STRONGLY CONNECTED COMPONENTS (Tarjan's Algorithm)");
+        out.write("\n=== Strongly Connected Components ===\nTotal SCCs found: ");
+        writeInt(result.getSccCount());
+        out.write('\n');
+        for (int c = 0; c < result.getSccCount(); c++) {
+            out.write("SCC ");
+            writeInt(c);
+            out.write(" (size ");
+            writeInt(result.getSccSize(c));
+            out.write("): ");
+            writeMembers(result, c);
+            out.write('\n');
+        }
+        out.write("\nSCC Sizes: {");
+        for (int c = 0; c < result.getSccCount(); c++) {
+            if (c > 0) out.write(", ");
+            writeInt(c);
+            out.write('=');
+            writeInt(result.getSccSize(c));
+        }
+        out.write("}\n");
+        writeMetrics(result.getSccMetrics());
+
+        header("CONDENSATION GRAPH (DAG of SCCs)");
+        writeGraph(result.getCondensation());
+
+        header("STEP 2: TOPOLOGICAL SORT (Kahn's Algorithm)");
+        out.write("\n=== Topological Order ===\n");
+        if (!result.hasPaths()) {
+            out.write("No valid topological order (graph contains cycle)\n");
+        } else {
+            out.write("Order: ");
+            writeList(result::getTopoComponent, result.getTopoOrder().size());
+            out.write("\nValid: ");
+            out.write(String.valueOf(result.isTopoOrderValid()));
+            out.write('\n');
+        }
+        writeMetrics(result.getTopoMetrics());
+
+        if (result.hasPaths()) {
+            out.write("\n--- Derived Task Order from SCC Condensation ---\nSCC Order: ");
+            int count = result.getSccCount();
+            for (int i = 0; i < count; i++) {
+                out.write("SCC");
+                writeInt(result.getTopoComponent(i));
+                out.write(' ');
+            }
+            out.write("\n\nExpanded Task Order:\n");
+            for (int i = 0; i < count; i++) {
+                int sccId = result.getTopoComponent(i);
+                out.write("  SCC ");
+                writeInt(sccId);
+                out.write(" contains tasks: ");
+                writeMembers(result, sccId);
+                out.write('\n');
+            }
+
+            header("STEP 3: DAG SHORTEST & LONGEST PATHS");
+            out.write("\n=== Shortest Paths from Source ");
+            writeInt(result.getCondensationSource());
+            out.write(" ===\n");
+            writePaths(result, result::getShortestDistance, result::getShortestParent, Integer.MAX_VALUE);
+            writeMetrics(result.getShortestMetrics());
+
+            out.write("\n------------------------------------------------------------\n");
+            out.write("\n=== Longest Paths from Source ");
+            writeInt(result.getCondensationSource());
+            out.write(" ===\n");
+            writePaths(result, result::getLongestDistance, result::getLongestParent, Integer.MIN_VALUE);
+            writeMetrics(result.getLongestMetrics());
+
+            int end = criticalEnd(result);
+            out.write("\n=== Critical Path Analysis ===\nCritical Path: ");
+            writePath(result.getCondensationSource(), end, result::getLongestParent, count);
+            out.write(", Length: ");
+            writeInt(result.getLongestDistance(end));
+            out.write(", End: ");
+            writeInt(end);
+            out.write('\n');
+        } else {
+            out.write("\n[WARNING] Cannot compute DAG paths: graph contains cycles\n");
+            out.write("The condensation step should have resolved this, but the graph may be fully cyclic.\n");
+        }
+
+        header("ANALYSIS COMPLETE");
+        out.write("✓ SCCs found: ");
+        writeInt(result.getSccCount());
+        out.write("\n✓ Condensation nodes: ");
+        writeInt(result.getSccCount());
+        out.write("\n✓ Condensation edges: ");
+        writeInt(result.getCondensationEdgeCount());
+        out.write("\n✓ Topological order: ");
+        out.write(result.hasPaths() ? "Valid" : "N/A (cyclic)");
+        out.write("\n✓ Weight model: ");
+        out.write(graph.getWeightModel());
+        out.write('\n');
+    }
+
+    private void header(String title) throws IOException {
+        out.write('\n');
+        out.write(RULE);
+        out.write('\n');
+        out.write(title);
+        out.write('\n');
+        out.write(RULE);
+        out.write('\n');
+    }
+
+    /**
+     * An engine's Metrics.getSummary(): elapsed time and its counters.
+     */
+    private void writeMetrics(String summary) throws IOException {
+        out.write("\nMetrics:\n");
+        out.write(summary);
+        out.write('\n');
+    }
+
+    /**
+     * Same layout as Graph.toString(), streamed edge by edge.
+     */
+    private void writeGraph(GraphStorage graph) throws IOException {
+        int n = graph.getVertexCount();
+        out.write("Graph: n=");
+        writeInt(n);
+        out.write(", edges=");
+        writeInt(graph.getEdgeCount());
+        out.write(", directed=");
+        out.write(String.valueOf(graph.isDirected()));
+        out.write(", weightModel=");
+        out.write(graph.getWeightModel());
+        out.write('\n');
+        for (int u = 0; u < n; u++) {
+            writeInt(u);
+            out.write(": [");
+            int degree = graph.getOutDegree(u);
+            for (int i = 0; i < degree; i++) {
+                if (i > 0) out.write(", ");
+                out.write("->");
+                writeInt(graph.getEdgeTarget(u, i));
+                out.write("(w=");
+                writeInt(graph.getEdgeWeight(u, i));
+                out.write(')');
+            }
+            out.write("]\n");
+        }
+    }
+
+    private void writePaths(AnalysisResult result, IntUnaryOperator dist, IntUnaryOperator parent, int unreachable)
+            throws IOException {
+        out.write("Weight model: ");
+        out.write(result.getWeightModel());
+        out.write('\n');
+        int count = result.getSccCount();
+        for (int v = 0; v < count; v++) {
+            out.write("Vertex ");
+            writeInt(v);
+            int d = dist.applyAsInt(v);
+            if (d == unreachable) {
+                out.write(": unreachable\n");
+            } else {
+                out.write(": distance=");
+                writeInt(d);
+                out.write(", path=");
+                writePath(result.getCondensationSource(), v, parent, count);
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Write the source->target path of a reachable target. The parent chain
+     * is walked once, filling a reused buffer from its end, so the cost is
+     * the path length and nothing is allocated per vertex. count bounds the
+     * path length (the number of condensation nodes).
+     */
+    private void writePath(int source, int target, IntUnaryOperator parent, int count) throws IOException {
+        if (pathBuffer.length < count) {
+            pathBuffer = new int[count];
+        }
+        int start = pathBuffer.length;
+        for (int v = target; ; v = parent.applyAsInt(v)) {
+            pathBuffer[--start] = v;
+            if (v == source || parent.applyAsInt(v) == -1) break;
+        }
+        out.write('[');
+        for (int i = start; i < pathBuffer.length; i++) {
+            if (i > start) out.write(", ");
+            writeInt(pathBuffer[i]);
+        }
+        out.write(']');
+    }
+
+    private void writeMembers(AnalysisResult result, int c) throws IOException {
+        out.write('[');
+        for (int i = 0; i < result.getSccSize(c); i++) {
+            if (i > 0) out.write(", ");
+            writeInt(result.getSccMember(c, i));
+        }
+        out.write(']');
+    }
+
+    private void writeList(IntUnaryOperator values, int length) throws IOException {
+        out.write('[');
+        for (int i = 0; i < length; i++) {
+            if (i > 0) out.write(", ");
+            writeInt(values.applyAsInt(i));
+        }
+        out.write(']');
+    }
+
+    private static int criticalEnd(AnalysisResult result) {
+        int maxDist = Integer.MIN_VALUE;
+        int end = -1;
+        for (int i = 0; i < result.getSccCount(); i++) {
+            int d = result.getLongestDistance(i);
+            if (d != Integer.MIN_VALUE && d > maxDist) {
+                maxDist = d;
+                end = i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Format an int into the scratch buffer without creating a String.
+     */
+    private void writeInt(int value) throws IOException {
+        if (value == Integer.MIN_VALUE) {
+            out.write("-2147483648");
+            return;
+        }
+        int pos = digits.length;
+        boolean negative = value < 0;
+        if (negative) value = -value;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (negative) digits[--pos] = '-';
+        out.write(digits, pos, digits.length - pos);
+    }
+}
@@ -0,0 +1,86 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures end-to-end wall time of short CLI runs in fresh JVMs.
+ * Each configuration launches {@code java ... Main --output summary <file>}
+ * for every dataset, several times, and reports the median per run, so JVM
+ * startup, class loading and JSON parsing dominate what is measured.
+ *
+ * Usage: StartupBenchmark [classpath] [cds-archive] [data-dir] [runs]
+ */
+public class StartupBenchmark {
+
+    /**
+     * Median wall time in milliseconds of one CLI run per dataset.
+     */
+    public static double measure(String classpath, List<String> jvmFlags, List<File> datasets, int runs)
+            throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        double[] samples = new double[runs * datasets.size()];
+        int k = 0;
+
+        for (int r = 0; r < runs; r++) {
+            for (File dataset : datasets) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.addAll(jvmFlags);
+                command.add("-cp");
+                command.add(classpath);
+                command.add("Main");
+                command.add("--output");
+                command.add("summary");
+                command.add(dataset.getPath());
+
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(command)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .redirectError(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                int exit = process.waitFor();
+                samples[k++] = (System.nanoTime() - start) / 1_000_000.0;
+                if (exit != 0) {
+                    throw new IOException("CLI run failed with exit code " + exit + " on " + dataset);
+                }
+            }
+        }
+
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    public static void main(String[] args) {
+        try {
+            String classpath = args.length > 0 ? args[0] : System.getProperty("java.class.path");
+            String archive = args.length > 1 ? args[1] : "target/app-cds.jsa";
+            String dataDir = args.length > 2 ? args[2] : "data";
+            int runs = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+            List<File> datasets = BatchAnalyzer.collectInputs(List.of(dataDir));
+            System.out.println("Startup benchmark: " + datasets.size() + " datasets x " + runs + " runs");
+
+            // Warm the OS page cache so the first configuration is not penalized
+            measure(classpath, List.of(), datasets, 1);
+
+            double plain = measure(classpath, List.of("-Xshare:off"), datasets, runs);
+            double defaultCds = measure(classpath, List.of(), datasets, runs);
+            System.out.printf("  No class data sharing:      %8.1f ms%n", plain);
+            System.out.printf("  JDK default CDS archive:    %8.1f ms%n", defaultCds);
+
+            if (new File(archive).isFile()) {
+                double appCds = measure(classpath, List.of("-XX:SharedArchiveFile=" + archive), datasets, runs);
+                System.out.printf("  Application CDS archive:    %8.1f ms  (%s)%n", appCds, archive);
+            } else {
+                System.out.println("  Application CDS archive:    not found, build it with: mvn -Pstartup package");
+            }
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Error running startup benchmark: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,326 @@
+import common.BitsetGraph;
+import common.CompressedGraph;
+import common.Graph;
+import common.GraphStorage;
+import common.OffHeapGraph;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.DagDP;
+import graph.dagsp.PointToPointQuery;
+import graph.dagsp.Semiring;
+import graph.reorder.VertexPermutation;
+import graph.scc.BitsetSCC;
+import graph.scc.GabowSCC;
+import graph.scc.IterativeTarjanSCC;
+import graph.scc.KosarajuSCC;
+import graph.scc.PartitionedSCC;
+import graph.scc.SccAlgorithm;
+import graph.scc.TarjanSCC;
+import graph.scc.TrimmedSCC;
+import graph.topo.BitsetTopologicalSort;
+import graph.topo.TopologicalSort;
+import graph.topo.TransitiveReduction;
+import org.junit.jupiter.api.Test;
+import utils.AnalysisResult;
+import utils.RandomGraphs;
+import utils.ReachableAnalysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Randomized differential tests: every engine and storage format is run on
+ * the same generated graphs and checked against the reference
+ * implementations ({@link TarjanSCC}, {@link TopologicalSort#kahnSort()},
+ * {@link DAGShortestPath}). Failures name the shape, size and seed, which
+ * reproduce the graph through {@link RandomGraphs#generate}.
+ */
+public class EngineDifferentialTest {
+    private static final int[] SIZES = {0, 1, 2, 5, 17, 64, 300, 1000};
+    private static final int SEEDS = 2;
+
+    @Test
+    public void testSccEnginesAgreeWithTarjan() {
+        // One instance per engine for the whole run, so scratch reuse across graphs is exercised too
+        SccAlgorithm[] algorithms = {new IterativeTarjanSCC(), new KosarajuSCC(), new GabowSCC(),
+                new TrimmedSCC(), new TrimmedSCC(new KosarajuSCC())};
+        forEachGraph((g, label) -> {
+            TarjanSCC reference = new TarjanSCC(g);
+            reference.findSCCs();
+            int[] expected = canonical(g.getVertexCount(), reference::getSccId);
+            Map<Long, Integer> expectedEdges = condensationEdges(g, expected);
+            assertCondensation(expectedEdges, expected, reference.buildCondensation(), reference::getSccId,
+                    label + ": TarjanSCC condensation");
+
+            for (GraphStorage storage : new GraphStorage[]{OffHeapGraph.copyOf(g), CompressedGraph.copyOf(g)}) {
+                TarjanSCC scc = new TarjanSCC(storage);
+                scc.findSCCs();
+                assertArrayEquals(expected, canonical(g.getVertexCount(), scc::getSccId),
+                        label + ": Tarjan on " + storage.getClass().getSimpleName());
+            }
+
+            for (SccAlgorithm algorithm : algorithms) {
+                int[] componentOf = new int[g.getVertexCount()];
+                int count = algorithm.computeComponents(g, componentOf);
+                assertEquals(reference.getSccCount(), count, label + ": " + algorithm.getName() + " count");
+                assertArrayEquals(expected, canonical(g.getVertexCount(), v -> componentOf[v]),
+                        label + ": " + algorithm.getName());
+                for (int u = 0; u < g.getVertexCount(); u++) {
+                    for (int i = 0; i < g.getOutDegree(u); i++) {
+                        assertTrue(componentOf[u] >= componentOf[g.getEdgeTarget(u, i)],
+                                label + ": " + algorithm.getName() + " must number sinks first");
+                    }
+                }
+            }
+
+            // The bitset copy lists targets ascending and keeps one edge per pair, so its first edges differ
+            BitsetGraph bits = BitsetGraph.copyOf(g);
+            BitsetSCC bitset = new BitsetSCC(bits);
+            bitset.findSCCs();
+            assertArrayEquals(expected, canonical(g.getVertexCount(), bitset::getSccId), label + ": BitsetSCC");
+            assertCondensation(condensationEdges(bits, expected), expected, bitset.buildCondensation(),
+                    bitset::getSccId, label + ": BitsetSCC condensation");
+
+            for (int threads = 1; threads <= 4; threads += 3) {
+                PartitionedSCC partitioned = new PartitionedSCC(g, threads);
+                partitioned.findSCCs();
+                assertArrayEquals(expected, canonical(g.getVertexCount(), partitioned::getSccId),
+                        label + ": PartitionedSCC with " + threads + " threads");
+                assertCondensation(expectedEdges, expected, partitioned.buildCondensation(), partitioned::getSccId,
+                        label + ": PartitionedSCC condensation with " + threads + " threads");
+            }
+
+            if (g.getVertexCount() > 0) {
+                AnalysisResult result = AnalysisResult.compute(g, 0);
+                assertArrayEquals(expected, canonical(g.getVertexCount(), result::getSccId),
+                        label + ": AnalysisResult");
+                assertCondensation(expectedEdges, expected, result.getCondensation(), result::getSccId,
+                        label + ": AnalysisResult condensation");
+                AnalysisResult reordered = AnalysisResult.compute(g, 0, VertexPermutation.reverseCuthillMcKee(g));
+                assertArrayEquals(expected, canonical(g.getVertexCount(), reordered::getSccId),
+                        label + ": AnalysisResult with RCM relabeling");
+            }
+        });
+    }
+
+    @Test
+    public void testTopologicalEnginesProduceValidOrders() {
+        forEachGraph((g, label) -> {
+            TarjanSCC scc = new TarjanSCC(g);
+            scc.findSCCs();
+            boolean acyclic = scc.getSccCount() == g.getVertexCount() && !hasSelfLoop(g);
+            assertEquals(acyclic, !new TopologicalSort(g).kahnSort().isEmpty() || g.getVertexCount() == 0,
+                    label + ": kahnSort must fail exactly on cyclic graphs");
+            assertEquals(acyclic, !new BitsetTopologicalSort(BitsetGraph.copyOf(g)).sort().isEmpty()
+                    || g.getVertexCount() == 0, label + ": BitsetTopologicalSort cycle detection");
+
+            Graph dag = scc.buildCondensation();
+            TopologicalSort reference = new TopologicalSort(dag);
+            List<List<Integer>> orders = new ArrayList<>();
+            orders.add(reference.kahnSort());
+            orders.add(reference.dfsSort());
+            orders.add(new BitsetTopologicalSort(BitsetGraph.copyOf(dag)).sort());
+            orders.add(new TopologicalSort(OffHeapGraph.copyOf(dag)).kahnSort());
+            orders.add(new TopologicalSort(CompressedGraph.copyOf(dag)).kahnSort());
+            orders.add(new TopologicalSort(new TransitiveReduction(dag).reduce()).kahnSort());
+            for (int k = 0; k < orders.size(); k++) {
+                List<Integer> order = orders.get(k);
+                assertEquals(dag.getVertexCount(), new HashSet<>(order).size(), label + ": order " + k + " is not a permutation");
+                assertTrue(reference.isValidTopologicalOrder(order), label + ": order " + k + " violates an edge");
+            }
+        });
+    }
+
+    @Test
+    public void testPathEnginesAgreeWithDagShortestPath() {
+        // DENSE_BLOCKS sends AnalysisResult through the bitset engines with many SCCs
+        Graph denseBlocks = RandomGraphs.generate(RandomGraphs.Shape.DENSE_BLOCKS, 300, 0);
+        assertTrue(BitsetGraph.isDense(denseBlocks), "DENSE_BLOCKS must take the dense path");
+        assertEquals(30, new TarjanSCC(denseBlocks).findSCCs().size(), "DENSE_BLOCKS must keep its planted SCCs");
+
+        forEachGraph((g, label) -> {
+            if (g.getVertexCount() == 0) return;
+            TarjanSCC scc = new TarjanSCC(g);
+            scc.findSCCs();
+            Graph dag = scc.buildCondensation();
+            if (g.getWeightModel().equals("node")) {
+                dag = g;   // node-weighted shapes are acyclic; keep their node weights
+            }
+            int n = dag.getVertexCount();
+            int source = g.getWeightModel().equals("node") ? 0 : scc.getSccId(0);
+
+            DAGShortestPath reference = new DAGShortestPath(dag);
+            int[] shortest = reference.shortestPaths(source).distances;
+            int[] longest = reference.longestPaths(source).distances;
+
+            for (GraphStorage storage : new GraphStorage[]{OffHeapGraph.copyOf(dag), CompressedGraph.copyOf(dag)}) {
+                DAGShortestPath sp = new DAGShortestPath(storage);
+                String name = label + ": " + storage.getClass().getSimpleName();
+                assertArrayEquals(shortest, sp.shortestPaths(source).distances, name + " shortest");
+                assertArrayEquals(longest, sp.longestPaths(source).distances, name + " longest");
+            }
+
+            // Point-to-point queries reuse one instance for every target
+            PointToPointQuery query = new PointToPointQuery(dag);
+            int[] path = new int[n];
+            for (int t = 0; t < n; t += 1 + n / 200) {
+                assertEquals(shortest[t], query.shortest(source, t), label + ": point-to-point shortest to " + t);
+                int length = query.writeLastPath(path);
+                if (shortest[t] != Integer.MAX_VALUE) {
+                    assertEquals(source, path[0], label + ": point-to-point path start");
+                    assertEquals(t, path[length - 1], label + ": point-to-point path end");
+                    assertEquals(shortest[t], pathWeight(dag, path, length), label + ": point-to-point path weight");
+                }
+                assertEquals(longest[t], query.longest(source, t), label + ": point-to-point longest to " + t);
+            }
+
+            DagDP dp = new DagDP(dag);
+            long[] minPlus = dp.run(Semiring.MIN_PLUS, source);
+            long[] maxPlus = dp.run(Semiring.MAX_PLUS, source);
+            long[] reach = dp.run(Semiring.BOOLEAN, source);
+            long[] reducedReach = new DagDP(new TransitiveReduction(dag).reduce()).run(Semiring.BOOLEAN, source);
+            for (int v = 0; v < n; v++) {
+                boolean reachable = shortest[v] != Integer.MAX_VALUE;
+                assertEquals(reachable ? shortest[v] : Long.MAX_VALUE, minPlus[v], label + ": DagDP MIN_PLUS at " + v);
+                assertEquals(reachable ? longest[v] : Long.MIN_VALUE, maxPlus[v], label + ": DagDP MAX_PLUS at " + v);
+                assertEquals(reachable ? 1 : 0, reach[v], label + ": DagDP BOOLEAN at " + v);
+                assertEquals(reach[v], reducedReach[v], label + ": reachability after transitive reduction at " + v);
+            }
+
+            if (!g.getWeightModel().equals("node")) {
+                AnalysisResult result = AnalysisResult.compute(g, 0);
+                for (int v = 0; v < g.getVertexCount(); v++) {
+                    assertEquals(shortest[scc.getSccId(v)], result.getShortestDistance(result.getSccId(v)),
+                            label + ": AnalysisResult shortest distance to " + v);
+                    assertEquals(longest[scc.getSccId(v)], result.getLongestDistance(result.getSccId(v)),
+                            label + ": AnalysisResult longest distance to " + v);
+                }
+            }
+
+            // The lazy analysis must agree with the full pipeline on everything reachable
+            AnalysisResult full = AnalysisResult.compute(g, 0);
+            ReachableAnalysis lazy = ReachableAnalysis.compute(g, 0);
+            Set<Integer> reachedComponents = new HashSet<>();
+            for (int v = 0; v < g.getVertexCount(); v++) {
+                int c = full.getSccId(v);
+                boolean reachable = full.getShortestDistance(c) != Integer.MAX_VALUE;
+                assertEquals(reachable, lazy.isReachable(v), label + ": lazy reachability of " + v);
+                assertEquals(full.getShortestDistance(c), lazy.shortestDistanceTo(v),
+                        label + ": lazy shortest distance to " + v);
+                assertEquals(full.getLongestDistance(c), lazy.longestDistanceTo(v),
+                        label + ": lazy longest distance to " + v);
+                if (reachable) reachedComponents.add(c);
+            }
+            assertEquals(reachedComponents.size(), lazy.componentCount, label + ": lazy component count");
+        });
+    }
+
+    private static int pathWeight(Graph dag, int[] path, int length) {
+        boolean nodeModel = dag.getWeightModel().equals("node");
+        int total = 0;
+        for (int i = 1; i < length; i++) {
+            int best = Integer.MAX_VALUE;
+            for (int k = 0; k < dag.getOutDegree(path[i - 1]); k++) {
+                if (dag.getEdgeTarget(path[i - 1], k) == path[i]) {
+                    best = Math.min(best, nodeModel ? dag.getNodeWeight(path[i]) : dag.getEdgeWeight(path[i - 1], k));
+                }
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private interface GraphCheck {
+        void check(Graph graph, String label);
+    }
+
+    private interface ComponentOf {
+        int get(int vertex);
+    }
+
+    private static void forEachGraph(GraphCheck check) {
+        for (RandomGraphs.Shape shape : RandomGraphs.Shape.values()) {
+            for (int n : SIZES) {
+                if ((shape == RandomGraphs.Shape.DENSE || shape == RandomGraphs.Shape.DENSE_BLOCKS) && n > 300) continue;
+                for (int seed = 0; seed < SEEDS; seed++) {
+                    check.check(RandomGraphs.generate(shape, n, seed), shape + " n=" + n + " seed=" + seed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Engine-independent labeling: each vertex maps to the smallest vertex of its component.
+     */
+    private static int[] canonical(int n, ComponentOf componentOf) {
+        Map<Integer, Integer> smallest = new HashMap<>();
+        int[] label = new int[n];
+        for (int v = 0; v < n; v++) {
+            Integer first = smallest.putIfAbsent(componentOf.get(v), v);
+            label[v] = first != null ? first : v;
+        }
+        return label;
+    }
+
+    /**
+     * Reference condensation edges under canonical labels: each component pair
+     * weighted by its first edge, scanning sources ascending in adjacency order.
+     */
+    private static Map<Long, Integer> condensationEdges(GraphStorage g, int[] canonical) {
+        Map<Long, Integer> edges = new HashMap<>();
+        for (int u = 0; u < g.getVertexCount(); u++) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                int cu = canonical[u];
+                int cv = canonical[g.getEdgeTarget(u, i)];
+                if (cu != cv) {
+                    edges.putIfAbsent(((long) cu << 32) | cv, g.getEdgeWeight(u, i));
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Map an engine's condensation back to canonical labels and compare its
+     * edges, edge weights and node weights (component sizes) with the reference.
+     */
+    private static void assertCondensation(Map<Long, Integer> expectedEdges, int[] canonical, Graph dag,
+                                           ComponentOf componentOf, String label) {
+        int[] labelOf = new int[dag.getVertexCount()];
+        int[] size = new int[dag.getVertexCount()];
+        for (int v = 0; v < canonical.length; v++) {
+            labelOf[componentOf.get(v)] = canonical[v];
+            size[componentOf.get(v)]++;
+        }
+        Map<Long, Integer> edges = new HashMap<>();
+        for (int c = 0; c < dag.getVertexCount(); c++) {
+            assertEquals(size[c], dag.getNodeWeight(c), label + ": node weight of component " + c);
+            for (int i = 0; i < dag.getOutDegree(c); i++) {
+                long key = ((long) labelOf[c] << 32) | labelOf[dag.getEdgeTarget(c, i)];
+                assertNull(edges.put(key, dag.getEdgeWeight(c, i)), label + ": duplicate edge from component " + c);
+            }
+        }
+        assertEquals(expectedEdges.size(), edges.size(), label + ": edge count");
+        for (Map.Entry<Long, Integer> edge : expectedEdges.entrySet()) {
+            long key = edge.getKey();
+            assertEquals(edge.getValue(), edges.get(key),
+                    label + ": weight of edge " + (key >>> 32) + " -> " + (int) key + " (canonical labels)");
+        }
+    }
+
+    private static boolean hasSelfLoop(Graph g) {
+        for (int u = 0; u < g.getVertexCount(); u++) {
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                if (g.getEdgeTarget(u, i) == u) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
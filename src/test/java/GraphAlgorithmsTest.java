@@ -1,10 +1,81 @@
+import common.AnalysisEvent;
+import common.BitsetGraph;
+import common.CompressedGraph;
+import common.CsrGraph;
+import common.EdgeCursor;
+import common.EngineEvent;
 import common.Graph;
+import common.GraphStorage;
+import common.GraphStore;
+import common.IntListView;
+import common.MultiWeightGraph;
+import common.OffHeapGraph;
+import common.PhaseEvent;
+import common.ReverseAdjacency;
+import common.SparseIntMap;
+import common.Workspace;
+import graph.reorder.VertexPermutation;
+import graph.scc.BitsetSCC;
+import graph.scc.Components;
+import graph.scc.GabowSCC;
+import graph.scc.IterativeTarjanSCC;
+import graph.scc.KosarajuSCC;
+import graph.scc.PartitionedSCC;
+import graph.scc.SccAlgorithm;
 import graph.scc.TarjanSCC;
+import graph.scc.TrimmedSCC;
+import graph.topo.BitsetTopologicalSort;
 import graph.topo.TopologicalSort;
+import graph.topo.TransitiveReduction;
 import graph.dagsp.DAGShortestPath;
+import graph.dagsp.DagDP;
+import graph.dagsp.ParetoPathSearch;
+import graph.dagsp.PathTree;
+import graph.dagsp.PointToPointQuery;
+import graph.dagsp.ResourceConstrainedPath;
+import graph.dagsp.Semiring;
+import graph.partition.LabelPropagationPartitioner;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import utils.AnalysisCache;
+import utils.AnalysisResult;
+import utils.AnalysisServer;
+import utils.BatchAnalyzer;
+import utils.GraphFingerprint;
+import utils.JfrSummary;
+import utils.OutputMode;
+import utils.RandomGraphs;
+import utils.ReachableAnalysis;
+import utils.ResultWriter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -253,4 +324,1103 @@ public class GraphAlgorithmsTest {
         dagSP.shortestPaths(0);
         assertTrue(dagSP.getMetrics().getCounter("edge_relaxations") > 0, "Should record relaxations");
     }
+
+    @Test
+    public void testOffHeapGraphMatchesHeapGraph() throws Exception {
+        Graph g = createMultiSCCGraph();
+        OffHeapGraph offHeap = OffHeapGraph.copyOf(g);
+
+        assertEquals(g.getEdgeCount(), offHeap.getEdgeCount(), "Edge count should match");
+        assertEquals(3, new TarjanSCC(offHeap).findSCCs().size(), "Should find 3 SCCs off-heap");
+
+        DAGShortestPath heapSP = new DAGShortestPath(createSimpleDAG());
+        DAGShortestPath offHeapSP = new DAGShortestPath(OffHeapGraph.copyOf(createSimpleDAG()));
+        assertArrayEquals(heapSP.shortestPaths(0).distances, offHeapSP.shortestPaths(0).distances,
+                "Off-heap distances should match heap distances");
+
+        Graph loaded = Graph.fromJsonFile("data/medium_scc_1.json");
+        OffHeapGraph streamed = OffHeapGraph.fromJsonFile("data/medium_scc_1.json");
+        assertEquals(loaded.getEdgeCount(), streamed.getEdgeCount(), "Streamed edge count should match");
+        assertEquals(new TarjanSCC(loaded).findSCCs().size(), new TarjanSCC(streamed).findSCCs().size(),
+                "Streamed graph should have the same SCCs");
+    }
+
+    @Test
+    public void testJsonLoadersRejectEdgeWithoutEndpoint(@TempDir File dir) throws Exception {
+        String json = "{\"n\": 3, \"edges\": [{\"u\": 0, \"v\": 1}, {\"u\": 1, \"w\": 4}]}";
+        File file = new File(dir, "missing_v.json");
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> Graph.fromJson(new StringReader(json)));
+        assertThrows(IOException.class, () -> MultiWeightGraph.fromJson(new StringReader(json), 2));
+        assertThrows(IOException.class, () -> OffHeapGraph.fromJsonFile(file.getPath()));
+    }
+
+    @Test
+    public void testAnalysisCacheHitsOnUnchangedGraph(@TempDir File cacheDir) {
+        AnalysisCache cache = new AnalysisCache(1, cacheDir);
+        AnalysisResult first = cache.getOrCompute(createMultiSCCGraph(), 0);
+        AnalysisResult second = cache.getOrCompute(createMultiSCCGraph(), 0);
+
+        assertSame(first, second, "Unchanged graph should be served from memory");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, first.getSccCount(), "Cached result should hold 3 SCCs");
+
+        // A different graph evicts the single memory slot; the first result then comes from disk
+        cache.getOrCompute(createSimpleDAG(), 0);
+        assertEquals(1, cache.getEvictions());
+        AnalysisResult fromDisk = cache.getOrCompute(createMultiSCCGraph(), 0);
+        assertEquals(1, cache.getDiskHits());
+        assertEquals(first.getSccIds(), fromDisk.getSccIds(), "Disk tier should round-trip SCC ids");
+        assertEquals(first.getLongestDistances(), fromDisk.getLongestDistances(), "Disk tier should round-trip paths");
+
+        Graph modified = createMultiSCCGraph();
+        modified.addEdge(7, 0, 1);
+        assertEquals(1, cache.getOrCompute(modified, 0).getSccCount(), "Modified graph should be recomputed");
+
+        // Callers that keep a graph hash its content once and derive each source's key
+        GraphFingerprint content = GraphFingerprint.of(modified);
+        assertEquals(GraphFingerprint.of(modified, 0), content.withSource(0));
+        assertNotEquals(content.withSource(0), content.withSource(1), "Source must be part of the key");
+        long hits = cache.getHits();
+        cache.getOrCompute(content.withSource(0), modified, 0);
+        assertEquals(hits + 1, cache.getHits(), "A precomputed key should hit the same entry");
+    }
+
+    /**
+     * Stand-in for a gadget class: records whether deserialization ran its readObject.
+     */
+    static class Planted implements Serializable {
+        static final AtomicBoolean READ = new AtomicBoolean();
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            READ.set(true);
+        }
+    }
+
+    @Test
+    public void testAnalysisCacheRejectsForeignClasses(@TempDir File cacheDir) throws Exception {
+        Graph g = createMultiSCCGraph();
+        File entry = new File(cacheDir, GraphFingerprint.of(g, 0).toHex() + ".analysis");
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(entry))) {
+            out.writeObject(new Planted());
+        }
+
+        AnalysisCache cache = new AnalysisCache(4, cacheDir);
+        assertEquals(3, cache.getOrCompute(g, 0).getSccCount(), "A rejected entry should be recomputed");
+        assertFalse(Planted.READ.get(), "The filter should reject the class before it is deserialized");
+        assertEquals(0, cache.getDiskHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testBatchMatchesSequentialRun() throws Exception {
+        List<File> files = BatchAnalyzer.collectInputs(Arrays.asList("data"));
+        BatchAnalyzer batch = new BatchAnalyzer(4, 2);
+
+        StringWriter sequential = new StringWriter();
+        batch.runSequential(files, sequential);
+        StringWriter concurrent = new StringWriter();
+        batch.run(files, concurrent);
+
+        assertEquals(sequential.toString(), concurrent.toString(), "Batch output should match sequential run");
+        assertEquals(files.size() + 1, concurrent.toString().split(System.lineSeparator()).length,
+                "One line per file plus header");
+
+        // An Error in a worker must still produce that file's line instead of hanging the writer
+        AnalysisCache failing = new AnalysisCache(1) {
+            @Override
+            public AnalysisResult getOrCompute(GraphStorage graph, int source) {
+                throw new StackOverflowError();
+            }
+        };
+        StringWriter failed = new StringWriter();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> new BatchAnalyzer(2, 1, failing).run(files, failed));
+        String[] lines = failed.toString().split(System.lineSeparator());
+        assertEquals(files.size() + 1, lines.length, "One line per file plus header");
+        for (int i = 1; i < lines.length; i++) {
+            assertTrue(lines[i].endsWith(",ERROR,\"StackOverflowError\""), lines[i]);
+        }
+
+        // Error messages are quoted as one CSV field
+        AnalysisCache rejecting = new AnalysisCache(1) {
+            @Override
+            public AnalysisResult getOrCompute(GraphStorage graph, int source) {
+                throw new IllegalStateException("bad \"n\", see line 1");
+            }
+        };
+        StringWriter rejected = new StringWriter();
+        new BatchAnalyzer(1, 1, rejecting).runSequential(files.subList(0, 1), rejected);
+        assertTrue(rejected.toString().trim().endsWith(",ERROR,\"bad \"\"n\"\", see line 1\""), rejected.toString());
+    }
+
+    @Test
+    public void testResultWriterModes() throws Exception {
+        Graph g = createMultiSCCGraph();
+        AnalysisResult result = AnalysisResult.compute(g, 0);
+
+        StringWriter json = new StringWriter();
+        new ResultWriter(json, OutputMode.JSON).write("multi", g, result);
+        com.google.gson.JsonObject parsed = com.google.gson.JsonParser.parseString(json.toString()).getAsJsonObject();
+        assertEquals(3, parsed.get("scc_count").getAsInt(), "JSON should report 3 SCCs");
+        assertEquals(8, parsed.getAsJsonArray("scc_id").size(), "JSON should map every vertex");
+
+        StringWriter csv = new StringWriter();
+        new ResultWriter(csv, OutputMode.CSV).write("multi", g, result);
+        assertEquals(3, csv.toString().split("\n").length, "CSV should have one row per SCC");
+
+        StringWriter full = new StringWriter();
+        new ResultWriter(full, OutputMode.FULL).write("multi", g, result);
+        assertTrue(full.toString().contains("Critical Path: ["), "Full report should include the critical path");
+        assertTrue(full.toString().contains("Vertex 2: distance=2, path=[0, 1, 2]"), "Paths are read from the parent chain");
+        assertTrue(full.toString().contains("Valid: true"), "Full report should check the topological order");
+        assertTrue(full.toString().contains("\nMetrics:\nTime: "), "Full report should include engine metrics");
+        assertTrue(full.toString().contains("edge_relaxations: "), "Full report should include engine counters");
+
+        // Strings from the input file are escaped in JSON
+        Graph odd = new Graph(2, true, "edge\"\\\n");
+        odd.addEdge(0, 1, 1);
+        StringWriter escaped = new StringWriter();
+        new ResultWriter(escaped, OutputMode.JSON).write("a\"b", odd, AnalysisResult.compute(odd, 0));
+        com.google.gson.JsonObject oddJson = com.google.gson.JsonParser.parseString(escaped.toString()).getAsJsonObject();
+        assertEquals("edge\"\\\n", oddJson.get("weight_model").getAsString());
+        assertEquals("a\"b", oddJson.get("dataset").getAsString());
+    }
+
+    @Test
+    public void testPathTreeQueries() {
+        Graph g = createSimpleDAG();
+        DAGShortestPath dagSP = new DAGShortestPath(g);
+        DAGShortestPath.PathResult result = dagSP.shortestPaths(0);
+        PathTree tree = dagSP.pathTree(0, result);
+
+        int[] buffer = new int[g.getVertexCount()];
+        int length = tree.writePath(5, buffer);
+        assertEquals(List.of(0, 3, 4, 5), List.of(buffer[0], buffer[1], buffer[2], buffer[3]));
+        assertEquals(4, length, "Path 0->5 should have 4 vertices");
+
+        int[] visited = new int[1];
+        tree.forEachPath((vertex, path, len) -> {
+            visited[0]++;
+            assertEquals(0, path[0], "Every path should start at the source");
+            assertEquals(vertex, path[len - 1], "Every path should end at its vertex");
+            assertEquals(dagSP.reconstructPath(0, vertex, result.parent).size(), len);
+        });
+        assertEquals(6, visited[0], "All vertices are reachable from 0");
+        assertEquals(5, tree.getChildren().length, "Tree over 6 vertices has 5 edges");
+
+        Graph disconnected = new Graph(3, true, "edge");
+        disconnected.addEdge(0, 1, 1);
+        PathTree partial = new DAGShortestPath(disconnected).pathTree(0,
+                new DAGShortestPath(disconnected).shortestPaths(0));
+        assertEquals(0, partial.writePath(2, buffer), "Unreachable vertex has no path");
+        assertFalse(partial.reversePath(2).hasNext());
+        assertEquals(1, partial.reversePath(1).nextInt(), "Reverse path starts at the target");
+    }
+
+    @Test
+    public void testAnalysisServerRoundTrip() throws Exception {
+        AnalysisServer server = new AnalysisServer(0, 2, new AnalysisCache(8));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.getPort();
+            String body = Files.readString(Path.of("data/medium_scc_1.json"));
+
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(base + "/graphs"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, created.statusCode());
+            String id = com.google.gson.JsonParser.parseString(created.body()).getAsJsonObject().get("id").getAsString();
+
+            HttpResponse<String> scc = client.send(HttpRequest.newBuilder(URI.create(base + "/graphs/" + id + "/scc"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, scc.statusCode());
+            assertEquals(3, com.google.gson.JsonParser.parseString(scc.body()).getAsJsonObject()
+                    .get("scc_count").getAsInt(), "Server should report 3 SCCs");
+
+            HttpResponse<String> missing = client.send(HttpRequest.newBuilder(URI.create(base + "/graphs/nope/topo"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(404, missing.statusCode());
+
+            HttpResponse<String> stats = client.send(HttpRequest.newBuilder(URI.create(base + "/stats"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertTrue(com.google.gson.JsonParser.parseString(stats.body()).getAsJsonObject().has("p99_ms"),
+                    "Stats should report p99 latency");
+        } finally {
+            server.stop();
+        }
+
+        // Errors thrown by the analysis are answered, not dropped
+        Throwable[] failure = new Throwable[1];
+        AnalysisCache failing = new AnalysisCache(1) {
+            @Override
+            public AnalysisResult getOrCompute(GraphFingerprint key, GraphStorage graph, int source) {
+                if (failure[0] instanceof Error) throw (Error) failure[0];
+                throw (RuntimeException) failure[0];
+            }
+        };
+        AnalysisServer failingServer = new AnalysisServer(0, 1, failing);
+        failingServer.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + failingServer.getPort();
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(base + "/graphs?path=data/medium_scc_1.json"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            String id = com.google.gson.JsonParser.parseString(created.body()).getAsJsonObject().get("id").getAsString();
+            HttpRequest scc = HttpRequest.newBuilder(URI.create(base + "/graphs/" + id + "/scc"))
+                    .timeout(Duration.ofSeconds(30)).build();
+
+            failure[0] = new StackOverflowError();
+            assertEquals(500, client.send(scc, HttpResponse.BodyHandlers.ofString()).statusCode());
+            failure[0] = new OutOfMemoryError();
+            assertEquals(413, client.send(scc, HttpResponse.BodyHandlers.ofString()).statusCode());
+            failure[0] = new IllegalStateException("bad \"id\"\n\tline");
+            HttpResponse<String> rejected = client.send(scc, HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, rejected.statusCode());
+            assertEquals("bad \"id\"\n\tline", com.google.gson.JsonParser.parseString(rejected.body())
+                    .getAsJsonObject().get("error").getAsString(), "Error message should survive JSON escaping");
+        } finally {
+            failingServer.stop();
+        }
+    }
+
+    @Test
+    public void testAnalysisServerRejectsOverload() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AnalysisCache blocking = new AnalysisCache(8) {
+            @Override
+            public AnalysisResult getOrCompute(GraphFingerprint key, GraphStorage graph, int source) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getOrCompute(key, graph, source);
+            }
+        };
+        AnalysisServer server = new AnalysisServer(0, 1, blocking, 1024);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://127.0.0.1:" + server.getPort();
+
+            String large = Files.readString(Path.of("data/medium_scc_1.json"));
+            assertTrue(large.length() > 1024, "Fixture should exceed the upload limit");
+            assertEquals(413, client.send(HttpRequest.newBuilder(URI.create(base + "/graphs"))
+                    .POST(HttpRequest.BodyPublishers.ofString(large)).build(),
+                    HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(base + "/graphs"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"n\": 2, \"source\": 1, \"edges\": [{\"u\": 0, \"v\": 1}]}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, created.statusCode());
+            com.google.gson.JsonObject upload = com.google.gson.JsonParser.parseString(created.body()).getAsJsonObject();
+            assertEquals(1, upload.get("source").getAsInt(), "Source should come from the same parse");
+            HttpRequest scc = HttpRequest.newBuilder(URI.create(base + "/graphs/" + upload.get("id").getAsString() + "/scc"))
+                    .timeout(Duration.ofSeconds(30)).build();
+
+            // One running and four queued requests fill the pool; the rest must be turned away
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                responses.add(client.sendAsync(scc, HttpResponse.BodyHandlers.ofString()));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (responses.stream().filter(CompletableFuture::isDone).count() < 5 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            int busy = 0;
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                int status = response.get(30, TimeUnit.SECONDS).statusCode();
+                assertTrue(status == 200 || status == 503, "Unexpected status " + status);
+                if (status == 503) busy++;
+            }
+            assertTrue(busy >= 5, "Requests beyond the pool and its queue should get 503, got " + busy);
+        } finally {
+            release.countDown();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testParetoFrontKeepsOnlyNonDominatedPaths() {
+        // Dimensions: duration, cost
+        MultiWeightGraph g = new MultiWeightGraph(4, 2);
+        g.addEdge(0, 1, 1, 10);
+        g.addEdge(0, 2, 5, 1);
+        g.addEdge(1, 3, 1, 10);
+        g.addEdge(2, 3, 1, 1);
+        g.addEdge(0, 3, 3, 5);
+        g.addEdge(0, 3, 3, 25);   // dominated by 0->1->3 (2, 20)
+
+        ParetoPathSearch.ParetoResult result = new ParetoPathSearch(g).search(0);
+
+        assertEquals(3, result.frontSize(3), "Three trade-off paths to vertex 3");
+        assertEquals(2, result.cost(3, 0, 0), "Fastest path takes 2");
+        assertEquals(20, result.cost(3, 0, 1), "Fastest path costs 20");
+        assertEquals(List.of(0, 1, 3), result.path(3, 0));
+        assertEquals(6, result.cost(3, 2, 0), "Cheapest path takes 6");
+        assertEquals(2, result.cost(3, 2, 1), "Cheapest path costs 2");
+        assertEquals(List.of(0, 2, 3), result.path(3, 2));
+        assertEquals(1, result.frontSize(1));
+    }
+
+    @Test
+    public void testResourceConstrainedPathRespectsBudget() {
+        // Dimensions: duration, resource
+        MultiWeightGraph g = new MultiWeightGraph(5, 2);
+        g.addEdge(0, 1, 1, 8);
+        g.addEdge(1, 4, 1, 8);    // fastest: duration 2, resource 16
+        g.addEdge(0, 2, 3, 3);
+        g.addEdge(2, 4, 3, 3);    // duration 6, resource 6
+        g.addEdge(0, 3, 10, 1);
+        g.addEdge(3, 4, 10, 1);   // cheapest: duration 20, resource 2
+        g.addEdge(1, 2, 1, 1);    // 0->1->2->4: duration 5, resource 12
+
+        ResourceConstrainedPath solver = new ResourceConstrainedPath(g);
+
+        ResourceConstrainedPath.ConstrainedResult loose = solver.solve(0, 4, 100);
+        assertEquals(2, loose.duration, "Unconstrained optimum is the fastest path");
+        assertEquals(List.of(0, 1, 4), loose.path);
+
+        ResourceConstrainedPath.ConstrainedResult mid = solver.solve(0, 4, 12);
+        assertEquals(5, mid.duration);
+        assertEquals(List.of(0, 1, 2, 4), mid.path);
+
+        ResourceConstrainedPath.ConstrainedResult tight = solver.solve(0, 4, 5);
+        assertEquals(20, tight.duration);
+        assertEquals(2, tight.resource);
+
+        assertFalse(solver.solve(0, 4, 1).feasible, "No path fits a budget of 1");
+
+        for (long budget = 0; budget <= 20; budget++) {
+            ResourceConstrainedPath.ConstrainedResult exact = solver.bruteForce(0, 4, budget, 1_000);
+            ResourceConstrainedPath.ConstrainedResult labels = solver.solve(0, 4, budget);
+            assertEquals(exact.feasible, labels.feasible, "Feasibility differs at budget " + budget);
+            assertEquals(exact.duration, labels.duration, "Duration differs at budget " + budget);
+        }
+
+        // A faster label with equal resource evicts the slower one instead of sitting beside it
+        MultiWeightGraph ties = new MultiWeightGraph(4, 2);
+        ties.addEdge(0, 1, 5, 2);
+        ties.addEdge(0, 2, 1, 1);
+        ties.addEdge(2, 1, 1, 1);   // reaches 1 with resource 2 again, duration 2
+        ties.addEdge(1, 3, 1, 1);
+        ties.addEdge(0, 3, 100, 0);
+        ResourceConstrainedPath tieSolver = new ResourceConstrainedPath(ties);
+        ResourceConstrainedPath.ConstrainedResult tied = tieSolver.solve(0, 3, 10);
+        assertEquals(3, tied.duration);
+        assertEquals(List.of(0, 2, 1, 3), tied.path);
+        assertEquals(6, tieSolver.getMetrics().getCounter("labels_created"),
+                "Only the faster label at vertex 1 should be extended");
+    }
+
+    @Test
+    public void testDagDPSemirings() {
+        Graph dag = new Graph(4, true, "edge");
+        dag.addEdge(0, 1, 2);
+        dag.addEdge(0, 2, 5);
+        dag.addEdge(1, 2, 1);
+        dag.addEdge(1, 3, 7);
+        dag.addEdge(2, 3, 1);
+
+        DagDP dp = new DagDP(dag);
+        DAGShortestPath sp = new DAGShortestPath(dag);
+        long[] shortest = dp.run(Semiring.MIN_PLUS, 0);
+        long[] longest = dp.run(Semiring.MAX_PLUS, 0);
+        for (int v = 0; v < 4; v++) {
+            assertEquals(sp.shortestPaths(0).distances[v], shortest[v]);
+            assertEquals(sp.longestPaths(0).distances[v], longest[v]);
+        }
+        assertArrayEquals(new long[]{1, 1, 2, 3}, dp.run(Semiring.COUNT_CHECKED, 0));
+        assertArrayEquals(new long[]{0, 1, 1, 1}, dp.run(Semiring.BOOLEAN, 1));
+
+        // 70 chained diamonds: 2^70 paths overflow a long
+        int diamonds = 70;
+        Graph chain = new Graph(3 * diamonds + 1, true, "edge");
+        for (int d = 0; d < diamonds; d++) {
+            int base = 3 * d;
+            chain.addEdge(base, base + 1, 1);
+            chain.addEdge(base, base + 2, 1);
+            chain.addEdge(base + 1, base + 3, 1);
+            chain.addEdge(base + 2, base + 3, 1);
+        }
+        DagDP counter = new DagDP(chain);
+        int sink = 3 * diamonds;
+        assertEquals(BigInteger.TWO.pow(diamonds), counter.countPathsExact(0)[sink]);
+        assertThrows(ArithmeticException.class, () -> counter.run(Semiring.COUNT_CHECKED, 0));
+        long p = 1_000_000_007L;
+        assertEquals(BigInteger.TWO.pow(diamonds).mod(BigInteger.valueOf(p)).longValue(),
+                counter.run(Semiring.countMod(p), 0)[sink]);
+        assertEquals(1, counter.runFromRoots(Semiring.BOOLEAN)[sink]);
+    }
+
+    @Test
+    public void testTransitiveReductionKeepsReachability() {
+        Graph g = new Graph(4, true, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(0, 2, 1);   // implied by 0->1->2
+        g.addEdge(0, 3, 1);   // implied by 0->1->2->3
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 1);
+
+        TransitiveReduction reduction = new TransitiveReduction(g);
+        Graph reduced = reduction.reduce();
+        assertEquals(2, reduction.getEdgesRemoved());
+        assertEquals(3, reduced.getEdgeCount());
+
+        // Random DAG larger than one 64-bit chunk: same result as a single chunk, same reachability
+        java.util.Random random = new java.util.Random(7);
+        int n = 150;
+        Graph dag = new Graph(n, true, "edge");
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (random.nextInt(10) == 0) dag.addEdge(i, j, 1);
+            }
+        }
+        Graph chunked = new TransitiveReduction(dag, 64).reduce();
+        Graph whole = new TransitiveReduction(dag).reduce();
+        assertEquals(whole.getEdgeCount(), chunked.getEdgeCount());
+        assertTrue(whole.getEdgeCount() < dag.getEdgeCount(), "Dense random DAG has redundant edges");
+
+        DagDP original = new DagDP(dag);
+        DagDP reducedDP = new DagDP(chunked);
+        for (int v = 0; v < n; v++) {
+            assertArrayEquals(original.run(Semiring.BOOLEAN, v), reducedDP.run(Semiring.BOOLEAN, v),
+                    "Reachability from " + v + " must be unchanged");
+        }
+    }
+
+    @Test
+    public void testBitsetEnginesMatchListEngines() {
+        // Dense graph with planted SCCs of 40 vertices and forward-only edges between them
+        java.util.Random random = new java.util.Random(11);
+        int n = 300;
+        Graph g = new Graph(n, true, "edge");
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && i / 40 <= j / 40 && random.nextInt(3) == 0) {
+                    g.addEdge(i, j, 1 + random.nextInt(9));
+                }
+            }
+        }
+        assertTrue(BitsetGraph.isDense(g), "Graph should be above the density threshold");
+
+        BitsetGraph bits = BitsetGraph.copyOf(g);
+        assertEquals(g.getEdgeCount(), bits.getEdgeCount());
+        for (int i = 0; i < g.getOutDegree(5); i++) {
+            assertTrue(bits.hasEdge(5, g.getEdgeTarget(5, i)));
+        }
+        assertTrue(bits.getEdgeTarget(5, 0) < bits.getEdgeTarget(5, 1), "Bit rows list targets in ascending order");
+
+        TarjanSCC tarjan = new TarjanSCC(g);
+        tarjan.findSCCs();
+        BitsetSCC bitset = new BitsetSCC(bits);
+        bitset.findSCCs();
+        assertEquals(tarjan.getSccCount(), bitset.getSccCount());
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v += 7) {
+                assertEquals(tarjan.getSccId(u) == tarjan.getSccId(v), bitset.getSccId(u) == bitset.getSccId(v),
+                        "Vertices " + u + " and " + v + " grouped differently");
+            }
+        }
+
+        Graph condensation = bitset.buildCondensation();
+        assertEquals(tarjan.buildCondensation().getEdgeCount(), condensation.getEdgeCount());
+        List<Integer> order = new BitsetTopologicalSort(BitsetGraph.copyOf(condensation)).sort();
+        assertTrue(new TopologicalSort(condensation).isValidTopologicalOrder(order));
+        assertTrue(new BitsetTopologicalSort(bits).sort().isEmpty(), "Cyclic graph has no topological order");
+
+        AnalysisResult result = AnalysisResult.compute(g, 0);
+        assertEquals(tarjan.getSccCount(), result.getSccCount());
+        assertTrue(result.hasPaths());
+    }
+
+    @Test
+    public void testReorderedAnalysisMapsBackToOriginalIds() {
+        Graph g = new Graph(8, true, "edge");
+        g.addEdge(5, 2, 3);
+        g.addEdge(2, 7, 1);
+        g.addEdge(7, 5, 2);   // SCC {2, 5, 7}
+        g.addEdge(7, 0, 4);
+        g.addEdge(0, 6, 2);
+        g.addEdge(6, 0, 1);   // SCC {0, 6}
+        g.addEdge(6, 3, 5);
+        g.addEdge(2, 1, 9);
+        g.addEdge(1, 3, 1);
+        g.addEdge(4, 3, 1);
+
+        AnalysisResult plain = AnalysisResult.compute(g, 5);
+        for (VertexPermutation.Strategy strategy
+                : new VertexPermutation.Strategy[]{VertexPermutation.Strategy.RCM, VertexPermutation.Strategy.DEGREE}) {
+            VertexPermutation permutation = VertexPermutation.compute(g, strategy);
+            for (int v = 0; v < 8; v++) {
+                assertEquals(v, permutation.toOriginal(permutation.toNew(v)));
+            }
+
+            AnalysisResult reordered = AnalysisResult.compute(g, 5, permutation);
+            assertEquals(5, reordered.getSource());
+            assertEquals(plain.getSccCount(), reordered.getSccCount());
+            for (int u = 0; u < 8; u++) {
+                for (int v = 0; v < 8; v++) {
+                    assertEquals(plain.getSccId(u) == plain.getSccId(v),
+                            reordered.getSccId(u) == reordered.getSccId(v));
+                }
+                assertEquals(plain.getShortestDistance(plain.getSccId(u)),
+                        reordered.getShortestDistance(reordered.getSccId(u)), strategy + ": distance to vertex " + u);
+                assertEquals(plain.getLongestDistance(plain.getSccId(u)),
+                        reordered.getLongestDistance(reordered.getSccId(u)));
+            }
+            for (int c = 0; c < reordered.getSccCount(); c++) {
+                for (int v : reordered.getScc(c)) {
+                    assertEquals(c, reordered.getSccId(v), "Members must be original vertex IDs");
+                }
+            }
+        }
+
+        Graph dag = plain.getCondensation();
+        VertexPermutation topo = VertexPermutation.topological(dag);
+        CsrGraph relabeled = topo.apply(dag);
+        assertEquals(dag.getEdgeCount(), relabeled.getEdgeCount());
+        for (int u = 0; u < relabeled.getVertexCount(); u++) {
+            for (int i = 0; i < relabeled.getOutDegree(u); i++) {
+                assertTrue(relabeled.getEdgeTarget(u, i) > u, "Topological relabeling points every edge forward");
+            }
+        }
+        int[] parents = new DAGShortestPath(relabeled).shortestPaths(topo.toNew(plain.getCondensationSource())).parent;
+        assertEquals(plain.getShortestParents(), IntListView.of(topo.toOriginalVertices(parents)));
+    }
+
+    @Test
+    public void testEdgeCountAgreesAcrossStorage() {
+        // Undirected graphs store both arcs of an edge; every storage counts the edge once
+        Graph undirected = new Graph(4, false, "edge");
+        int[][] edges = {{0, 1}, {1, 2}, {2, 3}, {3, 0}, {0, 2}};
+        for (int[] e : edges) {
+            undirected.addEdge(e[0], e[1], 1);
+            undirected.addEdge(e[1], e[0], 1);
+        }
+        GraphStorage[] copies = {OffHeapGraph.copyOf(undirected), CsrGraph.copyOf(undirected),
+                CompressedGraph.copyOf(undirected), BitsetGraph.copyOf(undirected),
+                GraphStore.copyOf(undirected).snapshot()};
+        assertEquals(edges.length, undirected.getEdgeCount());
+        for (GraphStorage copy : copies) {
+            assertEquals(edges.length, copy.getEdgeCount(), copy.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void testCompressedGraphMatchesSource(@TempDir File dir) throws Exception {
+        java.util.Random random = new java.util.Random(5);
+        int n = 400;
+        Graph g = new Graph(n, true, "edge");
+        for (int u = 0; u < n; u++) {
+            for (int k = 0; k < 4; k++) {
+                int v = random.nextInt(3) == 0 ? random.nextInt(n) : Math.min(n - 1, u + 1 + random.nextInt(5));
+                if (v != u) g.addEdge(u, v, random.nextInt(2000) - 1000);
+            }
+        }
+        g.addEdge(399, 0, 70000);   // multi-byte gap and weight
+
+        CompressedGraph compressed = CompressedGraph.copyOf(g);
+        assertEquals(g.getEdgeCount(), compressed.getEdgeCount());
+        EdgeCursor edges = compressed.cursor();
+        for (int u = 0; u < n; u++) {
+            List<Long> expected = new java.util.ArrayList<>();
+            for (int i = 0; i < g.getOutDegree(u); i++) {
+                expected.add(((long) g.getEdgeTarget(u, i) << 32) | (g.getEdgeWeight(u, i) & 0xFFFFFFFFL));
+            }
+            expected.sort(java.util.Comparator.comparingLong(e -> e >>> 32));   // stable: equal targets keep insertion order
+            List<Long> decoded = new java.util.ArrayList<>();
+            edges.reset(u);
+            while (edges.next()) {
+                decoded.add(((long) edges.target() << 32) | (edges.weight() & 0xFFFFFFFFL));
+            }
+            assertEquals(expected, decoded, "Row " + u + " must decode to its sorted edges");
+            assertEquals(g.getOutDegree(u), compressed.getOutDegree(u));
+        }
+        assertEquals(70000, compressed.getEdgeWeight(399, 0));
+
+        File file = new File(dir, "graph.cgr");
+        compressed.save(file);
+        CompressedGraph loaded = CompressedGraph.load(file);
+        assertEquals(compressed.getCompressedBytes(), loaded.getCompressedBytes());
+        assertEquals(GraphFingerprint.of(compressed), GraphFingerprint.of(loaded), "Reload keeps the content hash");
+
+        TarjanSCC plain = new TarjanSCC(g);
+        plain.findSCCs();
+        TarjanSCC decoded = new TarjanSCC(loaded);
+        decoded.findSCCs();
+        assertEquals(plain.getSccCount(), decoded.getSccCount());
+
+        Graph dag = plain.buildCondensation();
+        CompressedGraph compressedDag = CompressedGraph.copyOf(dag);
+        int source = plain.getSccId(0);
+        assertArrayEquals(new DAGShortestPath(dag).shortestPaths(source).distances,
+                new DAGShortestPath(compressedDag).shortestPaths(source).distances);
+        assertTrue(new TopologicalSort(dag).isValidTopologicalOrder(new TopologicalSort(compressedDag).kahnSort()));
+    }
+
+    @Test
+    public void testPartitionedSccMatchesTarjan() {
+        java.util.Random random = new java.util.Random(23);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 50 + random.nextInt(300);
+            Graph g = new Graph(n, true, "edge");
+            int edges = n + random.nextInt(2 * n);
+            for (int e = 0; e < edges; e++) {
+                int u = random.nextInt(n);
+                // Mostly local edges with some long back edges to form cross-partition cycles
+                int v = random.nextInt(5) == 0 ? random.nextInt(n) : Math.min(n - 1, u + 1 + random.nextInt(4));
+                g.addEdge(u, v, 1 + random.nextInt(9));
+            }
+
+            TarjanSCC tarjan = new TarjanSCC(g);
+            tarjan.findSCCs();
+            int parts = 1 + trial % 6;
+            int[] partOf = new LabelPropagationPartitioner(g, parts).partition();
+            for (int p : partOf) {
+                assertTrue(p >= 0 && p < parts);
+            }
+            PartitionedSCC partitioned = new PartitionedSCC(g, partOf, 3);
+            partitioned.findSCCs();
+
+            assertEquals(tarjan.getSccCount(), partitioned.getSccCount(), "Trial " + trial);
+            for (int u = 0; u < n; u++) {
+                for (int v = u + 1; v < n; v++) {
+                    assertEquals(tarjan.getSccId(u) == tarjan.getSccId(v),
+                            partitioned.getSccId(u) == partitioned.getSccId(v),
+                            "Trial " + trial + ": vertices " + u + " and " + v);
+                }
+            }
+            Graph condensation = partitioned.buildCondensation();
+            assertEquals(tarjan.buildCondensation().getEdgeCount(), condensation.getEdgeCount());
+            assertFalse(new TopologicalSort(condensation).kahnSort().isEmpty(), "Condensation must be a DAG");
+            assertTrue(partitioned.getMetrics().getCounter("boundary_vertices")
+                    <= partitioned.getMetrics().getCounter("local_components"));
+        }
+    }
+
+    @Test
+    public void testSccAlgorithmsHandleDeepGraphs() {
+        // 200k-vertex cycle and path: deeper than the recursive TarjanSCC can go on a default stack
+        int n = 200_000;
+        Graph cycle = new Graph(n, true, "edge");
+        Graph path = new Graph(n, true, "edge");
+        for (int i = 0; i < n; i++) {
+            cycle.addEdge(i, (i + 1) % n, 1);
+            if (i + 1 < n) path.addEdge(i, i + 1, 1);
+        }
+        int[] componentOf = new int[n];
+        for (SccAlgorithm algorithm : new SccAlgorithm[]{new IterativeTarjanSCC(), new KosarajuSCC(), new GabowSCC()}) {
+            assertEquals(1, algorithm.computeComponents(cycle, componentOf), algorithm.getName());
+            assertEquals(n, algorithm.computeComponents(path, componentOf), algorithm.getName());
+            // Sinks first: the last vertex of the path closes the first component
+            assertEquals(0, componentOf[n - 1], algorithm.getName());
+            assertEquals(n - 1, componentOf[0], algorithm.getName());
+            // Reuse on a smaller graph after a larger one
+            Graph small = new Graph(3, true, "edge");
+            small.addEdge(0, 1, 1);
+            small.addEdge(1, 0, 1);
+            small.addEdge(1, 2, 1);
+            int[] smallComponents = new int[3];
+            assertEquals(2, algorithm.computeComponents(small, smallComponents), algorithm.getName());
+            assertEquals(smallComponents[0], smallComponents[1]);
+            assertEquals(0, smallComponents[2]);
+        }
+
+        // Alternating partitions make every edge a cut edge, so the boundary graph is the whole chain
+        int[] alternating = new int[n];
+        for (int v = 0; v < n; v++) {
+            alternating[v] = v % 2;
+        }
+        PartitionedSCC partitionedCycle = new PartitionedSCC(cycle, alternating, 2);
+        partitionedCycle.findSCCs();
+        assertEquals(1, partitionedCycle.getSccCount(), "PartitionedSCC cycle");
+        PartitionedSCC partitionedPath = new PartitionedSCC(path, alternating, 2);
+        partitionedPath.findSCCs();
+        assertEquals(n, partitionedPath.getSccCount(), "PartitionedSCC path");
+        assertEquals(n - 1, partitionedPath.getSccId(n - 1), "Components are numbered by smallest vertex");
+
+        // The full pipeline behind Main, --batch, --serve and AnalysisCache stays iterative too
+        assertEquals(1, AnalysisResult.compute(cycle, 0).getSccCount());
+        AnalysisResult chain = AnalysisResult.compute(path, 0);
+        assertEquals(n, chain.getSccCount());
+        assertEquals(n - 1, chain.getShortestDistance(chain.getSccId(n - 1)));
+    }
+
+    @Test
+    public void testTrimmedSccPeelsSourcesAndSinks() {
+        // Source 0 -> cycle {1, 2, 3} -> sink chain 4 -> 5, plus a self-loop on 6 fed by 5
+        Graph g = new Graph(8, true, "edge");
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 1, 1);
+        g.addEdge(3, 4, 1);
+        g.addEdge(4, 5, 1);
+        g.addEdge(5, 6, 1);
+        g.addEdge(6, 6, 1);
+        g.addEdge(7, 0, 1);
+
+        TrimmedSCC trimmed = new TrimmedSCC();
+        int[] componentOf = new int[8];
+        assertEquals(6, trimmed.computeComponents(g, componentOf));
+        assertEquals(2, trimmed.getMetrics().getCounter("trimmed_sources"));
+        assertEquals(0, trimmed.getMetrics().getCounter("trimmed_sinks"));
+        // The self-loop keeps 6 (and so 4, 5 before it) in the core with the cycle
+        assertEquals(6, trimmed.getMetrics().getCounter("core_vertices"));
+        assertEquals(componentOf[1], componentOf[2]);
+        assertEquals(componentOf[1], componentOf[3]);
+        assertEquals(0, componentOf[6]);
+        assertEquals(5, componentOf[7]);
+
+        // A DAG trims completely and never reaches the core engine
+        Graph dag = new Graph(4, true, "edge");
+        dag.addEdge(0, 1, 1);
+        dag.addEdge(1, 2, 1);
+        dag.addEdge(0, 3, 1);
+        int[] dagComponents = new int[4];
+        assertEquals(4, trimmed.computeComponents(dag, dagComponents));
+        assertEquals(0, trimmed.getMetrics().getCounter("core_vertices"));
+        assertEquals(0, trimmed.getMetrics().getCounter("core_edges"));
+        for (int u = 0; u < 4; u++) {
+            for (int i = 0; i < dag.getOutDegree(u); i++) {
+                assertTrue(dagComponents[u] > dagComponents[dag.getEdgeTarget(u, i)]);
+            }
+        }
+    }
+
+    @Test
+    public void testReverseAdjacencyIsCachedAndMatchesEdges() {
+        Graph g = RandomGraphs.generate(RandomGraphs.Shape.MULTI, 200, 5);
+        for (GraphStorage storage : new GraphStorage[]{g, OffHeapGraph.copyOf(g), CompressedGraph.copyOf(g)}) {
+            assertEquals(0, storage.getReverseBytes());
+            ReverseAdjacency reverse = storage.reverse();
+            assertSame(reverse, storage.reverse(), "Reverse adjacency should be cached");
+            assertEquals(reverse.getMemoryBytes(), storage.getReverseBytes());
+            assertEquals(g.getEdgeCount(), reverse.getEdgeCount());
+
+            // Every out-edge appears once among the in-edges of its target, with its weight
+            int[] seen = new int[reverse.getEdgeCount()];
+            for (int u = 0; u < g.getVertexCount(); u++) {
+                assertEquals(g.getOutDegree(u), reverse.outDegree[u]);
+                for (int i = 0; i < g.getOutDegree(u); i++) {
+                    int v = g.getEdgeTarget(u, i);
+                    boolean found = false;
+                    for (int e = reverse.offsets[v]; e < reverse.offsets[v + 1] && !found; e++) {
+                        if (reverse.sources[e] == u && reverse.weights[e] == g.getEdgeWeight(u, i) && seen[e] == 0) {
+                            seen[e] = 1;
+                            found = true;
+                        }
+                    }
+                    assertTrue(found, "Missing in-edge " + u + " -> " + v);
+                }
+            }
+            for (int v = 0; v < g.getVertexCount(); v++) {
+                assertEquals(reverse.offsets[v + 1] - reverse.offsets[v], reverse.inDegree[v]);
+                for (int e = reverse.offsets[v] + 1; e < reverse.offsets[v + 1]; e++) {
+                    assertTrue(reverse.sources[e - 1] <= reverse.sources[e], "Sources should be ascending");
+                }
+            }
+
+            storage.dropReverse();
+            assertEquals(0, storage.getReverseBytes());
+            assertNotSame(reverse, storage.reverse());
+        }
+
+        // Mutation invalidates the cache
+        ReverseAdjacency before = g.reverse();
+        g.addEdge(0, 1, 7);
+        ReverseAdjacency after = g.reverse();
+        assertNotSame(before, after);
+        assertEquals(before.getEdgeCount() + 1, after.getEdgeCount());
+        assertEquals(before.inDegree[1] + 1, after.inDegree[1]);
+    }
+
+    @Test
+    public void testReachableAnalysisTouchesOnlyReachableRegion() {
+        // A 3-vertex cycle feeding a 2-vertex tail, inside a larger graph the source cannot reach
+        int n = 5000;
+        Graph g = new Graph(n, true, "edge");
+        g.addEdge(5, 6, 2);
+        g.addEdge(6, 7, 3);
+        g.addEdge(7, 5, 1);
+        g.addEdge(7, 8, 4);
+        g.addEdge(8, 9, 5);
+        g.addEdge(6, 9, 20);
+        for (int v = 10; v + 1 < n; v++) {
+            g.addEdge(v, v + 1, 1);
+            g.addEdge(v + 1, 5, 1);
+        }
+
+        ReachableAnalysis lazy = ReachableAnalysis.compute(g, 5);
+        assertEquals(5, lazy.vertices.length);
+        assertEquals(3, lazy.componentCount);
+        assertEquals(3, lazy.condensationEdgeCount);
+        assertEquals(2 * 6, lazy.edgesScanned, "Each reachable edge is read once by Tarjan and once by relaxation");
+        assertFalse(lazy.isReachable(10));
+        assertFalse(lazy.isReachable(-1));
+        assertEquals(-1, lazy.componentOf(-1));
+        assertEquals(-1, lazy.componentOf(n - 1));
+
+        // Cycle -> 8 via 7 -> 8 (4), cycle -> 9 via 6 -> 9 (20), then 8 -> 9 (5)
+        assertEquals(0, lazy.shortestDistanceTo(6));
+        assertEquals(4, lazy.shortestDistanceTo(8));
+        assertEquals(9, lazy.shortestDistanceTo(9));
+        assertEquals(20, lazy.longestDistanceTo(9));
+        assertEquals(lazy.componentOf(5), lazy.sourceComponent);
+
+        AnalysisResult full = AnalysisResult.compute(g, 5);
+        assertEquals(full.getShortestDistance(full.getSccId(9)), lazy.shortestDistanceTo(9));
+        assertEquals(full.getLongestDistance(full.getSccId(8)), lazy.longestDistanceTo(8));
+        assertThrows(IllegalArgumentException.class, () -> ReachableAnalysis.compute(g, n));
+    }
+
+    @Test
+    public void testSparseIntMap() {
+        SparseIntMap map = new SparseIntMap(2);
+        java.util.Map<Integer, Integer> expected = new java.util.HashMap<>();
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(1 << 30);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (java.util.Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue().intValue(), map.get(e.getKey()));
+        }
+        assertEquals(-1, map.get(7));
+        assertEquals(-1, map.get(-1), "Negative keys must not match empty slots");
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, 0));
+    }
+
+    @Test
+    public void testPointToPointQueryRelaxesOnlyTheCone() {
+        // Two chains 0 -> 1 -> ... -> 999 and 1000 -> ... -> 1999, joined by 10 -> 1500
+        Graph g = new Graph(2000, true, "edge");
+        for (int v = 0; v + 1 < 1000; v++) {
+            g.addEdge(v, v + 1, 1);
+            g.addEdge(1000 + v, 1001 + v, 2);
+        }
+        g.addEdge(10, 1500, 5);
+        g.addEdge(5, 9, 100);
+
+        PointToPointQuery query = new PointToPointQuery(g);
+        assertEquals(10 + 5 + 2 * 10, query.shortest(0, 1510));
+        // The backward cone also holds 1000..1499, but only 0..10 and 1500..1510 lie between source and target
+        assertEquals(522, query.getMetrics().getCounter("cone_vertices"));
+        assertEquals(22, query.getMetrics().getCounter("relaxed_vertices"));
+        int[] path = new int[query.lastPathLength()];
+        query.writeLastPath(path);
+        assertEquals(0, path[0]);
+        assertEquals(1510, path[path.length - 1]);
+
+        assertEquals(5 + 100 + 1 + 5 + 2 * 10, query.longest(0, 1510));
+        assertEquals(Integer.MAX_VALUE, query.shortest(1510, 0));
+        assertEquals(0, query.lastPathLength());
+        assertEquals(Integer.MAX_VALUE, query.shortest(1000, 5));
+        assertEquals(0, query.shortest(7, 7));
+
+        // Back-to-back queries agree with full single-source runs
+        DAGShortestPath.PathResult full = new DAGShortestPath(g).shortestPaths(3);
+        for (int t = 0; t < 2000; t += 37) {
+            assertEquals(full.distances[t], query.shortest(3, t), "Target " + t);
+        }
+
+        Graph cyclic = new Graph(2, true, "edge");
+        cyclic.addEdge(0, 1, 1);
+        cyclic.addEdge(1, 0, 1);
+        assertThrows(IllegalArgumentException.class, () -> new PointToPointQuery(cyclic));
+    }
+
+    @Test
+    public void testWorkspaceReuseGivesIdenticalResults() {
+        Graph large = RandomGraphs.generate(RandomGraphs.Shape.MULTI, 3000, 11);
+        Graph small = RandomGraphs.generate(RandomGraphs.Shape.DAG, 300, 12);
+        Graph dag = RandomGraphs.generate(RandomGraphs.Shape.DAG, 3000, 13);
+
+        List<List<Integer>> sccs = new TarjanSCC(large).findSCCs();
+        List<Integer> kahn = new TopologicalSort(dag).kahnSort();
+        List<Integer> dfs = new TopologicalSort(dag).dfsSort();
+        long bytes = Workspace.current().getBytes();
+
+        // Stale scratch from a different graph must not leak into the next run
+        new TarjanSCC(small).findSCCs();
+        new TopologicalSort(small).kahnSort();
+        new TopologicalSort(small).dfsSort();
+
+        TarjanSCC again = new TarjanSCC(large);
+        assertEquals(sccs, again.findSCCs());
+        assertEquals(kahn, new TopologicalSort(dag).kahnSort());
+        assertEquals(dfs, new TopologicalSort(dag).dfsSort());
+        assertTrue(new TopologicalSort(dag).isValidTopologicalOrder(dfs));
+        assertEquals(bytes, Workspace.current().getBytes(), "Repeated runs should not grow the workspace");
+
+        Workspace.Marks marks = Workspace.current().marks(Workspace.MarkSlot.TOPO_VISITED, 10);
+        marks.add(3);
+        assertTrue(marks.contains(3));
+        marks = Workspace.current().marks(Workspace.MarkSlot.TOPO_VISITED, 10);
+        assertFalse(marks.contains(3), "Marks should be empty after being handed out again");
+
+        Workspace.trim();
+        assertEquals(bytes, Workspace.current().getBytes(), "Scratch under the cap survives trim");
+        Workspace.current().ints(Workspace.Slot.SCC_DISC, (int) (Workspace.RETAIN_BYTES / 4) + 1);
+        Workspace.trim();
+        assertEquals(0, Workspace.current().getBytes(), "Scratch over the cap is dropped by trim");
+        new TarjanSCC(small).findSCCs();
+        Workspace.release();
+        assertEquals(0, Workspace.current().getBytes(), "Release drops all scratch");
+    }
+
+    @Test
+    public void testGraphStoreSnapshotsAreIsolated() throws Exception {
+        Graph g = RandomGraphs.generate(RandomGraphs.Shape.MULTI, 1000, 21);
+        GraphStore store = GraphStore.copyOf(g);
+        GraphStore.Snapshot first = store.snapshot();
+        assertEquals(new TarjanSCC(g).findSCCs(), new TarjanSCC(first).findSCCs());
+        assertEquals(g.getEdgeCount(), first.getEdgeCount());
+
+        // One edit copies one block and leaves the pinned snapshot untouched
+        int degree = first.getOutDegree(130);
+        GraphStore.Snapshot second = store.addEdge(130, 7, 9);
+        assertEquals(degree, first.getOutDegree(130));
+        assertEquals(degree + 1, second.getOutDegree(130));
+        assertEquals(7, second.getEdgeTarget(130, degree));
+        assertEquals(first.getBlockCount() - 1, second.sharedBlocks(first));
+        assertEquals(1, store.getMetrics().getCounter("blocks_copied"));
+        assertTrue(store.removeEdge(130, 7) != second);
+        assertEquals(degree, store.snapshot().getOutDegree(130));
+        assertThrows(IllegalArgumentException.class, () -> store.addEdge(0, 1000, 1));
+
+        // Undirected stores keep both arcs of an edge, so the edge count stays exact
+        GraphStore undirected = new GraphStore(3, false, "edge");
+        GraphStore.Snapshot linked = undirected.addEdge(0, 2, 5);
+        assertEquals(1, linked.getEdgeCount());
+        assertEquals(0, linked.getEdgeTarget(2, 0));
+        assertEquals(5, linked.getEdgeWeight(2, 0));
+        undirected.removeEdge(2, 0);
+        assertEquals(0, undirected.snapshot().getEdgeCount());
+        assertEquals(0, undirected.snapshot().getOutDegree(0));
+
+        // Readers on pinned snapshots always see a whole update: edges come in pairs
+        GraphStore chain = new GraphStore(2000, true, "edge");
+        chain.update(editor -> {
+            for (int v = 0; v + 1 < 2000; v++) {
+                editor.addEdge(v, v + 1, 2);
+            }
+        });
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                try {
+                    while (!stop.get()) {
+                        GraphStore.Snapshot pinned = chain.snapshot();
+                        assertEquals(1999 + 2 * (pinned.version - 1), pinned.getEdgeCount());
+                        assertEquals(2000, new TarjanSCC(pinned).findSCCs().size());
+                        DAGShortestPath.PathResult paths = new DAGShortestPath(pinned).shortestPaths(0);
+                        // Every shortcut u -> u+2 of weight 3 saves 1 on the chain's 2 + 2
+                        assertEquals(2 * 1999 - (pinned.version - 1), paths.distances[1999]);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            readers[t].start();
+        }
+        for (int i = 0; i < 300; i++) {
+            int u = 2 * i;
+            chain.update(editor -> {
+                editor.addEdge(u, u + 2, 3);
+                editor.addEdge(u + 1, u + 1000, 1_000_000);
+            });
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+        assertEquals(301, chain.getVersion());
+    }
+
+    @Test
+    public void testFlatResultsMatchListViews() {
+        Graph g = RandomGraphs.generate(RandomGraphs.Shape.MULTI, 2000, 31);
+        TarjanSCC scc = new TarjanSCC(g);
+        Components components = scc.findComponents();
+        assertEquals(scc.getSccCount(), components.count);
+        assertEquals(g.getVertexCount(), components.offsets[components.count]);
+        int[] sizes = scc.getSccSizes();
+        for (int c = 0; c < components.count; c++) {
+            assertEquals(components.size(c), sizes[c]);
+            for (int v : components.members(c)) {
+                assertEquals(c, components.componentOf[v]);
+                assertEquals(c, scc.getSccId(v));
+            }
+        }
+
+        // The list view and a re-flattened copy agree with the arrays
+        List<List<Integer>> lists = components.asLists();
+        Components copy = Components.of(new java.util.ArrayList<>(lists), g.getVertexCount());
+        assertArrayEquals(components.members, copy.members);
+        assertArrayEquals(components.offsets, copy.offsets);
+        assertArrayEquals(components.componentOf, copy.componentOf);
+        assertEquals(lists, new TarjanSCC(g).findSCCs());
+        assertThrows(UnsupportedOperationException.class, () -> lists.get(0).set(0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> lists.get(components.count));
+
+        Graph dag = RandomGraphs.generate(RandomGraphs.Shape.DAG, 2000, 32);
+        int[] order = new TopologicalSort(dag).kahnOrder();
+        List<Integer> view = new TopologicalSort(dag).kahnSort();
+        assertEquals(IntListView.of(order), view);
+        DAGShortestPath.PathResult paths = new DAGShortestPath(dag).shortestPaths(0);
+        assertArrayEquals(order, paths.order);
+        assertEquals(view, paths.topoOrder);
+        assertEquals(3, IntListView.of(order, 5, 8).size());
+        assertEquals(order[6], IntListView.of(order, 5, 8).get(1).intValue());
+        assertThrows(IllegalArgumentException.class, () -> IntListView.of(order, 5, 3));
+    }
+
+    @Test
+    public void testJfrEventsCoverPipelinePhases(@TempDir File dir) throws Exception {
+        Graph g = Graph.fromJsonFile("data/medium_scc_1.json");
+        Path file = dir.toPath().resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PhaseEvent.class);
+            recording.enable(EngineEvent.class);
+            recording.enable(AnalysisEvent.class);
+            recording.start();
+            AnalysisEvent analysis = AnalysisEvent.begin("medium_scc_1");
+            AnalysisResult.compute(g, 0);
+            analysis.end(g);
+            new KosarajuSCC().computeComponents(g, new int[g.getVertexCount()]);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        String sccEngine = new TrimmedSCC().getName();
+        boolean sawSccEngine = false;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("scheduling.Engine") && event.getString("engine").equals(sccEngine)) {
+                sawSccEngine = true;
+                assertEquals(g.getVertexCount(), event.getInt("vertices"));
+                assertEquals(g.getEdgeCount(), event.getLong("edgesScanned"), "Trimming reads every edge once");
+                assertEquals(new TarjanSCC(g).findComponents().count, event.getInt("resultSize"));
+            }
+        }
+        assertTrue(sawSccEngine, "AnalysisResult must run " + sccEngine);
+
+        String summary = JfrSummary.summarize(file, true);
+        for (String phase : new String[]{"scc", "condensation", "topo", "shortest", "longest"}) {
+            assertTrue(summary.contains("| " + phase + " | 1 |"), "Missing phase " + phase + " in\n" + summary);
+        }
+        assertTrue(summary.contains("| Kosaraju | 1 | "));
+        assertTrue(summary.contains("| " + 2 * g.getEdgeCount() + " |"), "Kosaraju reads each edge twice");
+        assertTrue(summary.contains("| medium_scc_1 | " + g.getVertexCount() + " | " + g.getEdgeCount() + " |"));
+    }
 }